@@ -0,0 +1,154 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.benchmark;
+
+import org.dbmaintain.database.*;
+import org.dbmaintain.database.impl.DefaultSQLHandler;
+import org.dbmaintain.database.impl.H2Database;
+import org.dbmaintain.database.impl.HsqldbDatabase;
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.ScriptContentHandle;
+import org.dbmaintain.script.ScriptFactory;
+import org.dbmaintain.script.qualifier.Qualifier;
+import org.dbmaintain.script.repository.ScriptLocation;
+import org.dbmaintain.script.repository.ScriptRepository;
+import org.dbmaintain.script.repository.impl.ArchiveScriptLocation;
+import org.dbmaintain.util.DbMaintainException;
+
+import javax.sql.DataSource;
+import java.util.*;
+
+import static java.util.Collections.singletonList;
+import static org.dbmaintain.database.StoredIdentifierCase.UPPER_CASE;
+import static org.dbmaintain.datasource.SimpleDataSource.createDataSource;
+
+/**
+ * Utility methods for setting up the benchmarks: synthetic script repositories and in-memory databases.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class BenchmarkUtils {
+
+    public static final String SCRIPT_INDEX_REGEXP = "^([0-9]+)_";
+    public static final String QUALIFIER_REGEXP = "(?:\\\\G|_)@([a-zA-Z0-9]+)_";
+    public static final String TARGET_DATABASE_REGEXP = "(?:\\\\G|_)#([a-zA-Z0-9]+)_";
+    public static final String SCRIPT_ENCODING = "ISO-8859-1";
+
+
+    public static ScriptFactory createScriptFactory() {
+        return new ScriptFactory(SCRIPT_INDEX_REGEXP, TARGET_DATABASE_REGEXP, QUALIFIER_REGEXP, Collections.<Qualifier>emptySet(),
+                Collections.singleton(new Qualifier("patch")), "preprocessing", "postprocessing", null);
+    }
+
+    /**
+     * Creates the given nr of scripts, in random order. The scripts are spread over folders of 100 scripts, as is
+     * typical for a project with many releases: 001_release/001_script.sql, 001_release/002_script.sql...
+     *
+     * @param nrOfScripts The nr of scripts to create
+     * @return The scripts, not null
+     */
+    public static List<Script> createScripts(int nrOfScripts) {
+        ScriptFactory scriptFactory = createScriptFactory();
+        List<Script> scripts = new ArrayList<>(nrOfScripts);
+        for (int i = 0; i < nrOfScripts; i++) {
+            scripts.add(scriptFactory.createScriptWithoutContent(getScriptFileName(i), 0L, "checksum" + i));
+        }
+        Collections.shuffle(scripts, new Random(0));
+        return scripts;
+    }
+
+    /**
+     * Creates the given nr of scripts with a small content, in index order.
+     *
+     * @param nrOfScripts The nr of scripts to create
+     * @return The scripts, not null
+     */
+    public static SortedSet<Script> createScriptsWithContent(int nrOfScripts) {
+        ScriptFactory scriptFactory = createScriptFactory();
+        SortedSet<Script> scripts = new TreeSet<>();
+        for (int i = 0; i < nrOfScripts; i++) {
+            scripts.add(scriptFactory.createScriptWithContent(getScriptFileName(i), 0L, createScriptContentHandle(getScriptContent(i))));
+        }
+        return scripts;
+    }
+
+    /**
+     * @param scriptNr The nr of the script
+     * @return The file name of an indexed script, spread over folders of 100 scripts
+     */
+    public static String getScriptFileName(int scriptNr) {
+        return (scriptNr / 100 + 1) + "_release/" + (scriptNr % 100 + 1) + "_script" + scriptNr + ".sql";
+    }
+
+    public static String getScriptContent(int scriptNr) {
+        return "create table table" + scriptNr + " (id int, name varchar(50));\ninsert into table" + scriptNr + " values (1, 'name');\n";
+    }
+
+    public static ScriptContentHandle createScriptContentHandle(String content) {
+        return new ScriptContentHandle.StringScriptContentHandle(content, SCRIPT_ENCODING, false);
+    }
+
+    /**
+     * Creates a script with the given nr of insert statements, in the style of a large data script.
+     *
+     * @param nrOfStatements The nr of statements
+     * @return The content of the script, not null
+     */
+    public static String createInsertScriptContent(int nrOfStatements) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < nrOfStatements; i++) {
+            content.append("-- row ").append(i).append('\n');
+            content.append("insert into benchmark_table (id, name, description) values (").append(i).append(", 'name ").append(i)
+                    .append("', 'a description containing a ; separator and ''quotes''');\n");
+        }
+        return content.toString();
+    }
+
+    public static ScriptRepository createScriptRepository(SortedSet<Script> scripts) {
+        ScriptLocation scriptLocation = new ArchiveScriptLocation(scripts, SCRIPT_ENCODING, "preprocessing", "postprocessing", Collections.<Qualifier>emptySet(),
+                Collections.singleton(new Qualifier("patch")), SCRIPT_INDEX_REGEXP, QUALIFIER_REGEXP, TARGET_DATABASE_REGEXP, Collections.singleton("sql"), null, false);
+        return new ScriptRepository(Collections.singleton(scriptLocation), qualifiers -> true);
+    }
+
+    /**
+     * Creates an in-memory database of the given dialect.
+     *
+     * @param dialect The dialect, hsqldb or h2
+     * @return The databases, not null
+     */
+    public static Databases createDatabases(String dialect) {
+        DatabaseInfo databaseInfo;
+        if ("hsqldb".equals(dialect)) {
+            databaseInfo = new DatabaseInfo("benchmark", "hsqldb", "org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:benchmark", "sa", "", singletonList("PUBLIC"), false, true);
+        } else if ("h2".equals(dialect)) {
+            databaseInfo = new DatabaseInfo("benchmark", "h2", "org.h2.Driver", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1", "sa", "", singletonList("PUBLIC"), false, true);
+        } else {
+            throw new DbMaintainException("Unsupported benchmark database dialect " + dialect);
+        }
+        DataSource dataSource = createDataSource(databaseInfo);
+        SQLHandler sqlHandler = new DefaultSQLHandler();
+        DatabaseConnection databaseConnection = new DatabaseConnection(databaseInfo, sqlHandler, dataSource);
+        IdentifierProcessor identifierProcessor = new IdentifierProcessor(UPPER_CASE, "\"", databaseInfo.getDefaultSchemaName());
+        Database database;
+        if ("hsqldb".equals(dialect)) {
+            database = new HsqldbDatabase(databaseConnection, identifierProcessor);
+        } else {
+            database = new H2Database(databaseConnection, identifierProcessor);
+        }
+        return new Databases(database, singletonList(database), new ArrayList<>());
+    }
+}
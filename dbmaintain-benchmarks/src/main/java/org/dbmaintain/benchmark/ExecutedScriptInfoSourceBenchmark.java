@@ -0,0 +1,123 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.benchmark;
+
+import org.dbmaintain.database.Database;
+import org.dbmaintain.database.SQLHandler;
+import org.dbmaintain.database.impl.DefaultSQLHandler;
+import org.dbmaintain.script.ExecutedScript;
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.executedscriptinfo.TimestampFormat;
+import org.dbmaintain.script.executedscriptinfo.impl.DefaultExecutedScriptInfoSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.dbmaintain.benchmark.BenchmarkUtils.*;
+
+/**
+ * Measures loading the executed scripts table from an in-memory database, which parses the executed at timestamp
+ * of every row. The scripts are registered as executed in batches of 50 per second, as during a real update.
+ * <p>
+ * The <code>parseTimestampsWithSimpleDateFormat</code> benchmark parses the same timestamps with the shared
+ * SimpleDateFormat that was used before, the <code>parseTimestamps</code> benchmark with the timestamp format
+ * that is used now. They are kept as reference.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExecutedScriptInfoSourceBenchmark {
+
+    private static final String TIMESTAMP_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    @Param({"100000"})
+    public int nrOfScripts;
+
+    private Database database;
+    private SQLHandler sqlHandler;
+    private DefaultExecutedScriptInfoSource executedScriptInfoSource;
+    private List<String> timestamps;
+
+
+    @Setup
+    public void init() {
+        database = createDatabases("h2").getDefaultDatabase();
+        sqlHandler = new DefaultSQLHandler();
+        executedScriptInfoSource = createExecutedScriptInfoSource();
+
+        List<ExecutedScript> executedScripts = new ArrayList<>(nrOfScripts);
+        timestamps = new ArrayList<>(nrOfScripts);
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(TIMESTAMP_FORMAT);
+        long startTimeMs = 1211271600000L;
+        for (Script script : createScripts(nrOfScripts)) {
+            Date executedAt = new Date(startTimeMs + executedScripts.size() / 50 * 1000L);
+            executedScripts.add(new ExecutedScript(script, executedAt, true));
+            timestamps.add(simpleDateFormat.format(executedAt));
+        }
+        executedScriptInfoSource.registerExecutedScripts(executedScripts);
+    }
+
+    @TearDown
+    public void cleanUp() {
+        sqlHandler.execute("drop table dbmaintain_scripts", database.getDataSource());
+        sqlHandler.closeAllConnections();
+    }
+
+
+    @Benchmark
+    public SortedSet<ExecutedScript> loadExecutedScripts() {
+        return createExecutedScriptInfoSource().getExecutedScripts();
+    }
+
+    @Benchmark
+    public List<Date> parseTimestamps() {
+        TimestampFormat timestampFormat = new TimestampFormat(TIMESTAMP_FORMAT);
+        List<Date> result = new ArrayList<>(timestamps.size());
+        for (String timestamp : timestamps) {
+            result.add(timestampFormat.parse(timestamp));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Date> parseTimestampsWithSimpleDateFormat() throws ParseException {
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(TIMESTAMP_FORMAT);
+        List<Date> result = new ArrayList<>(timestamps.size());
+        for (String timestamp : timestamps) {
+            result.add(simpleDateFormat.parse(timestamp));
+        }
+        return result;
+    }
+
+
+    private DefaultExecutedScriptInfoSource createExecutedScriptInfoSource() {
+        return new DefaultExecutedScriptInfoSource(true, true, "dbmaintain_scripts", "file_name", 150, "file_last_modified_at",
+                "checksum", 50, "executed_at", 50, "succeeded", "duration_ms", "nr_of_statements", "script_size", "runner_type", 20,
+                "changed_at", "chunk_checkpoint", new TimestampFormat(TIMESTAMP_FORMAT), database, sqlHandler, createScriptFactory());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.benchmark;
+
+import org.dbmaintain.script.ExecutedScript;
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.executedscriptinfo.ExecutedScriptInfoSource;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Executed script info source that keeps the executed scripts in memory. This allows measuring the script updates
+ * analysis without the cost of reading the executed scripts table. Like the default implementation, the executed
+ * scripts are kept in a sorted set, so that they are iterated in the same order.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class InMemoryExecutedScriptInfoSource implements ExecutedScriptInfoSource {
+
+    /* The executed scripts */
+    private final SortedSet<ExecutedScript> executedScripts;
+
+
+    public InMemoryExecutedScriptInfoSource(Collection<ExecutedScript> executedScripts) {
+        this.executedScripts = new TreeSet<>(executedScripts);
+    }
+
+
+    public void registerExecutedScript(ExecutedScript executedScript) {
+        executedScripts.add(executedScript);
+    }
+
+    public void registerExecutedScriptWithoutCommit(ExecutedScript executedScript) {
+        executedScripts.add(executedScript);
+    }
+
+    public void registerExecutedScripts(Collection<ExecutedScript> executedScripts) {
+        this.executedScripts.addAll(executedScripts);
+    }
+
+    public void updateExecutedScript(ExecutedScript executedScript) {
+        // the executed script is updated in place
+    }
+
+    public void clearAllExecutedScripts() {
+        executedScripts.clear();
+    }
+
+    public Set<ExecutedScript> getExecutedScripts() {
+        return executedScripts;
+    }
+
+    public void deleteExecutedScript(ExecutedScript executedScript) {
+        executedScripts.remove(executedScript);
+    }
+
+    public void renameExecutedScript(ExecutedScript executedScript, Script renamedToScript) {
+        executedScripts.remove(executedScript);
+        executedScripts.add(new ExecutedScript(renamedToScript, executedScript.getExecutedAt(), executedScript.isSuccessful()));
+    }
+
+    public void deleteAllExecutedPreprocessingScripts() {
+        executedScripts.removeIf(executedScript -> executedScript.getScript().isPreProcessingScript());
+    }
+
+    public void deleteAllExecutedPostprocessingScripts() {
+        executedScripts.removeIf(executedScript -> executedScript.getScript().isPostProcessingScript());
+    }
+
+    public void markErrorScriptsAsSuccessful() {
+        for (ExecutedScript executedScript : executedScripts) {
+            executedScript.setSuccessful(true);
+        }
+    }
+
+    public void removeErrorScripts() {
+        executedScripts.removeIf(executedScript -> !executedScript.isSuccessful());
+    }
+
+    public Long getChunkCheckpoint(Script script) {
+        for (ExecutedScript executedScript : executedScripts) {
+            if (executedScript.getScript().equals(script)) {
+                return executedScript.getChunkCheckpoint();
+            }
+        }
+        return null;
+    }
+
+    public void updateChunkCheckpoint(Script script, Long chunkCheckpoint) {
+        for (ExecutedScript executedScript : executedScripts) {
+            if (executedScript.getScript().equals(script)) {
+                executedScript.setChunkCheckpoint(chunkCheckpoint);
+            }
+        }
+    }
+
+    public void resetCachedState() {
+        // nothing cached
+    }
+
+    public void refreshCachedState() {
+        // nothing cached
+    }
+}
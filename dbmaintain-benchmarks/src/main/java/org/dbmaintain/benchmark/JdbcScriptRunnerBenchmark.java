@@ -0,0 +1,103 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.benchmark;
+
+import org.dbmaintain.database.Database;
+import org.dbmaintain.database.Databases;
+import org.dbmaintain.database.SQLHandler;
+import org.dbmaintain.database.impl.DefaultSQLHandler;
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.script.parser.impl.DefaultScriptParserFactory;
+import org.dbmaintain.script.runner.impl.JdbcScriptRunner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.dbmaintain.benchmark.BenchmarkUtils.*;
+
+/**
+ * Measures executing a data script on an in-memory database. The table is emptied before each invocation, so that
+ * every invocation inserts the same rows.
+ * <p>
+ * With a statement queue size of 0 the statements are parsed and executed in the same thread, otherwise the script
+ * is parsed in a separate thread while the statements are executed. With a batch size larger than 1 the inserts are
+ * sent to the database in JDBC batches. The in-memory databases have no network round trips, so the gain of batching
+ * is only the overhead per statement.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JdbcScriptRunnerBenchmark {
+
+    @Param({"hsqldb", "h2"})
+    public String dialect;
+
+    @Param({"1000", "10000", "100000"})
+    public int nrOfStatements;
+
+    @Param({"0", "1000"})
+    public int statementQueueSize;
+
+    @Param({"0", "100"})
+    public int batchSize;
+
+    private Database database;
+    private SQLHandler sqlHandler;
+    private JdbcScriptRunner jdbcScriptRunner;
+    private Script script;
+
+
+    @Setup
+    public void init() {
+        Databases databases = createDatabases(dialect);
+        database = databases.getDefaultDatabase();
+        sqlHandler = new DefaultSQLHandler();
+
+        Map<String, ScriptParserFactory> scriptParserFactoryMap = new HashMap<>();
+        scriptParserFactoryMap.put(dialect, new DefaultScriptParserFactory(false, new Properties()));
+        jdbcScriptRunner = new JdbcScriptRunner(scriptParserFactoryMap, databases, sqlHandler, statementQueueSize, null, batchSize);
+
+        script = createScriptFactory().createScriptWithContent("1_data.sql", 0L, createScriptContentHandle(createInsertScriptContent(nrOfStatements)));
+        sqlHandler.execute("create table benchmark_table (id int, name varchar(50), description varchar(100))", database.getDataSource());
+    }
+
+    @TearDown
+    public void cleanUp() {
+        sqlHandler.execute("drop table benchmark_table", database.getDataSource());
+        sqlHandler.closeAllConnections();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        sqlHandler.execute("delete from benchmark_table", database.getDataSource());
+    }
+
+
+    @Benchmark
+    public void execute() {
+        jdbcScriptRunner.execute(script);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.benchmark;
+
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.ScriptFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.dbmaintain.benchmark.BenchmarkUtils.*;
+
+/**
+ * Measures creating scripts from their file names and contents, including calculating the check sums.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScriptFactoryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int nrOfScripts;
+
+    private ScriptFactory scriptFactory;
+    private String[] fileNames;
+    private String[] contents;
+
+
+    @Setup
+    public void init() {
+        scriptFactory = createScriptFactory();
+        fileNames = new String[nrOfScripts];
+        contents = new String[nrOfScripts];
+        for (int i = 0; i < nrOfScripts; i++) {
+            fileNames[i] = getScriptFileName(i);
+            contents[i] = getScriptContent(i);
+        }
+    }
+
+
+    @Benchmark
+    public void createScriptWithContent(Blackhole blackhole) {
+        for (int i = 0; i < nrOfScripts; i++) {
+            Script script = scriptFactory.createScriptWithContent(fileNames[i], 0L, createScriptContentHandle(contents[i]));
+            blackhole.consume(script.getCheckSum());
+        }
+    }
+}
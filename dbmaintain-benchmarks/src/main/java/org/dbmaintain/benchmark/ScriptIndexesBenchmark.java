@@ -0,0 +1,123 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.benchmark;
+
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.executedscriptinfo.ScriptIndexes;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sorting a repository of scripts, which compares the script indexes of the scripts.
+ * <p>
+ * The <code>boxedIndexes</code> benchmark sorts the same indexes as lists of boxed longs, using the comparison
+ * that was used before script indexes were stored as primitive longs. It is kept as reference.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScriptIndexesBenchmark {
+
+    @Param({"100000"})
+    public int nrOfScripts;
+
+    private List<Script> scripts;
+    private List<ScriptIndexes> scriptIndexes;
+    private List<List<Long>> boxedIndexes;
+
+
+    @Setup
+    public void init() {
+        scripts = BenchmarkUtils.createScripts(nrOfScripts);
+        scriptIndexes = new ArrayList<>(nrOfScripts);
+        boxedIndexes = new ArrayList<>(nrOfScripts);
+        for (Script script : scripts) {
+            scriptIndexes.add(script.getScriptIndexes());
+            boxedIndexes.add(new ArrayList<>(script.getScriptIndexes().getIndexes()));
+        }
+    }
+
+
+    @Benchmark
+    public SortedSet<Script> sortScripts() {
+        return new TreeSet<>(scripts);
+    }
+
+    @Benchmark
+    public List<ScriptIndexes> sortScriptIndexes() {
+        List<ScriptIndexes> result = new ArrayList<>(scriptIndexes);
+        Collections.sort(result);
+        return result;
+    }
+
+    @Benchmark
+    public List<List<Long>> sortBoxedIndexes() {
+        List<List<Long>> result = new ArrayList<>(boxedIndexes);
+        result.sort(ScriptIndexesBenchmark::compareBoxedIndexes);
+        return result;
+    }
+
+
+    /**
+     * The comparison of script indexes as it was done when indexes were stored as a list of boxed longs.
+     */
+    private static int compareBoxedIndexes(List<Long> indexes, List<Long> otherIndexes) {
+        if (indexes.isEmpty()) {
+            if (otherIndexes.isEmpty()) {
+                return 0;
+            }
+            return -1;
+        } else if (otherIndexes.isEmpty()) {
+            return 1;
+        }
+        Iterator<Long> thisIterator = indexes.iterator();
+        Iterator<Long> otherIterator = otherIndexes.iterator();
+
+        while (thisIterator.hasNext() && otherIterator.hasNext()) {
+            Long thisIndex = thisIterator.next();
+            Long otherIndex = otherIterator.next();
+
+            if (thisIndex != null && otherIndex != null) {
+                if (thisIndex < otherIndex) {
+                    return -1;
+                }
+                if (thisIndex > otherIndex) {
+                    return 1;
+                }
+            } else if (thisIndex != null) {
+                return -1;
+            } else if (otherIndex != null) {
+                return 1;
+            }
+        }
+        if (!thisIterator.hasNext() && !otherIterator.hasNext()) {
+            return 0;
+        }
+        if (thisIterator.hasNext()) {
+            return 1;
+        } else {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.benchmark;
+
+import org.dbmaintain.script.parser.ScriptParser;
+import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.script.parser.impl.DefaultScriptParserFactory;
+import org.dbmaintain.script.parser.impl.MySqlScriptParserFactory;
+import org.dbmaintain.script.parser.impl.StatementIndexCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.dbmaintain.benchmark.BenchmarkUtils.createInsertScriptContent;
+
+/**
+ * Measures splitting a large data script into statements. An insert statement with its comment line is about
+ * 150 characters, so 10000 statements is a script of roughly 1.5MB.
+ * <p>
+ * The <code>parseSingleStatementScript</code> benchmark parses one create view statement that selects the same nr
+ * of rows using the MySQL parser, which checks for the start of a pl-sql block at every whitespace character. The
+ * statement has a definer, so the whole statement could still be the start of a block.
+ * <p>
+ * The <code>parseScriptUsingStatementIndex</code> benchmark returns the statements of the large data script using a
+ * statement index that was stored before, as when the same script is executed again.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScriptParserBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int nrOfStatements;
+
+    private ScriptParserFactory scriptParserFactory;
+    private ScriptParserFactory mySqlScriptParserFactory;
+    private String scriptContent;
+    private String singleStatementScriptContent;
+    private File statementIndexCacheDirectory;
+    private StatementIndexCache statementIndexCache;
+
+
+    @Setup
+    public void init() throws IOException {
+        scriptParserFactory = new DefaultScriptParserFactory(false, new Properties());
+        mySqlScriptParserFactory = new MySqlScriptParserFactory(false, new Properties());
+        scriptContent = createInsertScriptContent(nrOfStatements);
+        singleStatementScriptContent = createSingleStatementScriptContent(nrOfStatements);
+
+        statementIndexCacheDirectory = Files.createTempDirectory("statementindexcache").toFile();
+        statementIndexCache = new StatementIndexCache(statementIndexCacheDirectory);
+        parseScriptUsingStatementIndex();
+    }
+
+    @TearDown
+    public void cleanUp() {
+        for (File indexFile : statementIndexCacheDirectory.listFiles()) {
+            indexFile.delete();
+        }
+        statementIndexCacheDirectory.delete();
+    }
+
+
+    @Benchmark
+    public int parseScript() {
+        return parse(scriptParserFactory, scriptContent);
+    }
+
+    @Benchmark
+    public int parseScriptUsingStatementIndex() {
+        ScriptParser scriptParser = statementIndexCache.createScriptParser(new StringReader(scriptContent), scriptParserFactory);
+        int count = 0;
+        while (scriptParser.getNextStatement() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int parseSingleStatementScript() {
+        return parse(mySqlScriptParserFactory, singleStatementScriptContent);
+    }
+
+
+    private int parse(ScriptParserFactory scriptParserFactory, String content) {
+        ScriptParser scriptParser = scriptParserFactory.createScriptParser(new StringReader(content));
+        int count = 0;
+        while (scriptParser.getNextStatement() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    private String createSingleStatementScriptContent(int nrOfRows) {
+        StringBuilder content = new StringBuilder("create definer=`dbmaintain`@`%` view benchmark_view as\n");
+        for (int i = 0; i < nrOfRows; i++) {
+            content.append(i == 0 ? "select " : "\nunion all select ").append(i).append(" id, 'name ").append(i).append("' name");
+        }
+        return content.append(";\n").toString();
+    }
+}
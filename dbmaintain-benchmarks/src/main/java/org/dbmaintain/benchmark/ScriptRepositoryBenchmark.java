@@ -0,0 +1,58 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.benchmark;
+
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.repository.ScriptRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.dbmaintain.benchmark.BenchmarkUtils.createScriptRepository;
+import static org.dbmaintain.benchmark.BenchmarkUtils.createScriptsWithContent;
+
+/**
+ * Measures constructing a script repository, which validates and indexes all scripts of the script locations.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScriptRepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int nrOfScripts;
+
+    private SortedSet<Script> scripts;
+
+
+    @Setup
+    public void init() {
+        scripts = createScriptsWithContent(nrOfScripts);
+    }
+
+
+    @Benchmark
+    public ScriptRepository createRepository() {
+        return createScriptRepository(scripts);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.benchmark;
+
+import org.dbmaintain.script.ExecutedScript;
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.analyzer.ScriptUpdates;
+import org.dbmaintain.script.analyzer.ScriptUpdatesAnalyzer;
+import org.dbmaintain.script.executedscriptinfo.ExecutedScriptInfoSource;
+import org.dbmaintain.script.repository.ScriptRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.dbmaintain.benchmark.BenchmarkUtils.createScriptRepository;
+import static org.dbmaintain.benchmark.BenchmarkUtils.createScripts;
+
+/**
+ * Measures calculating the script updates for a repository in which all scripts but the last one were already executed.
+ * This is the typical situation for a project with a long history that adds a new script.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScriptUpdatesAnalyzerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int nrOfScripts;
+
+    private ScriptRepository scriptRepository;
+    private ExecutedScriptInfoSource executedScriptInfoSource;
+
+
+    @Setup
+    public void init() {
+        SortedSet<Script> scripts = new TreeSet<>(createScripts(nrOfScripts));
+        scriptRepository = createScriptRepository(scripts);
+
+        SortedSet<ExecutedScript> executedScripts = new TreeSet<>();
+        for (Script script : scripts.headSet(scripts.last())) {
+            executedScripts.add(new ExecutedScript(script, new Date(0), true));
+        }
+        executedScriptInfoSource = new InMemoryExecutedScriptInfoSource(executedScripts);
+    }
+
+
+    @Benchmark
+    public ScriptUpdates calculateScriptUpdates() {
+        ScriptUpdatesAnalyzer scriptUpdatesAnalyzer = new ScriptUpdatesAnalyzer(scriptRepository, executedScriptInfoSource, false, false, false);
+        return scriptUpdatesAnalyzer.calculateScriptUpdates();
+    }
+}
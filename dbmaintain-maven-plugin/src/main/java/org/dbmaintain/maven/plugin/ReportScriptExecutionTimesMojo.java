@@ -0,0 +1,46 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.maven.plugin;
+
+import org.dbmaintain.launch.task.DbMaintainDatabase;
+import org.dbmaintain.launch.task.DbMaintainTask;
+import org.dbmaintain.launch.task.ReportScriptExecutionTimesTask;
+
+import java.util.List;
+
+/**
+ * Task that reports the scripts that took the longest to execute and the total execution time per release.
+ * No scripts will be executed by this task.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ * @goal reportScriptExecutionTimes
+ */
+public class ReportScriptExecutionTimesMojo extends BaseDatabaseMojo {
+
+    /**
+     * The maximum nr of scripts that is shown in the list of slowest scripts. Defaults to 10.
+     *
+     * @parameter
+     */
+    protected Integer maxNrOfSlowestScripts;
+
+
+    @Override
+    protected DbMaintainTask createDbMaintainTask(List<DbMaintainDatabase> dbMaintainDatabases) {
+        return new ReportScriptExecutionTimesTask(dbMaintainDatabases, maxNrOfSlowestScripts);
+    }
+}
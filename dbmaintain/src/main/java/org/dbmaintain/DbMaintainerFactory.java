@@ -48,6 +48,8 @@ public class DbMaintainerFactory extends FactoryWithDatabase<DbMaintainer> {
         boolean ignoreDeletions = PropertyUtils.getBoolean(PROPERTY_IGNORE_DELETIONS, false, getConfiguration());
         long maxNrOfCharsWhenLoggingScriptContent = PropertyUtils.getLong(PROPERTY_MAX_NR_CHARS_WHEN_LOGGING_SCRIPT_CONTENT, getConfiguration());
         long filenameColumnSize = PropertyUtils.getLong(PROPERTY_FILE_NAME_COLUMN_SIZE, getConfiguration());
+        int checkSumParallelism = (int) PropertyUtils.getLong(PROPERTY_CHECK_SUM_PARALLELISM, 0, getConfiguration());
+        boolean registerScriptExecutionInScriptTransaction = PropertyUtils.getBoolean(PROPERTY_REGISTER_SCRIPT_EXECUTION_IN_SCRIPT_TRANSACTION, false, getConfiguration());
         ScriptIndexes baseLineRevision = factoryWithDatabaseContext.getBaselineRevision();
 
         MainFactory mainFactory = factoryWithDatabaseContext.getMainFactory();
@@ -57,12 +59,13 @@ public class DbMaintainerFactory extends FactoryWithDatabase<DbMaintainer> {
         SequenceUpdater sequenceUpdater = mainFactory.createSequenceUpdater();
         ScriptRunner scriptRunner = mainFactory.createScriptRunner();
         ScriptUpdatesFormatter scriptUpdatesFormatter = createScriptUpdatesFormatter();
-        ExecutedScriptInfoSource executedScriptInfoSource = mainFactory.createExecutedScriptInfoSource();
+        ExecutedScriptInfoSource executedScriptInfoSource = mainFactory.getExecutedScriptInfoSource();
 
         return new DefaultDbMaintainer(scriptRunner, scriptRepository, executedScriptInfoSource, fromScratchEnabled,
                 useScriptFileLastModificationDates, allowOutOfSequenceExecutionOfPatchScripts, cleanDbEnabled, disableConstraintsEnabled,
                 updateSequencesEnabled, dbClearer, dbCleaner, constraintsDisabler, sequenceUpdater, scriptUpdatesFormatter, getSqlHandler(),
-                maxNrOfCharsWhenLoggingScriptContent, baseLineRevision, ignoreDeletions, filenameColumnSize);
+                maxNrOfCharsWhenLoggingScriptContent, baseLineRevision, ignoreDeletions, filenameColumnSize, checkSumParallelism,
+                registerScriptExecutionInScriptTransaction);
     }
 
 
@@ -39,6 +39,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import static java.lang.System.currentTimeMillis;
+import static org.dbmaintain.script.analyzer.ScriptUpdateType.CHUNKED_SCRIPT_RESUMED;
 import static org.dbmaintain.script.analyzer.ScriptUpdateType.REPEATABLE_SCRIPT_DELETED;
 import static org.dbmaintain.script.analyzer.ScriptUpdateType.REPEATABLE_SCRIPT_UPDATED;
 
@@ -105,6 +106,12 @@ public class DefaultDbMaintainer implements DbMaintainer {
     /* The maxmimum length of filenames that can be stored in the database */
     private long filenameColumnSize;
 
+    /* The nr of threads used to calculate script check sums, 0 to use the nr of available processors */
+    private int checkSumParallelism;
+
+    /* True if a successful script execution is registered in the same transaction as the script itself */
+    private boolean registerScriptExecutionInScriptTransaction;
+
     /**
      * Creates a new instance
      *
@@ -131,13 +138,18 @@ public class DefaultDbMaintainer implements DbMaintainer {
      *                                 The maximum length of a script that is logged in an exception, 0 to not log any script content
      * @param baseLineRevision         The baseline revision. If set, all scripts with a lower revision will be ignored
      * @param filenameColumnSize       The maxmimum length of filenames that can be stored in the database
+     * @param checkSumParallelism      The nr of threads used to calculate script check sums, 0 to use the nr of available processors
+     * @param registerScriptExecutionInScriptTransaction
+     *                                 if true, a successful script execution is registered in the same transaction as the
+     *                                 script itself, if the script runner supports this for the script
      */
     public DefaultDbMaintainer(ScriptRunner scriptRunner, ScriptRepository scriptRepository,
             ExecutedScriptInfoSource executedScriptInfoSource, boolean fromScratchEnabled, boolean useScriptFileLastModificationDates,
             boolean allowOutOfSequenceExecutionOfPatchScripts, boolean cleanDb, boolean disableConstraints, boolean updateSequences,
             DBClearer dbClearer, DBCleaner dbCleaner, ConstraintsDisabler constraintsDisabler, SequenceUpdater sequenceUpdater,
             ScriptUpdatesFormatter scriptUpdatesFormatter, SQLHandler sqlHandler, long maxNrOfCharsWhenLoggingScriptContent,
-            ScriptIndexes baseLineRevision, boolean ignoreDeletions, long filenameColumnSize) {
+            ScriptIndexes baseLineRevision, boolean ignoreDeletions, long filenameColumnSize, int checkSumParallelism,
+            boolean registerScriptExecutionInScriptTransaction) {
 
         this.scriptRunner = scriptRunner;
         this.scriptRepository = scriptRepository;
@@ -158,6 +170,8 @@ public class DefaultDbMaintainer implements DbMaintainer {
         this.baseLineRevision = baseLineRevision;
         this.ignoreDeletions = ignoreDeletions;
         this.filenameColumnSize = filenameColumnSize;
+        this.checkSumParallelism = checkSumParallelism;
+        this.registerScriptExecutionInScriptTransaction = registerScriptExecutionInScriptTransaction;
     }
 
 
@@ -199,6 +213,7 @@ public class DefaultDbMaintainer implements DbMaintainer {
 
             return true;
         } finally {
+            scriptRepository.storeCheckSumCaches();
             sqlHandler.closeAllConnections();
         }
     }
@@ -323,7 +338,8 @@ public class DefaultDbMaintainer implements DbMaintainer {
         if (!getRepeatableScriptsThatFailedDuringLastUpdate().isEmpty() && !scriptUpdates.hasIrregularScriptUpdates()) {
             ExecutedScript failedScript = getRepeatableScriptsThatFailedDuringLastUpdate().first();
             if (!scriptUpdates.getRegularlyAddedOrModifiedScripts().contains(new ScriptUpdate(REPEATABLE_SCRIPT_UPDATED, failedScript.getScript()))
-                    && !scriptUpdates.getRegularlyDeletedRepeatableScripts().contains(new ScriptUpdate(REPEATABLE_SCRIPT_DELETED, failedScript.getScript()))) {
+                    && !scriptUpdates.getRegularlyDeletedRepeatableScripts().contains(new ScriptUpdate(REPEATABLE_SCRIPT_DELETED, failedScript.getScript()))
+                    && !scriptUpdates.getRegularlyAddedOrModifiedScripts().contains(new ScriptUpdate(CHUNKED_SCRIPT_RESUMED, failedScript.getScript()))) {
                 throw new DbMaintainException("During the latest update, the execution of following repeatable script failed: " +
                         getRepeatableScriptsThatFailedDuringLastUpdate().first() + ". \nThis problem must be fixed " +
                         "before any other updates can be performed.");
@@ -332,8 +348,11 @@ public class DefaultDbMaintainer implements DbMaintainer {
     }
 
     private void containsFailedIncrementalScripts(ScriptUpdates scriptUpdates) {
-        if (!getIncrementalScriptsThatFailedDuringLastUpdate().isEmpty() && !scriptUpdates.hasIrregularScriptUpdates()) {
-            ExecutedScript failedExecutedScriptScript = getIncrementalScriptsThatFailedDuringLastUpdate().first();
+        SortedSet<ExecutedScript> failedIncrementalScripts = getIncrementalScriptsThatFailedDuringLastUpdate();
+        // an interrupted chunked script is resumed instead
+        failedIncrementalScripts.removeIf(failedScript -> scriptUpdates.getRegularlyAddedOrModifiedScripts().contains(new ScriptUpdate(CHUNKED_SCRIPT_RESUMED, failedScript.getScript())));
+        if (!failedIncrementalScripts.isEmpty() && !scriptUpdates.hasIrregularScriptUpdates()) {
+            ExecutedScript failedExecutedScriptScript = failedIncrementalScripts.first();
             throw new DbMaintainException("During the latest update, the execution of the following incremental script failed: " +
                     failedExecutedScriptScript + ". \nThis problem must be fixed before any other " +
                     "updates can be performed.\n" + getErrorScriptOptionsMessage(failedExecutedScriptScript.getScript()));
@@ -369,7 +388,7 @@ public class DefaultDbMaintainer implements DbMaintainer {
      */
     public ScriptUpdates getScriptUpdates() {
         return new ScriptUpdatesAnalyzer(scriptRepository, executedScriptInfoSource, useScriptFileLastModificationDates,
-                allowOutOfSequenceExecutionOfPatchScripts, ignoreDeletions).calculateScriptUpdates();
+                allowOutOfSequenceExecutionOfPatchScripts, ignoreDeletions, checkSumParallelism).calculateScriptUpdates();
     }
 
 
@@ -437,11 +456,14 @@ public class DefaultDbMaintainer implements DbMaintainer {
             executedScriptInfoSource.clearAllExecutedScripts();
 
             SortedSet<Script> allScripts = scriptRepository.getAllScripts();
+            List<ExecutedScript> executedScripts = new ArrayList<>(allScripts.size());
             for (Script script : allScripts) {
-                executedScriptInfoSource.registerExecutedScript(new ExecutedScript(script, new Date(), true));
+                executedScripts.add(new ExecutedScript(script, new Date(), true));
             }
+            executedScriptInfoSource.registerExecutedScripts(executedScripts);
             logger.info("The database has been marked as up-to-date");
         } finally {
+            scriptRepository.storeCheckSumCaches();
             sqlHandler.closeAllConnections();
         }
     }
@@ -458,10 +480,8 @@ public class DefaultDbMaintainer implements DbMaintainer {
         scriptRunner.initialize();
         try {
             for (ScriptUpdate scriptUpdate : scriptUpdates) {
-                long startTimeMs = currentTimeMillis();
-                executeScript(scriptUpdate.getScript());
-                long durationMs = currentTimeMillis() - startTimeMs;
-                logger.info("Executed " + scriptUpdatesFormatter.formatScriptUpdate(scriptUpdate) + " (" + durationMs + " ms)");
+                ExecutedScript executedScript = executeScript(scriptUpdate.getScript(), scriptUpdate.getType() == CHUNKED_SCRIPT_RESUMED);
+                logger.info("Executed " + scriptUpdatesFormatter.formatScriptUpdate(scriptUpdate) + " (" + executedScript.getDurationMs() + " ms)");
             }
         } finally {
             scriptRunner.close();
@@ -494,21 +514,45 @@ public class DefaultDbMaintainer implements DbMaintainer {
      * Executes the given script and updates the database execution registry appropriately. If
      * successfully, the script execution is registered in the database and marked as successful.
      * If an error occurred executing the script, the script execution is registered in the database
-     * and marked as unsuccessful.
+     * and marked as unsuccessful. The duration, the nr of statements, the size and the runner type of a successful
+     * execution are registered as well.
      *
      * @param script The script to execute, not null
+     * @return The registered script execution, not null
      */
-    protected void executeScript(Script script) {
+    protected ExecutedScript executeScript(Script script) {
+        return executeScript(script, false);
+    }
+
+
+    /**
+     * Executes the given script and updates the database execution registry appropriately, see {@link #executeScript(Script)}.
+     * When an interrupted chunked script is resumed, it is still registered as unsuccessful together with its checkpoint.
+     * The registration is then left as is, so that the script runner can continue from the checkpoint.
+     *
+     * @param script  The script to execute, not null
+     * @param resumed True if the script is an interrupted chunked script that is resumed
+     * @return The registered script execution, not null
+     */
+    protected ExecutedScript executeScript(Script script, boolean resumed) {
         try {
+            if (registerScriptExecutionInScriptTransaction && scriptRunner.isExecutedInDefaultDatabaseTransaction(script)) {
+                return executeScriptRegisteringExecutionInScriptTransaction(script);
+            }
             // We register the script execution, but we indicate it to be unsuccessful. If anything goes wrong or if the update is
             // interrupted before being completed, this will be the final state and the DbMaintainer will do a from-scratch update the next time
             ExecutedScript executedScript = new ExecutedScript(script, new Date(), false);
-            executedScriptInfoSource.registerExecutedScript(executedScript);
+            if (!resumed) {
+                executedScriptInfoSource.registerExecutedScript(executedScript);
+            }
 
-            scriptRunner.execute(script);
+            long startTimeMs = currentTimeMillis();
+            int nrOfStatements = scriptRunner.execute(script);
+            setExecutionStatistics(executedScript, currentTimeMillis() - startTimeMs, nrOfStatements);
             // We now register the previously registered script execution as being successful
             executedScript.setSuccessful(true);
             executedScriptInfoSource.updateExecutedScript(executedScript);
+            return executedScript;
 
         } catch (DbMaintainException e) {
             String message = getErrorMessage(script, e);
@@ -517,6 +561,48 @@ public class DefaultDbMaintainer implements DbMaintainer {
     }
 
 
+    /**
+     * Executes the given script and registers the successful execution in the transaction of the script itself, right
+     * before it is committed. If the script fails, the transaction is rolled back, including the registration, and the
+     * script execution is registered as unsuccessful afterwards.
+     *
+     * @param script The script to execute, not null
+     * @return The registered script execution, not null
+     */
+    protected ExecutedScript executeScriptRegisteringExecutionInScriptTransaction(Script script) {
+        ExecutedScript executedScript = new ExecutedScript(script, new Date(), true);
+        long startTimeMs = currentTimeMillis();
+        try {
+            scriptRunner.execute(script, nrOfStatements -> {
+                setExecutionStatistics(executedScript, currentTimeMillis() - startTimeMs, nrOfStatements);
+                executedScriptInfoSource.registerExecutedScriptWithoutCommit(executedScript);
+            });
+            return executedScript;
+
+        } catch (DbMaintainException e) {
+            // the registration could have been rolled back together with the script, reload the executed scripts
+            executedScriptInfoSource.resetCachedState();
+            executedScript.setSuccessful(false);
+            executedScriptInfoSource.registerExecutedScript(executedScript);
+            throw e;
+        }
+    }
+
+
+    /**
+     * @param executedScript The script execution to set the statistics on, not null
+     * @param durationMs     The duration of the execution in milliseconds
+     * @param nrOfStatements The nr of executed statements, -1 if not known
+     */
+    protected void setExecutionStatistics(ExecutedScript executedScript, long durationMs, int nrOfStatements) {
+        Script script = executedScript.getScript();
+        executedScript.setDurationMs(durationMs);
+        executedScript.setNrOfStatements(nrOfStatements < 0 ? null : nrOfStatements);
+        executedScript.setScriptSize(script.getScriptContentHandle().getScriptSize());
+        executedScript.setRunnerType(scriptRunner.getRunnerType(script));
+    }
+
+
     protected String getErrorMessage(Script script, DbMaintainException e) {
         String exceptionMessage = e.getMessage();
         Throwable cause = e.getCause();
@@ -26,6 +26,7 @@ import org.dbmaintain.datasource.DataSourceFactory;
 import org.dbmaintain.datasource.impl.SimpleDataSourceFactory;
 import org.dbmaintain.script.archive.ScriptArchiveCreator;
 import org.dbmaintain.script.executedscriptinfo.ExecutedScriptInfoSource;
+import org.dbmaintain.script.executedscriptinfo.ScriptExecutionReporter;
 import org.dbmaintain.script.runner.ScriptRunner;
 import org.dbmaintain.structure.clean.DBCleaner;
 import org.dbmaintain.structure.clear.DBClearer;
@@ -51,6 +52,7 @@ public class MainFactory {
     protected DatabaseConnectionManager databaseConnectionManager;
     protected Map<String, DataSource> dataSourcesPerDatabaseName;
     protected Databases databases;
+    protected ExecutedScriptInfoSource executedScriptInfoSource;
 
     protected FactoryContext factoryContext;
     protected FactoryWithDatabaseContext factoryWithDatabaseContext;
@@ -102,10 +104,25 @@ public class MainFactory {
         return createInstance(ExecutedScriptInfoSource.class);
     }
 
+    /**
+     * @return The executed script info source that is shared by the db maintainer and its script runner, so that
+     *         both use the same cached executed scripts, not null
+     */
+    public synchronized ExecutedScriptInfoSource getExecutedScriptInfoSource() {
+        if (executedScriptInfoSource == null) {
+            executedScriptInfoSource = createExecutedScriptInfoSource();
+        }
+        return executedScriptInfoSource;
+    }
+
     public ScriptArchiveCreator createScriptArchiveCreator() {
         return createInstance(ScriptArchiveCreator.class);
     }
 
+    public ScriptExecutionReporter createScriptExecutionReporter() {
+        return new ScriptExecutionReporter(getExecutedScriptInfoSource());
+    }
+
 
     @SuppressWarnings({"unchecked"})
     protected <S> S createInstance(Class<S> type) {
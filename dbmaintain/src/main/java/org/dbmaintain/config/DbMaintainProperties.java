@@ -267,9 +267,25 @@ public class DbMaintainProperties {
     /* The key of the property that specifies the column in which is stored whether the last update succeeded. */
     public static final String PROPERTY_SUCCEEDED_COLUMN_NAME = "dbMaintainer.succeededColumnName";
 
+    /* The keys of the properties that specify the optional columns in which the execution statistics of the scripts are stored. */
+    public static final String PROPERTY_DURATION_COLUMN_NAME = "dbMaintainer.durationColumnName";
+    public static final String PROPERTY_NR_OF_STATEMENTS_COLUMN_NAME = "dbMaintainer.nrOfStatementsColumnName";
+    public static final String PROPERTY_SCRIPT_SIZE_COLUMN_NAME = "dbMaintainer.scriptSizeColumnName";
+    public static final String PROPERTY_RUNNER_TYPE_COLUMN_NAME = "dbMaintainer.runnerTypeColumnName";
+    public static final String PROPERTY_RUNNER_TYPE_COLUMN_SIZE = "dbMaintainer.runnerTypeColumnSize";
+
+    /* The key of the property that specifies the optional column that stores when the row was last changed. */
+    public static final String PROPERTY_CHANGED_AT_COLUMN_NAME = "dbMaintainer.changedAtColumnName";
+
+    /* The key of the property that specifies the optional column that stores the progress of an interrupted chunked script. */
+    public static final String PROPERTY_CHUNK_CHECKPOINT_COLUMN_NAME = "dbMaintainer.chunkCheckpointColumnName";
+
     /* The key of the property that specifies whether the executed scripts table should be created automatically. */
     public static final String PROPERTY_AUTO_CREATE_DBMAINTAIN_SCRIPTS_TABLE = "dbMaintainer.autoCreateDbMaintainScriptsTable";
 
+    /* The key of the property that specifies whether a missing index on the file name column of the executed scripts table should be created automatically. */
+    public static final String PROPERTY_AUTO_CREATE_DBMAINTAIN_SCRIPTS_TABLE_INDEX = "dbMaintainer.autoCreateDbMaintainScriptsTableIndex";
+
     public static final String PROPERTY_TIMESTAMP_FORMAT = "dbMaintainer.timestampFormat";
 
     /**
@@ -284,6 +300,16 @@ public class DbMaintainProperties {
 
     public static final String PROPERTY_IGNORE_CARRIAGE_RETURN_WHEN_CALCULATING_CHECK_SUM = "dbMaintainer.script.ignoreCarriageReturnsWhenCalculatingCheckSum";
 
+    /**
+     * Property key for the nr of threads that calculate script check sums concurrently, 0 to use the nr of available processors
+     */
+    public static final String PROPERTY_CHECK_SUM_PARALLELISM = "dbMaintainer.script.checkSumParallelism";
+
+    /**
+     * Property key for the directory in which the check sums of the scripts are cached, empty to not cache check sums
+     */
+    public static final String PROPERTY_CHECK_SUM_CACHE_DIRECTORY = "dbMaintainer.script.checkSumCache.directory";
+
     /**
      * Property key for the directory in which the code script files are located
      */
@@ -323,12 +349,37 @@ public class DbMaintainProperties {
 
     public static final String PROPERTY_DB2_COMMAND = "dbMaintainer.db2ScriptRunner.db2Command";
 
+    /**
+     * Property key for the nr of statements that can be parsed ahead while the previous statements of a script are executed
+     */
+    public static final String PROPERTY_JDBC_STATEMENT_QUEUE_SIZE = "dbMaintainer.jdbcScriptRunner.statementQueueSize";
+
+    /**
+     * Property key for the directory in which the statement boundaries of the executed sql scripts are cached
+     */
+    public static final String PROPERTY_JDBC_STATEMENT_INDEX_CACHE_DIR = "dbMaintainer.jdbcScriptRunner.statementIndexCacheDir";
+
+    /**
+     * Property key for the max nr of consecutive insert, update and delete statements of a script that are executed in one JDBC batch
+     */
+    public static final String PROPERTY_JDBC_BATCH_SIZE = "dbMaintainer.jdbcScriptRunner.batchSize";
+
+    /**
+     * Property key for the nr of keys or rows that a chunked sql script processes per transaction
+     */
+    public static final String PROPERTY_CHUNKED_SCRIPT_CHUNK_SIZE = "dbMaintainer.chunkedScriptRunner.chunkSize";
+
     public static final String PROPERTY_BASELINE_REVISION = "dbMaintainer.baseline.revision";
 
     public static final String PROPERTY_SCRIPT_PARAMETER_FILE = "dbMaintainer.scriptParameterFile";
 
     public static final String PROPERTY_IGNORE_DELETIONS = "dbMaintainer.ignoreDeletions";
 
+    /**
+     * Property key for registering the successful execution of a script in the same transaction as the script itself
+     */
+    public static final String PROPERTY_REGISTER_SCRIPT_EXECUTION_IN_SCRIPT_TRANSACTION = "dbMaintainer.registerScriptExecutionInScriptTransaction";
+
     public static final String PROPERTY_SQL_PLUS_PRE_SCRIPT_FILE_PATH = "dbMaintainer.sqlPlusScriptRunner.preScriptFilePath";
     public static final String PROPERTY_SQL_PLUS_POST_SCRIPT_FILE_PATH = "dbMaintainer.sqlPlusScriptRunner.postScriptFilePath";
 
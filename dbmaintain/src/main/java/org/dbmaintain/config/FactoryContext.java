@@ -94,15 +94,27 @@ public class FactoryContext {
         Set<String> scriptFileExtensions = new HashSet<>(getStringList(PROPERTY_SCRIPT_FILE_EXTENSIONS, configuration));
         boolean ignoreCarriageReturnsWhenCalculatingCheckSum = getBoolean(PROPERTY_IGNORE_CARRIAGE_RETURN_WHEN_CALCULATING_CHECK_SUM, configuration);
         ScriptIndexes baseLineRevision = getBaselineRevision();
+        File checkSumCacheDirectory = getCheckSumCacheDirectory();
 
         File scriptLocationFile = new File(scriptLocation);
         if (scriptLocationFile.isDirectory()) {
-            return new FileSystemScriptLocation(scriptLocationFile, scriptEncoding, preProcessingScriptDirName, postProcessingScriptDirName, registeredQualifiers, patchQualifiers, scriptIndexRegexp, qualifierRegexp, targetDatabaseRegexp, scriptFileExtensions, baseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum);
+            return new FileSystemScriptLocation(scriptLocationFile, scriptEncoding, preProcessingScriptDirName, postProcessingScriptDirName, registeredQualifiers, patchQualifiers, scriptIndexRegexp, qualifierRegexp, targetDatabaseRegexp, scriptFileExtensions, baseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum, checkSumCacheDirectory);
         } else {
-            return new ArchiveScriptLocation(scriptLocationFile, scriptEncoding, preProcessingScriptDirName, postProcessingScriptDirName, registeredQualifiers, patchQualifiers, scriptIndexRegexp, qualifierRegexp, targetDatabaseRegexp, scriptFileExtensions, baseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum);
+            return new ArchiveScriptLocation(scriptLocationFile, scriptEncoding, preProcessingScriptDirName, postProcessingScriptDirName, registeredQualifiers, patchQualifiers, scriptIndexRegexp, qualifierRegexp, targetDatabaseRegexp, scriptFileExtensions, baseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum, checkSumCacheDirectory);
         }
     }
 
+    /**
+     * @return The directory in which the check sums of the scripts are cached, null if check sums are not cached
+     */
+    public File getCheckSumCacheDirectory() {
+        String checkSumCacheDirectory = getString(PROPERTY_CHECK_SUM_CACHE_DIRECTORY, null, configuration);
+        if (isBlank(checkSumCacheDirectory)) {
+            return null;
+        }
+        return new File(checkSumCacheDirectory);
+    }
+
 
     protected QualifierEvaluator createQualifierEvaluator(Set<ScriptLocation> scriptLocations) {
         Set<Qualifier> registeredQualifiers = getRegisteredQualifiers(scriptLocations);
@@ -17,8 +17,13 @@ package org.dbmaintain.database;
 
 import static org.dbmaintain.structure.model.DbItemType.SCHEMA;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -901,6 +906,94 @@ abstract public class Database {
         return "VARCHAR(" + length + ")";
     }
 
+    /**
+     * Gets the max nr of characters of a text column that can be part of a primary key or unique index. Databases
+     * limit the size of an index key, so a longer column cannot be indexed.
+     *
+     * @return The max nr of characters, Integer.MAX_VALUE if there is no known limit
+     */
+    public int getMaxIndexedTextLength() {
+        return Integer.MAX_VALUE;
+    }
+
+
+    /**
+     * Checks whether the given column is on its own the primary key of the table or has a unique index on it alone.
+     * This is determined using the JDBC meta data of the table.
+     *
+     * @param schemaName The schema, not null
+     * @param tableName  The table, not null
+     * @param columnName The column, not null
+     * @return True if the values of the column are unique and indexed
+     */
+    public boolean isUniqueColumn(String schemaName, String tableName, String columnName) {
+        try (Connection connection = getDataSource().getConnection()) {
+            return isUniqueColumn(connection.getMetaData(), null, schemaName, tableName, columnName);
+        } catch (SQLException e) {
+            throw new DatabaseException("Unable to retrieve the indexes of table " + qualified(schemaName, tableName), e);
+        }
+    }
+
+    protected boolean isUniqueColumn(DatabaseMetaData metaData, String catalogName, String schemaName, String tableName, String columnName) throws SQLException {
+        Set<String> primaryKeyColumnNames = new HashSet<>();
+        try (ResultSet resultSet = metaData.getPrimaryKeys(catalogName, schemaName, tableName)) {
+            while (resultSet.next()) {
+                primaryKeyColumnNames.add(resultSet.getString("COLUMN_NAME"));
+            }
+        }
+        if (isSingleColumn(primaryKeyColumnNames, columnName)) {
+            return true;
+        }
+
+        Map<String, Set<String>> uniqueIndexColumnNames = new HashMap<>();
+        try (ResultSet resultSet = metaData.getIndexInfo(catalogName, schemaName, tableName, true, true)) {
+            while (resultSet.next()) {
+                String indexName = resultSet.getString("INDEX_NAME");
+                if (indexName == null || resultSet.getBoolean("NON_UNIQUE")) {
+                    // table statistics or a non unique index
+                    continue;
+                }
+                uniqueIndexColumnNames.computeIfAbsent(indexName, name -> new HashSet<>()).add(resultSet.getString("COLUMN_NAME"));
+            }
+        }
+        for (Set<String> indexColumnNames : uniqueIndexColumnNames.values()) {
+            if (isSingleColumn(indexColumnNames, columnName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSingleColumn(Set<String> columnNames, String columnName) {
+        return columnNames.size() == 1 && columnName.equalsIgnoreCase(columnNames.iterator().next());
+    }
+
+    /**
+     * Creates a unique index on the given column of the table.
+     *
+     * @param schemaName The schema, not null
+     * @param tableName  The table, not null
+     * @param columnName The column, not null
+     * @param indexName  The name for the index, not null
+     */
+    public void createUniqueIndex(String schemaName, String tableName, String columnName, String indexName) {
+        getSQLHandler().executeUpdateAndCommit(getCreateUniqueIndexStatement(schemaName, tableName, columnName, indexName), getDataSource());
+    }
+
+    /**
+     * Gets the statement that creates a unique index on the given column of the table. The index is not qualified
+     * with a schema name: most databases create it in the schema of the table.
+     *
+     * @param schemaName The schema, not null
+     * @param tableName  The table, not null
+     * @param columnName The column, not null
+     * @param indexName  The name for the index, not null
+     * @return The statement, not null
+     */
+    public String getCreateUniqueIndexStatement(String schemaName, String tableName, String columnName, String indexName) {
+        return "create unique index " + quoted(indexName) + " on " + qualified(schemaName, tableName) + " (" + quoted(columnName) + ")";
+    }
+
 
     /**
      * Qualifies the given database object name with the name of the default schema. Quotes are put around both
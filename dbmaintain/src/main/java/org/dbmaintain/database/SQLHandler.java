@@ -18,6 +18,7 @@ package org.dbmaintain.database;
 import org.dbmaintain.util.DbMaintainException;
 
 import javax.sql.DataSource;
+import java.util.List;
 import java.util.Set;
 
 public interface SQLHandler {
@@ -30,6 +31,37 @@ public interface SQLHandler {
      */
     void execute(String sql, DataSource dataSource);
 
+    /**
+     * Executes the given statements, in the given order, as one JDBC batch. The statements must not return results,
+     * e.g. inserts, updates or deletes. If a statement fails, the exception names that statement. Depending on the
+     * driver, the statements after it may or may not have been executed.
+     *
+     * @param sqlStatements The sql statements, not null
+     * @param dataSource    The dataSource, not null
+     */
+    void executeBatch(List<String> sqlStatements, DataSource dataSource);
+
+    /**
+     * Executes the given statement without committing. If a transaction was started, the changes are part of that
+     * transaction.
+     *
+     * @param sql        The sql string, e.g. an update statement
+     * @param dataSource The dataSource, not null
+     * @return The nr of updates
+     */
+    int executeUpdate(String sql, DataSource dataSource);
+
+    /**
+     * Executes the given prepared statement using the given bind values without committing. If a transaction was
+     * started, the changes are part of that transaction.
+     *
+     * @param sql        The sql string with ? placeholders for the parameters
+     * @param parameters The values for the placeholders, not null
+     * @param dataSource The dataSource, not null
+     * @return The nr of updates
+     */
+    int executeUpdate(String sql, Object[] parameters, DataSource dataSource);
+
     /**
      * Executes the given statement and commits the changes to the database
      *
@@ -39,6 +71,27 @@ public interface SQLHandler {
      */
     int executeUpdateAndCommit(String sql, DataSource dataSource);
 
+    /**
+     * Executes the given prepared statement using the given bind values and commits the changes to the database
+     *
+     * @param sql        The sql string with ? placeholders for the parameters
+     * @param parameters The values for the placeholders, not null
+     * @param dataSource The dataSource, not null
+     * @return The nr of updates
+     */
+    int executeUpdateAndCommit(String sql, Object[] parameters, DataSource dataSource);
+
+    /**
+     * Executes the given prepared statement once for every set of bind values using JDBC batches. All updates
+     * are committed together at the end, so either all or none of them are performed.
+     *
+     * @param sql            The sql string with ? placeholders for the parameters
+     * @param parametersList The values for the placeholders, one array per execution, not null
+     * @param dataSource     The dataSource, not null
+     * @return The nr of updates
+     */
+    int executeBatchUpdateAndCommit(String sql, List<Object[]> parametersList, DataSource dataSource);
+
     /**
      * Returns the long extracted from the result of the given query. If no value is found, a {@link DbMaintainException}
      * is thrown.
@@ -49,6 +102,16 @@ public interface SQLHandler {
      */
     long getItemAsLong(String sql, DataSource dataSource);
 
+    /**
+     * Returns the values of the first row of the result of the given query as longs. If no row is found, a
+     * {@link DbMaintainException} is thrown.
+     *
+     * @param sql        The sql string for retrieving the items
+     * @param dataSource The dataSource, not null
+     * @return The values of the columns, an element is null if the column is null, not null
+     */
+    Long[] getRowAsLongs(String sql, DataSource dataSource);
+
     /**
      * Returns the value extracted from the result of the given query. If no value is found, a {@link DbMaintainException}
      * is thrown.
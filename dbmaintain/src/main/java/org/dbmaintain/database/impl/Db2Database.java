@@ -46,6 +46,21 @@ public class Db2Database extends Database {
         return "db2";
     }
 
+    /**
+     * An unqualified index is created in the current schema, which is not necessarily the schema of the
+     * table, so the index name is qualified with the schema of the table.
+     *
+     * @param schemaName The schema, not null
+     * @param tableName  The table, not null
+     * @param columnName The column, not null
+     * @param indexName  The name for the index, not null
+     * @return The statement, not null
+     */
+    @Override
+    public String getCreateUniqueIndexStatement(String schemaName, String tableName, String columnName, String indexName) {
+        return "create unique index " + qualified(schemaName, indexName) + " on " + qualified(schemaName, tableName) + " (" + quoted(columnName) + ")";
+    }
+
     /**
      * Returns the names of all tables in the database. <p> TODO check table types A = Alias G = Global temporary table
      * H = Hierarchy table L = Detached table N = Nickname S = Materialized query table T = Table (untyped) U = Typed
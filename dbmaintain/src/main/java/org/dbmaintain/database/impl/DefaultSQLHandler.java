@@ -21,14 +21,8 @@ import org.dbmaintain.database.DatabaseException;
 import org.dbmaintain.database.SQLHandler;
 
 import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.sql.*;
+import java.util.*;
 
 import static org.apache.commons.dbutils.DbUtils.closeQuietly;
 
@@ -45,6 +39,9 @@ public class DefaultSQLHandler implements SQLHandler {
     /* The logger instance for this class */
     private static Log logger = LogFactory.getLog(DefaultSQLHandler.class);
 
+    /* The maximum nr of statements that are sent to the database in one JDBC batch */
+    public static final int BATCH_SIZE = 500;
+
 
     /* 
      * Boolean that indicates whether database updates have to executed on the database or not. Setting this value
@@ -89,6 +86,63 @@ public class DefaultSQLHandler implements SQLHandler {
     }
 
 
+    public void executeBatch(List<String> sqlStatements, DataSource dataSource) {
+        for (String sql : sqlStatements) {
+            logger.debug(sql);
+        }
+        if (!doExecuteUpdates || sqlStatements.isEmpty()) {
+            // skip update
+            return;
+        }
+        try (Statement statement = getConnection(dataSource).createStatement()) {
+            for (String sql : sqlStatements) {
+                statement.addBatch(sql);
+            }
+            statement.executeBatch();
+
+        } catch (BatchUpdateException e) {
+            int failedStatementIndex = getFailedStatementIndex(e.getUpdateCounts());
+            if (failedStatementIndex < sqlStatements.size()) {
+                throw new DatabaseException("Could not perform database statement: " + sqlStatements.get(failedStatementIndex), e);
+            }
+            throw new DatabaseException("Could not perform batch of " + sqlStatements.size() + " database statements, starting with: " + sqlStatements.get(0), e);
+        } catch (Exception e) {
+            throw new DatabaseException("Could not perform batch of " + sqlStatements.size() + " database statements, starting with: " + sqlStatements.get(0), e);
+        }
+    }
+
+
+    public int executeUpdate(String sql, DataSource dataSource) {
+        logger.debug(sql);
+
+        if (!doExecuteUpdates) {
+            // skip update
+            return 0;
+        }
+        try (Statement statement = getConnection(dataSource).createStatement()) {
+            return statement.executeUpdate(sql);
+        } catch (Exception e) {
+            throw new DatabaseException("Could not perform database statement: " + sql, e);
+        }
+    }
+
+
+    public int executeUpdate(String sql, Object[] parameters, DataSource dataSource) {
+        logger.debug(sql + " " + Arrays.toString(parameters));
+
+        if (!doExecuteUpdates) {
+            // skip update
+            return 0;
+        }
+        try (PreparedStatement preparedStatement = getConnection(dataSource).prepareStatement(sql)) {
+            setParameters(preparedStatement, parameters, null);
+            return preparedStatement.executeUpdate();
+        } catch (Exception e) {
+            throw new DatabaseException("Could not perform database statement: " + sql + "\nwith parameters " + Arrays.toString(parameters), e);
+        }
+    }
+
+
     public int executeUpdateAndCommit(String sql, DataSource dataSource) {
         logger.debug(sql);
 
@@ -114,6 +168,79 @@ public class DefaultSQLHandler implements SQLHandler {
     }
 
 
+    public int executeUpdateAndCommit(String sql, Object[] parameters, DataSource dataSource) {
+        logger.debug(sql + " " + Arrays.toString(parameters));
+
+        if (!doExecuteUpdates) {
+            // skip update
+            return 0;
+        }
+        try {
+            Connection connection = getConnection(dataSource);
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                setParameters(preparedStatement, parameters, null);
+                int nbChanges = preparedStatement.executeUpdate();
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                return nbChanges;
+            }
+        } catch (Exception e) {
+            throw new DatabaseException("Error while performing database update:\n" + sql + "\nwith parameters " + Arrays.toString(parameters), e);
+        }
+    }
+
+
+    public int executeBatchUpdateAndCommit(String sql, List<Object[]> parametersList, DataSource dataSource) {
+        logger.debug(sql + " (" + parametersList.size() + " times)");
+
+        if (!doExecuteUpdates || parametersList.isEmpty()) {
+            // skip update
+            return 0;
+        }
+        Connection connection = getConnection(dataSource);
+        boolean startedTransaction = false;
+        try {
+            if (connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                startedTransaction = true;
+            }
+            int nbChanges = 0;
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                int batchCount = 0;
+                int[] parameterTypes = null;
+                for (Object[] parameters : parametersList) {
+                    parameterTypes = setParameters(preparedStatement, parameters, parameterTypes);
+                    preparedStatement.addBatch();
+                    if (++batchCount == BATCH_SIZE) {
+                        nbChanges += getNbChanges(preparedStatement.executeBatch());
+                        batchCount = 0;
+                    }
+                }
+                if (batchCount > 0) {
+                    nbChanges += getNbChanges(preparedStatement.executeBatch());
+                }
+            }
+            connection.commit();
+            return nbChanges;
+
+        } catch (Exception e) {
+            if (startedTransaction) {
+                try {
+                    connection.rollback();
+                } catch (Exception t) {
+                    logger.warn("Unable to perform database rollback after batch update failure.");
+                }
+            }
+            throw new DatabaseException("Error while performing database batch update:\n" + sql, e);
+        } finally {
+            if (startedTransaction) {
+                reenableAutoCommit(connection);
+            }
+        }
+    }
+
+
     public long getItemAsLong(String sql, DataSource dataSource) {
         logger.debug(sql);
 
@@ -135,6 +262,32 @@ public class DefaultSQLHandler implements SQLHandler {
         throw new DatabaseException("No item value found: " + sql);
     }
 
+    public Long[] getRowAsLongs(String sql, DataSource dataSource) {
+        logger.debug(sql);
+
+        Statement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = getConnection(dataSource).createStatement();
+            resultSet = statement.executeQuery(sql);
+            if (resultSet.next()) {
+                Long[] values = new Long[resultSet.getMetaData().getColumnCount()];
+                for (int i = 0; i < values.length; i++) {
+                    long value = resultSet.getLong(i + 1);
+                    values[i] = resultSet.wasNull() ? null : value;
+                }
+                return values;
+            }
+        } catch (Exception e) {
+            throw new DatabaseException("Error while executing statement: " + sql, e);
+        } finally {
+            closeQuietly(null, statement, resultSet);
+        }
+
+        // in case no row was found, throw an exception
+        throw new DatabaseException("No item value found: " + sql);
+    }
+
     public String getItemAsString(String sql, DataSource dataSource) {
         logger.debug(sql);
 
@@ -254,6 +407,87 @@ public class DefaultSQLHandler implements SQLHandler {
         }
     }
 
+    /**
+     * Sets the bind values of the given statement. Null values are bound using the type of the parameter as
+     * reported by the driver, or as varchar if the driver cannot tell. The parameter types are only looked up the
+     * first time a null value is bound: pass the returned types when the statement is executed again.
+     *
+     * @param preparedStatement The statement, not null
+     * @param parameters        The values, not null
+     * @param parameterTypes    The parameter types as returned by a previous call for this statement, null if not known yet
+     * @return The parameter types, null if they were not needed yet
+     */
+    protected int[] setParameters(PreparedStatement preparedStatement, Object[] parameters, int[] parameterTypes) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i] == null) {
+                if (parameterTypes == null) {
+                    parameterTypes = getParameterTypes(preparedStatement, parameters.length);
+                }
+                preparedStatement.setNull(i + 1, parameterTypes[i]);
+            } else {
+                preparedStatement.setObject(i + 1, parameters[i]);
+            }
+        }
+        return parameterTypes;
+    }
+
+    /**
+     * Some drivers, e.g. PostgreSQL, do not accept a varchar null for a numeric column. The meta data is only
+     * requested once: for some drivers this is a round trip to the database.
+     *
+     * @param preparedStatement The statement, not null
+     * @param nrOfParameters    The nr of parameters of the statement
+     * @return The sql types of the parameters, varchar if not supported by the driver, not null
+     */
+    protected int[] getParameterTypes(PreparedStatement preparedStatement, int nrOfParameters) {
+        int[] parameterTypes = new int[nrOfParameters];
+        Arrays.fill(parameterTypes, Types.VARCHAR);
+        try {
+            ParameterMetaData parameterMetaData = preparedStatement.getParameterMetaData();
+            for (int i = 0; i < nrOfParameters; i++) {
+                parameterTypes[i] = parameterMetaData.getParameterType(i + 1);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // keep varchar for the remaining parameters
+        }
+        return parameterTypes;
+    }
+
+    /**
+     * Drivers are allowed to return SUCCESS_NO_INFO instead of an update count for batched statements,
+     * these are counted as one update.
+     */
+    private int getNbChanges(int[] updateCounts) {
+        int nbChanges = 0;
+        for (int updateCount : updateCounts) {
+            if (updateCount == Statement.SUCCESS_NO_INFO) {
+                nbChanges++;
+            } else if (updateCount > 0) {
+                nbChanges += updateCount;
+            }
+        }
+        return nbChanges;
+    }
+
+    /**
+     * Drivers that stop at the first failing statement of a batch only return the update counts of the statements
+     * before it. Drivers that continue mark the failing statement as EXECUTE_FAILED.
+     *
+     * @param updateCounts The update counts of the failed batch, null if not known
+     * @return The index of the statement that failed
+     */
+    private int getFailedStatementIndex(int[] updateCounts) {
+        if (updateCounts == null) {
+            return Integer.MAX_VALUE;
+        }
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                return i;
+            }
+        }
+        return updateCounts.length;
+    }
+
     private void reenableAutoCommit(Connection connection) {
         try {
             connection.setAutoCommit(true);
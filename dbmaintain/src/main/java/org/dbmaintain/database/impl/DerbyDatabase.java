@@ -52,6 +52,21 @@ public class DerbyDatabase extends Database {
         return "derby";
     }
 
+    /**
+     * An unqualified index is created in the current schema, which is not necessarily the schema of the
+     * table, so the index name is qualified with the schema of the table.
+     *
+     * @param schemaName The schema, not null
+     * @param tableName  The table, not null
+     * @param columnName The column, not null
+     * @param indexName  The name for the index, not null
+     * @return The statement, not null
+     */
+    @Override
+    public String getCreateUniqueIndexStatement(String schemaName, String tableName, String columnName, String indexName) {
+        return "create unique index " + qualified(schemaName, indexName) + " on " + qualified(schemaName, tableName) + " (" + quoted(columnName) + ")";
+    }
+
 
     /**
      * Returns the names of all tables in the database.
@@ -46,6 +46,20 @@ public class InformixDatabase extends Database {
         return "informix";
     }
 
+    /**
+     * The index name is qualified with the owner of the table, so that the index gets the same owner.
+     *
+     * @param schemaName The schema, not null
+     * @param tableName  The table, not null
+     * @param columnName The column, not null
+     * @param indexName  The name for the index, not null
+     * @return The statement, not null
+     */
+    @Override
+    public String getCreateUniqueIndexStatement(String schemaName, String tableName, String columnName, String indexName) {
+        return "create unique index " + qualified(schemaName, indexName) + " on " + qualified(schemaName, tableName) + " (" + quoted(columnName) + ")";
+    }
+
     @Override
     public Set<String> getTableNames(String schemaName) {
         return getSQLHandler().getItemsAsStringSet("select tabname from systables where owner = '" + schemaName + "' and tabid > 99 and tabtype = 'T'", getDataSource());
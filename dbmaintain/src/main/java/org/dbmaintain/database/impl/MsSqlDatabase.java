@@ -441,4 +441,14 @@ public class MsSqlDatabase extends Database {
         return true;
     }
 
+    /**
+     * The key of a clustered index, such as a primary key, is limited to 900 bytes. A VARCHAR character takes 1 byte.
+     *
+     * @return 900
+     */
+    @Override
+    public int getMaxIndexedTextLength() {
+        return 900;
+    }
+
 }
@@ -17,6 +17,8 @@ package org.dbmaintain.database.impl;
 
 import org.dbmaintain.database.*;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Set;
 
 /**
@@ -49,6 +51,23 @@ public class MySqlDatabase extends Database {
         return "mysql";
     }
 
+    /**
+     * MySQL exposes its schemas (databases) as catalogs in the JDBC meta data.
+     *
+     * @param schemaName The schema, not null
+     * @param tableName  The table, not null
+     * @param columnName The column, not null
+     * @return True if the values of the column are unique and indexed
+     */
+    @Override
+    public boolean isUniqueColumn(String schemaName, String tableName, String columnName) {
+        try (Connection connection = getDataSource().getConnection()) {
+            return isUniqueColumn(connection.getMetaData(), schemaName, null, tableName, columnName);
+        } catch (SQLException e) {
+            throw new DatabaseException("Unable to retrieve the indexes of table " + qualified(schemaName, tableName), e);
+        }
+    }
+
 
     /**
      * Returns the names of all tables in the database.
@@ -267,4 +286,15 @@ public class MySqlDatabase extends Database {
         return true;
     }
 
+    /**
+     * InnoDB limits index keys to 767 bytes for the compact and redundant row formats. With the utf8mb4 character set
+     * a character takes up to 4 bytes.
+     *
+     * @return 191
+     */
+    @Override
+    public int getMaxIndexedTextLength() {
+        return 191;
+    }
+
 }
\ No newline at end of file
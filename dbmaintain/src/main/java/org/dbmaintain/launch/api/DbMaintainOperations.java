@@ -19,6 +19,7 @@ import org.dbmaintain.DbMaintainer;
 import org.dbmaintain.MainFactory;
 import org.dbmaintain.config.DbMaintainConfigurationLoader;
 import org.dbmaintain.script.archive.ScriptArchiveCreator;
+import org.dbmaintain.script.executedscriptinfo.ScriptExecutionReporter;
 import org.dbmaintain.structure.clean.DBCleaner;
 import org.dbmaintain.structure.clear.DBClearer;
 import org.dbmaintain.structure.constraint.ConstraintsDisabler;
@@ -98,6 +99,17 @@ public class DbMaintainOperations {
         sequenceUpdater.updateSequences();
     }
 
+    /**
+     * Reports the scripts that took the longest to execute and the total execution time per release.
+     *
+     * @param maxNrOfSlowestScripts The maximum nr of scripts to show in the list of slowest scripts
+     * @return The report, not null
+     */
+    public static String reportScriptExecutionTimes(int maxNrOfSlowestScripts) {
+        ScriptExecutionReporter scriptExecutionReporter = getMainFactory().createScriptExecutionReporter();
+        return scriptExecutionReporter.createReport(maxNrOfSlowestScripts);
+    }
+
 
     private static MainFactory getMainFactory() {
         URL propertiesFromClassPath = ClassLoader.getSystemResource(DBMAINTAIN_PROPERTIES);
@@ -20,6 +20,7 @@ import org.apache.commons.logging.LogFactory;
 import org.dbmaintain.MainFactory;
 import org.dbmaintain.config.DbMaintainConfigurationLoader;
 import org.dbmaintain.config.DbMaintainProperties;
+import org.dbmaintain.script.executedscriptinfo.ScriptExecutionReporter;
 import org.dbmaintain.util.DbMaintainException;
 import org.dbmaintain.util.FileUtils;
 
@@ -54,7 +55,8 @@ public class CommandLine {
         CLEAR_DATABASE("clearDatabase"),
         CLEAN_DATABASE("cleanDatabase"),
         DISABLE_CONSTRAINTS("disableConstraints"),
-        UPDATE_SEQUENCES("updateSequences");
+        UPDATE_SEQUENCES("updateSequences"),
+        REPORT_SCRIPT_EXECUTION_TIMES("reportScriptExecutionTimes");
 
         private String operationName;
 
@@ -220,6 +222,13 @@ public class CommandLine {
             case UPDATE_SEQUENCES:
                 getMainFactory(configuration).createSequenceUpdater().updateSequences();
                 break;
+            case REPORT_SCRIPT_EXECUTION_TIMES:
+                int maxNrOfSlowestScripts = ScriptExecutionReporter.DEFAULT_MAX_NR_OF_SLOWEST_SCRIPTS;
+                if (commandLineArguments.getFirstExtraArgument() != null) {
+                    maxNrOfSlowestScripts = Integer.parseInt(commandLineArguments.getFirstExtraArgument());
+                }
+                System.out.println(getMainFactory(configuration).createScriptExecutionReporter().createReport(maxNrOfSlowestScripts));
+                break;
         }
     }
 
@@ -298,6 +307,10 @@ public class CommandLine {
         System.out.println();
         System.out.println("- " + DbMaintainOperation.UPDATE_SEQUENCES.getOperationName());
         System.out.println("     Updates all sequences and identity columns to a minimal value.");
+        System.out.println();
+        System.out.println("- " + DbMaintainOperation.REPORT_SCRIPT_EXECUTION_TIMES.getOperationName());
+        System.out.println("     Reports the scripts that took the longest to execute and the total execution time per release.");
+        System.out.println("     Optionally, an extra argument may be added indicating the nr of slowest scripts to show, 10 by default.");
     }
 
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.launch.task;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.dbmaintain.MainFactory;
+import org.dbmaintain.script.executedscriptinfo.ScriptExecutionReporter;
+
+import java.util.List;
+
+import static org.dbmaintain.script.executedscriptinfo.ScriptExecutionReporter.DEFAULT_MAX_NR_OF_SLOWEST_SCRIPTS;
+
+/**
+ * Task that reports the scripts that took the longest to execute and the total execution time per release.
+ * No scripts will be executed by this task.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ReportScriptExecutionTimesTask extends DbMaintainDatabaseTask {
+
+    /* The logger instance for this class */
+    private static Log logger = LogFactory.getLog(ReportScriptExecutionTimesTask.class);
+
+    protected Integer maxNrOfSlowestScripts;
+
+
+    public ReportScriptExecutionTimesTask() {
+    }
+
+    public ReportScriptExecutionTimesTask(List<DbMaintainDatabase> taskDatabases, Integer maxNrOfSlowestScripts) {
+        super(taskDatabases);
+        this.maxNrOfSlowestScripts = maxNrOfSlowestScripts;
+    }
+
+
+    @Override
+    protected void addTaskConfiguration(TaskConfiguration taskConfiguration) {
+        taskConfiguration.addDatabaseConfigurations(databases);
+    }
+
+    @Override
+    protected boolean doExecute(MainFactory mainFactory) {
+        ScriptExecutionReporter scriptExecutionReporter = mainFactory.createScriptExecutionReporter();
+        int maxNrOfScripts = maxNrOfSlowestScripts == null ? DEFAULT_MAX_NR_OF_SLOWEST_SCRIPTS : maxNrOfSlowestScripts;
+        logger.info(scriptExecutionReporter.createReport(maxNrOfScripts));
+        return true;
+    }
+
+
+    public void setMaxNrOfSlowestScripts(Integer maxNrOfSlowestScripts) {
+        this.maxNrOfSlowestScripts = maxNrOfSlowestScripts;
+    }
+}
@@ -26,6 +26,16 @@ public class ExecutedScript implements Comparable<ExecutedScript> {
     private Script script;
     private Date executedAt;
     private Boolean successful;
+    /* The duration of the execution in milliseconds, null if not known */
+    private Long durationMs;
+    /* The nr of statements that were executed, null if not known */
+    private Integer nrOfStatements;
+    /* The size of the script in bytes, null if not known */
+    private Long scriptSize;
+    /* The type of the runner that executed the script, e.g. jdbc or sqlplus, null if not known */
+    private String runnerType;
+    /* The progress of an interrupted execution in chunks, null if the script is not executed in chunks or not interrupted */
+    private Long chunkCheckpoint;
 
 
     public ExecutedScript(Script script, Date executedAt, Boolean successful) {
@@ -51,6 +61,46 @@ public class ExecutedScript implements Comparable<ExecutedScript> {
         this.successful = successful;
     }
 
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public Integer getNrOfStatements() {
+        return nrOfStatements;
+    }
+
+    public void setNrOfStatements(Integer nrOfStatements) {
+        this.nrOfStatements = nrOfStatements;
+    }
+
+    public Long getScriptSize() {
+        return scriptSize;
+    }
+
+    public void setScriptSize(Long scriptSize) {
+        this.scriptSize = scriptSize;
+    }
+
+    public String getRunnerType() {
+        return runnerType;
+    }
+
+    public void setRunnerType(String runnerType) {
+        this.runnerType = runnerType;
+    }
+
+    public Long getChunkCheckpoint() {
+        return chunkCheckpoint;
+    }
+
+    public void setChunkCheckpoint(Long chunkCheckpoint) {
+        this.chunkCheckpoint = chunkCheckpoint;
+    }
+
 
     /**
      * Registers the fact that the script that was originally executed has been renamed. This means the script is replaced
@@ -145,6 +145,13 @@ public class Script implements Comparable<Script> {
         return checkSum;
     }
 
+    /**
+     * @return True if the checksum is known, i.e. it was given when the script was created or it was already calculated
+     */
+    public boolean isCheckSumCalculated() {
+        return checkSum != null;
+    }
+
     /**
      * @return Handle that provides access to the content of the script. May be null! If so, this
      *         object is not suitable for being executed. The checksum however cannot be null, so we can always
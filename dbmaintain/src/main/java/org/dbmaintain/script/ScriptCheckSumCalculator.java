@@ -0,0 +1,116 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script;
+
+import org.dbmaintain.util.DbMaintainException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates the check sums of a collection of scripts concurrently on a fork-join pool. The calculated check sums
+ * are cached in the scripts themselves, so that subsequent calls to {@link Script#getCheckSum()} no longer need to
+ * read the script content.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ScriptCheckSumCalculator {
+
+    /* Below this nr of scripts, a task calculates the check sums itself instead of splitting up the work */
+    private static final int SEQUENTIAL_THRESHOLD = 16;
+
+    /* The nr of threads that calculate check sums concurrently */
+    private int parallelism;
+
+
+    /**
+     * @param parallelism The nr of threads that calculate check sums concurrently, 0 or less to use the nr of
+     *                    available processors
+     */
+    public ScriptCheckSumCalculator(int parallelism) {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        this.parallelism = parallelism;
+    }
+
+
+    /**
+     * Makes sure the check sums of all given scripts are calculated.
+     *
+     * @param scripts The scripts, not null
+     */
+    public void calculateCheckSums(Collection<Script> scripts) {
+        List<Script> scriptList = new ArrayList<>(scripts);
+        if (parallelism == 1 || scriptList.size() <= SEQUENTIAL_THRESHOLD) {
+            for (Script script : scriptList) {
+                script.getCheckSum();
+            }
+            return;
+        }
+        ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+        try {
+            forkJoinPool.invoke(new CheckSumTask(scriptList, 0, scriptList.size()));
+        } catch (DbMaintainException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new DbMaintainException("Unable to calculate check sums of scripts.", e);
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    /**
+     * @return The nr of threads that calculate check sums concurrently
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+
+    /**
+     * Task that calculates the check sums of a range of scripts, splitting the range in two if it is too large.
+     */
+    @SuppressWarnings("serial")
+    private static class CheckSumTask extends RecursiveAction {
+
+        private final List<Script> scripts;
+        private final int from;
+        private final int to;
+
+        private CheckSumTask(List<Script> scripts, int from, int to) {
+            this.scripts = scripts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    scripts.get(i).getCheckSum();
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CheckSumTask(scripts, from, middle), new CheckSumTask(scripts, middle, to));
+        }
+    }
+}
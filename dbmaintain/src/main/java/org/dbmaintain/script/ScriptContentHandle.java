@@ -18,7 +18,11 @@ package org.dbmaintain.script;
 import org.dbmaintain.util.DbMaintainException;
 import org.dbmaintain.util.ReaderInputStream;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -27,6 +31,8 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.security.MessageDigest;
 
 /**
@@ -38,6 +44,9 @@ import java.security.MessageDigest;
  */
 public abstract class ScriptContentHandle {
 
+    /* The size of the blocks in which the content is read when calculating the check sum */
+    protected static final int CHECK_SUM_BUFFER_SIZE = 64 * 1024;
+
     protected MessageDigest scriptDigest;
     protected Reader scriptReader;
     protected String encoding;
@@ -83,21 +92,64 @@ public abstract class ScriptContentHandle {
         }
 
         try (InputStream scriptInputStream = getScriptInputStream()) {
-            scriptDigest = MessageDigest.getInstance("MD5");
-
-            int b;
-            while ((b = scriptInputStream.read()) != -1) {
-                if (ignoreCarriageReturnsWhenCalculatingCheckSum && b == '\r') {
-                    continue;
-                }
-                scriptDigest.update((byte) b);
-            }
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            updateDigest(digest, scriptInputStream);
+            scriptDigest = digest;
             return scriptDigest;
         } catch (Exception e) {
             throw new DbMaintainException("Unable to calculate digest for script.", e);
         }
     }
 
+    /**
+     * Feeds the content of the given stream to the digest, a block at a time. If carriage returns are to be
+     * ignored, they are stripped from each block before it is handed to the digest.
+     *
+     * @param digest            The digest to update, not null
+     * @param scriptInputStream The script content, not null
+     * @throws IOException if the content could not be read
+     */
+    protected void updateDigest(MessageDigest digest, InputStream scriptInputStream) throws IOException {
+        byte[] buffer = new byte[CHECK_SUM_BUFFER_SIZE];
+        int nrOfBytesRead;
+        while ((nrOfBytesRead = scriptInputStream.read(buffer)) != -1) {
+            int length = nrOfBytesRead;
+            if (ignoreCarriageReturnsWhenCalculatingCheckSum) {
+                length = removeCarriageReturns(buffer, nrOfBytesRead);
+            }
+            digest.update(buffer, 0, length);
+        }
+    }
+
+    /**
+     * Removes all carriage return bytes from the first length bytes of the given buffer by shifting the
+     * remaining bytes to the left.
+     *
+     * @param buffer The buffer, not null
+     * @param length The nr of valid bytes in the buffer
+     * @return The nr of valid bytes after removing the carriage returns
+     */
+    protected int removeCarriageReturns(byte[] buffer, int length) {
+        int newLength = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer[i];
+            if (b != '\r') {
+                buffer[newLength++] = b;
+            }
+        }
+        return newLength;
+    }
+
+
+    /**
+     * The content is not read to determine the size: handles that cannot tell the size otherwise return null.
+     *
+     * @return The size of the content of the script in bytes, null if not known
+     */
+    public Long getScriptSize() {
+        return null;
+    }
+
 
     public String getScriptContentsAsString(long maxNrChars) {
         try {
@@ -174,6 +226,59 @@ public abstract class ScriptContentHandle {
     }
 
 
+    /**
+     * A handle for getting the content of a script file. Files up to {@link #MAX_IN_MEMORY_FILE_SIZE} bytes are read
+     * completely and closed right away, each time the content is needed, so that no file handle stays open while the
+     * script is parsed or executed. Larger files are read as a regular buffered file stream.
+     */
+    public static class FileScriptContentHandle extends ScriptContentHandle {
+
+        /* The max size of a file that is read in memory at once */
+        public static final int MAX_IN_MEMORY_FILE_SIZE = 1024 * 1024;
+
+        /* The script file */
+        private File file;
+
+        /**
+         * Creates a content handle.
+         *
+         * @param file     The script file, not null
+         * @param encoding The encoding of the script, not null
+         * @param ignoreCarriageReturnsWhenCalculatingCheckSum
+         *                 If true, carriage return chars will be ignored when calculating check sums
+         */
+        public FileScriptContentHandle(File file, String encoding, boolean ignoreCarriageReturnsWhenCalculatingCheckSum) {
+            super(encoding, ignoreCarriageReturnsWhenCalculatingCheckSum);
+            this.file = file;
+        }
+
+        /**
+         * Opens a stream to the content of the script.
+         *
+         * @return The content stream, not null
+         */
+        @Override
+        protected InputStream getScriptInputStream() {
+            try {
+                if (file.length() <= MAX_IN_MEMORY_FILE_SIZE) {
+                    return new ByteArrayInputStream(Files.readAllBytes(file.toPath()));
+                }
+                return new BufferedInputStream(new FileInputStream(file), CHECK_SUM_BUFFER_SIZE);
+            } catch (IOException e) {
+                throw new DbMaintainException("Error while trying to read file " + file, e);
+            }
+        }
+
+        /**
+         * @return The size of the file in bytes
+         */
+        @Override
+        public Long getScriptSize() {
+            return file.length();
+        }
+    }
+
+
     /**
      * A handle for getting the script content as a stream.
      */
@@ -204,6 +309,36 @@ public abstract class ScriptContentHandle {
         protected InputStream getScriptInputStream() {
             return new ReaderInputStream(new StringReader(scriptContent));
         }
+
+        /**
+         * @return The nr of bytes of the content in the encoding of the script
+         */
+        @Override
+        public Long getScriptSize() {
+            return (long) scriptContent.getBytes(Charset.forName(encoding)).length;
+        }
+
+        /**
+         * Digests the content directly from the string instead of going through a reader stream. Each char is
+         * truncated to a byte, which gives the same result as reading the chars through the stream.
+         */
+        @Override
+        protected void updateDigest(MessageDigest digest, InputStream scriptInputStream) {
+            byte[] buffer = new byte[Math.min(CHECK_SUM_BUFFER_SIZE, Math.max(scriptContent.length(), 1))];
+            int length = 0;
+            for (int i = 0; i < scriptContent.length(); i++) {
+                char c = scriptContent.charAt(i);
+                if (ignoreCarriageReturnsWhenCalculatingCheckSum && c == '\r') {
+                    continue;
+                }
+                buffer[length++] = (byte) c;
+                if (length == buffer.length) {
+                    digest.update(buffer, 0, length);
+                    length = 0;
+                }
+            }
+            digest.update(buffer, 0, length);
+        }
     }
 
 	public String getEncoding() {
@@ -73,6 +73,20 @@ public class ScriptFactory {
         return createScript(fileName, fileLastModifiedAt, null, scriptContentHandle);
     }
 
+    /**
+     * Creates a script with content of which the checksum is already known, e.g. because it was cached. The content
+     * will then not be read to calculate the checksum.
+     *
+     * @param fileName            The name of the script file, not null
+     * @param fileLastModifiedAt  The time when the file was last modified (in ms), not null
+     * @param checkSum            The checksum of the content, null if unknown
+     * @param scriptContentHandle Handle providing access to the contents of the script, not null
+     * @return The script, not null
+     */
+    public Script createScriptWithContent(String fileName, Long fileLastModifiedAt, String checkSum, ScriptContentHandle scriptContentHandle) {
+        return createScript(fileName, fileLastModifiedAt, checkSum, scriptContentHandle);
+    }
+
     public Script createScriptWithoutContent(String fileName, Long fileLastModifiedAt, String checkSum) {
         return createScript(fileName, fileLastModifiedAt, checkSum, null);
     }
@@ -103,14 +117,7 @@ public class ScriptFactory {
      * @return True if the given script name is a pre processing script
      */
     protected boolean isPreProcessingScript(String fileName) {
-    	if (isEmpty(preProcessingScriptDirName)) {
-    		return false;
-    	}
-    	String dirName = preProcessingScriptDirName;
-    	if (preProcessingScriptDirName.endsWith("/") || preProcessingScriptDirName.endsWith("\\")) {
-    		dirName = preProcessingScriptDirName.substring(0, preProcessingScriptDirName.length() - 1);
-    	}
-    	return fileName.startsWith(dirName + '/') || fileName.startsWith(dirName + '\\');
+    	return startsWithOneOf(fileName, getPreProcessingScriptFileNamePrefixes());
     }
 
     /**
@@ -118,14 +125,49 @@ public class ScriptFactory {
      * @return True if the given script name is a post processing script
      */
     protected boolean isPostProcessingScript(String fileName) {
-        if (isEmpty(postProcessingScriptDirName)) {
-            return false;
+        return startsWithOneOf(fileName, getPostProcessingScriptFileNamePrefixes());
+    }
+
+    /**
+     * @return The prefixes with which the file names of all pre processing scripts start, empty if there is no
+     *         pre processing script directory
+     */
+    public List<String> getPreProcessingScriptFileNamePrefixes() {
+        return getFileNamePrefixes(preProcessingScriptDirName);
+    }
+
+    /**
+     * @return The prefixes with which the file names of all post processing scripts start, empty if there is no
+     *         post processing script directory
+     */
+    public List<String> getPostProcessingScriptFileNamePrefixes() {
+        return getFileNamePrefixes(postProcessingScriptDirName);
+    }
+
+    /**
+     * @param dirName The directory name, with or without trailing separator, null for no directory
+     * @return The directory name followed by a / and by a \, empty if the directory name is empty
+     */
+    protected List<String> getFileNamePrefixes(String dirName) {
+        List<String> prefixes = new ArrayList<>(2);
+        if (isEmpty(dirName)) {
+            return prefixes;
+        }
+        if (dirName.endsWith("/") || dirName.endsWith("\\")) {
+            dirName = dirName.substring(0, dirName.length() - 1);
         }
-        String dirName = postProcessingScriptDirName;
-        if (postProcessingScriptDirName.endsWith("/") || postProcessingScriptDirName.endsWith("\\")) {
-            dirName = postProcessingScriptDirName.substring(0, postProcessingScriptDirName.length() - 1);
+        prefixes.add(dirName + '/');
+        prefixes.add(dirName + '\\');
+        return prefixes;
+    }
+
+    private boolean startsWithOneOf(String fileName, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (fileName.startsWith(prefix)) {
+                return true;
+            }
         }
-        return fileName.startsWith(dirName + '/') || fileName.startsWith(dirName + '\\');
+        return false;
     }
 
 
@@ -173,19 +215,22 @@ public class ScriptFactory {
      * @return The version of the script file, not null
      */
     protected ScriptIndexes getScriptIndexes(String[] pathParts) {
-        List<Long> versionIndexes = new ArrayList<>();
-
         List<String> versionIndexStrings = getTokens(pathParts, scriptIndexPattern, true);
-        for (String versionIndexString : versionIndexStrings) {
+        long[] versionIndexes = new long[versionIndexStrings.size()];
+        for (int i = 0; i < versionIndexes.length; i++) {
+            String versionIndexString = versionIndexStrings.get(i);
             if (versionIndexString == null) {
-                versionIndexes.add(null);
+                versionIndexes[i] = ScriptIndexes.NO_INDEX;
                 continue;
             }
             try {
-                versionIndexes.add(new Long(versionIndexString));
+                versionIndexes[i] = Long.parseLong(versionIndexString);
             } catch (NumberFormatException e) {
                 throw new DbMaintainException("Unable to parse version index: " + versionIndexString, e);
             }
+            if (versionIndexes[i] == ScriptIndexes.NO_INDEX) {
+                throw new DbMaintainException("Unable to parse version index: " + versionIndexString + ". The highest possible index value is reserved.");
+            }
         }
         return new ScriptIndexes(versionIndexes);
     }
@@ -27,6 +27,11 @@ public enum ScriptUpdateType {
      */
     HIGHER_INDEX_SCRIPT_ADDED, REPEATABLE_SCRIPT_ADDED, REPEATABLE_SCRIPT_UPDATED,
 
+    /**
+     * Special case: an incremental or repeatable chunked script that was interrupted is executed again from its checkpoint
+     */
+    CHUNKED_SCRIPT_RESUMED,
+
     /**
      * Special case: deletion of a repeatable script: this is allowed, thought might introduce problems
      */
@@ -17,6 +17,7 @@ package org.dbmaintain.script.analyzer;
 
 import org.dbmaintain.script.ExecutedScript;
 import org.dbmaintain.script.Script;
+import org.dbmaintain.script.ScriptCheckSumCalculator;
 import org.dbmaintain.script.executedscriptinfo.ExecutedScriptInfoSource;
 import org.dbmaintain.script.repository.ScriptRepository;
 
@@ -40,6 +41,7 @@ public class ScriptUpdatesAnalyzer {
     private final ExecutedScriptInfoSource executedScriptInfoSource;
     private final boolean useScriptFileLastModificationDates;
     private final boolean allowOutOfSequenceExecutionOfPatchScripts;
+    private final ScriptCheckSumCalculator scriptCheckSumCalculator;
 
     /* Sets that contain the result of the analysis: each set contains a specific type of script updates */
     private final SortedSet<ScriptUpdate> regularlyAddedOrModifiedScripts = new TreeSet<>();
@@ -55,9 +57,15 @@ public class ScriptUpdatesAnalyzer {
     private final Map<ExecutedScript, Script> renamedIndexedScripts = new HashMap<>();
     private final Map<Script, ExecutedScript> scriptExecutedScriptMap = new HashMap<>();
 
+    /* Indexes on the executed scripts, built in a single pass at the start of the analysis */
+    private Set<ExecutedScript> executedScripts;
+    private final Map<ExecutedScript, Script> executedScriptScriptWithSameNameMap = new HashMap<>();
+    private final List<ExecutedScript> executedScriptsWithoutScriptWithSameName = new ArrayList<>();
+    private final Map<String, ExecutedScript> scriptNameExecutedScriptMap = new HashMap<>();
+    private Script executedScriptWithHighestScriptIndex;
+
     /* Lazily initialized data, that is cached during analysis to avoid repeated calculation of the contents */
-    private Map<String, Script> scriptNameScriptMap;
-    private Map<String, Set<Script>> checkSumScriptMap;
+    private Map<String, List<Script>> renameCandidatesByCheckSum;
     private boolean ignoreDeletions; // Ignore if the db state is newer, i.e. there are allready
                                      // successor skripts in the database
 
@@ -75,11 +83,30 @@ public class ScriptUpdatesAnalyzer {
      */
     public ScriptUpdatesAnalyzer(ScriptRepository scriptRepository, ExecutedScriptInfoSource executedScriptInfoSource,
             boolean useScriptFileLastModificationDates, boolean allowOutOfSequenceExecutionOfPatchScripts, boolean ignoreDeletions) {
+        this(scriptRepository, executedScriptInfoSource, useScriptFileLastModificationDates, allowOutOfSequenceExecutionOfPatchScripts,
+                ignoreDeletions, 0);
+    }
+
+    /**
+     * Creates a new instance that calculates the check sums of the scripts using the given nr of threads.
+     *
+     * @param scriptRepository         exposes the current set of scripts
+     * @param executedScriptInfoSource provides info on the script that were executed on the database
+     * @param useScriptFileLastModificationDates
+     *                                 whether the last modification date of the scripts can be used to determine if a script has changed.
+     * @param allowOutOfSequenceExecutionOfPatchScripts
+     *                                 whether scripts marked as patch scripts may be executed out-of-sequence
+     * @param checkSumParallelism      the nr of threads used to calculate script check sums, 0 to use the nr of available processors
+     */
+    public ScriptUpdatesAnalyzer(ScriptRepository scriptRepository, ExecutedScriptInfoSource executedScriptInfoSource,
+            boolean useScriptFileLastModificationDates, boolean allowOutOfSequenceExecutionOfPatchScripts, boolean ignoreDeletions,
+            int checkSumParallelism) {
         this.scriptRepository = scriptRepository;
         this.executedScriptInfoSource = executedScriptInfoSource;
         this.useScriptFileLastModificationDates = useScriptFileLastModificationDates;
         this.allowOutOfSequenceExecutionOfPatchScripts = allowOutOfSequenceExecutionOfPatchScripts;
         this.ignoreDeletions = ignoreDeletions;
+        this.scriptCheckSumCalculator = new ScriptCheckSumCalculator(checkSumParallelism);
     }
 
     /**
@@ -91,17 +118,26 @@ public class ScriptUpdatesAnalyzer {
      *         database update
      */
     public ScriptUpdates calculateScriptUpdates() {
+        // Index the executed scripts once, so that no step of the analysis needs to scan all executed scripts again
+        initExecutedScriptIndexes();
+
+        // Calculate the check sums that are needed to compare the content of the executed scripts concurrently up front
+        calculateCheckSumsOfScriptsWithSameName();
+
         // Iterate over the already executed scripts to find out whether the contents of some scripts has been modified
         // since the last update. We also map the executed scripts with their script counterparts, to be able to verify
         // afterwards if scripts have been renamed or deleted.
-        for (ExecutedScript executedScript : executedScriptInfoSource.getExecutedScripts()) {
-            Script scriptWithSameName = findScriptWithSameName(executedScript);
+        for (ExecutedScript executedScript : executedScripts) {
+            Script scriptWithSameName = executedScriptScriptWithSameNameMap.get(executedScript);
             if (scriptWithSameName != null) {
                 // The script with this name still exists. We keep the mapping in the scriptExecutedScriptMap
                 scriptExecutedScriptMap.put(scriptWithSameName, executedScript);
                 // Check if the content didn't change
                 if (!executedScript.getScript().isScriptContentEqualTo(scriptWithSameName, useScriptFileLastModificationDates)) {
                     registerScriptUpdate(scriptWithSameName);
+                } else if (!executedScript.isSuccessful() && executedScript.getChunkCheckpoint() != null
+                        && (executedScript.getScript().isIncremental() || executedScript.getScript().isRepeatable())) {
+                    registerRegularScriptUpdate(CHUNKED_SCRIPT_RESUMED, scriptWithSameName);
                 } else if (!executedScript.isSuccessful() && executedScript.getScript().isPostProcessingScript()) {
                     registerPostprocessingScriptUpdate(POSTPROCESSING_SCRIPT_FAILURE_RERUN, scriptWithSameName);
                 } else if (!executedScript.isSuccessful() && executedScript.getScript().isPreProcessingScript()) {
@@ -111,23 +147,20 @@ public class ScriptUpdatesAnalyzer {
         }
 
         // Look for renamed or deleted scripts
-        if (scriptExecutedScriptMap.size() < executedScriptInfoSource.getExecutedScripts().size()) {
+        if (!executedScriptsWithoutScriptWithSameName.isEmpty()) {
             // There are executed scripts for which a script with the same name cannot be found anymore. We are going to find
             // out what has happened to the executed scripts that could not be mapped directly: were they renamed or were they deleted?
-            for (ExecutedScript executedScript : executedScriptInfoSource.getExecutedScripts()) {
-                Script scriptWithSameName = findScriptWithSameName(executedScript);
-                if (scriptWithSameName == null) {
-                    // Find out if there's a script with the same content, which is not yet mapped with an executed script,
-                    // in this case we conclude that the script has been renamed.
-                    Script newScriptWithSameContent = findNewScriptWithSameContent(executedScript);
-                    if (newScriptWithSameContent != null) {
-                        registerScriptRename(executedScript, newScriptWithSameContent);
+            for (ExecutedScript executedScript : executedScriptsWithoutScriptWithSameName) {
+                // Find out if there's a script with the same content, which is not yet mapped with an executed script,
+                // in this case we conclude that the script has been renamed.
+                Script newScriptWithSameContent = findNewScriptWithSameContent(executedScript);
+                if (newScriptWithSameContent != null) {
+                    registerScriptRename(executedScript, newScriptWithSameContent);
+                } else {
+                    if (ignoreDeletions) {
+                        registerIgnoredScript(executedScript.getScript());
                     } else {
-                        if (ignoreDeletions) {
-                            registerIgnoredScript(executedScript.getScript());
-                        } else {
-                            registerScriptDeletion(executedScript.getScript());
-                        }
+                        registerScriptDeletion(executedScript.getScript());
                     }
                 }
             }
@@ -254,7 +287,7 @@ public class ScriptUpdatesAnalyzer {
      */
     protected boolean sequenceOfIndexedScriptsChangedDueToRenames() {
         Iterator<Script> indexedScriptsIterator = scriptRepository.getIndexedScripts().iterator();
-        for (ExecutedScript executedScript : executedScriptInfoSource.getExecutedScripts()) {
+        for (ExecutedScript executedScript : executedScripts) {
             Script scriptInNewSequence = renamedIndexedScripts.get(executedScript);
             if (scriptInNewSequence == null) {
                 scriptInNewSequence = executedScript.getScript();
@@ -294,18 +327,33 @@ public class ScriptUpdatesAnalyzer {
         }
     }
 
+    /**
+     * Calculates the check sums of all scripts that have an executed script with the same name, and of which the check
+     * sum is needed to find out whether the content has changed. This way the content of these scripts is read concurrently,
+     * instead of one by one while comparing.
+     */
+    protected void calculateCheckSumsOfScriptsWithSameName() {
+        List<Script> scriptsToCalculate = new ArrayList<>();
+        for (Map.Entry<ExecutedScript, Script> entry : executedScriptScriptWithSameNameMap.entrySet()) {
+            ExecutedScript executedScript = entry.getKey();
+            Script scriptWithSameName = entry.getValue();
+            if (!useScriptFileLastModificationDates || !executedScript.getScript().getFileLastModifiedAt().equals(scriptWithSameName.getFileLastModifiedAt())) {
+                scriptsToCalculate.add(scriptWithSameName);
+            }
+        }
+        scriptCheckSumCalculator.calculateCheckSums(scriptsToCalculate);
+    }
+
     /**
      * @param executedScript The script as executed during a previous update
      * @return A script that is not yet mapped to an executed script, but that has the same content as the given one
      */
     protected Script findNewScriptWithSameContent(ExecutedScript executedScript) {
         SortedSet<Script> newScriptsWithSameContent = new TreeSet<>();
-        Set<Script> scriptsWithSameContent = getCheckSumScriptMap().get(executedScript.getScript().getCheckSum());
-        if (scriptsWithSameContent != null) {
-            for (Script scriptWithSameContent : scriptsWithSameContent) {
-                if (!scriptExecutedScriptMap.containsKey(scriptWithSameContent)) {
-                    newScriptsWithSameContent.add(scriptWithSameContent);
-                }
+        List<Script> scriptsWithSameContent = getRenameCandidatesByCheckSum().getOrDefault(executedScript.getScript().getCheckSum(), Collections.emptyList());
+        for (Script scriptWithSameContent : scriptsWithSameContent) {
+            if (!scriptExecutedScriptMap.containsKey(scriptWithSameContent)) {
+                newScriptsWithSameContent.add(scriptWithSameContent);
             }
         }
         if (newScriptsWithSameContent.size() == 1) {
@@ -319,46 +367,40 @@ public class ScriptUpdatesAnalyzer {
      * @return The script with the same name as the given one
      */
     protected Script findScriptWithSameName(ExecutedScript executedScript) {
-        return getScriptNameScriptMap().get(executedScript.getScript().getFileName());
+        return scriptRepository.getScript(executedScript.getScript().getFileName());
     }
 
     /**
      * @return The already executed scripts, as a map from scriptName =&gt; ExecutedScript
      */
     protected Map<String, ExecutedScript> getScriptNameExecutedScriptMap() {
-        Map<String, ExecutedScript> scriptNameAlreadyExecutedScriptMap = new HashMap<>();
-        for (ExecutedScript executedScript : executedScriptInfoSource.getExecutedScripts()) {
-            scriptNameAlreadyExecutedScriptMap.put(executedScript.getScript().getFileName(), executedScript);
-        }
-        return scriptNameAlreadyExecutedScriptMap;
+        return scriptNameExecutedScriptMap;
     }
 
     /**
-     * @return All scripts, as a map from scriptName =&gt; Script
+     * Gets the scripts that could be the new version of a renamed script, as a map from checksum =&gt; Script. Only scripts
+     * that have no executed script with the same name are candidates. Only the check sums of these candidates are
+     * calculated (in parallel): the cost of detecting renames is proportional to the nr of changed scripts, not to the
+     * size of the repository.
+     *
+     * @return The rename candidates, as a map from checksum =&gt; Script, not null
      */
-    protected Map<String, Script> getScriptNameScriptMap() {
-        if (scriptNameScriptMap == null) {
-            scriptNameScriptMap = new HashMap<>();
+    protected Map<String, List<Script>> getRenameCandidatesByCheckSum() {
+        if (renameCandidatesByCheckSum == null) {
+            List<Script> renameCandidates = new ArrayList<>();
             for (Script script : scriptRepository.getAllScripts()) {
-                scriptNameScriptMap.put(script.getFileName(), script);
+                if (!scriptNameExecutedScriptMap.containsKey(script.getFileName())) {
+                    renameCandidates.add(script);
+                }
             }
-        }
-        return scriptNameScriptMap;
-    }
+            scriptCheckSumCalculator.calculateCheckSums(renameCandidates);
 
-    /**
-     * @return All scripts, as a map from checksum =&gt; Script
-     */
-    protected Map<String, Set<Script>> getCheckSumScriptMap() {
-        if (checkSumScriptMap == null) {
-            checkSumScriptMap = new HashMap<>();
-            for (Script script : scriptRepository.getAllScripts()) {
-                Set<Script> scriptsWithCheckSum = checkSumScriptMap.computeIfAbsent(script.getCheckSum(),
-                        k -> new HashSet<>());
-                scriptsWithCheckSum.add(script);
+            renameCandidatesByCheckSum = new HashMap<>();
+            for (Script renameCandidate : renameCandidates) {
+                renameCandidatesByCheckSum.computeIfAbsent(renameCandidate.getCheckSum(), k -> new ArrayList<>()).add(renameCandidate);
             }
         }
-        return checkSumScriptMap;
+        return renameCandidatesByCheckSum;
     }
 
 
@@ -366,13 +408,28 @@ public class ScriptUpdatesAnalyzer {
      * @return The executed scripts with the highest script index
      */
     protected Script getExecutedScriptWithHighestScriptIndex() {
-        Script result = null;
-        for (ExecutedScript executedScript : executedScriptInfoSource.getExecutedScripts()) {
-            if (executedScript.getScript().isIncremental() && (result == null || executedScript.getScript().compareTo(result) > 0)) {
-                result = executedScript.getScript();
+        return executedScriptWithHighestScriptIndex;
+    }
+
+    /**
+     * Walks over the executed scripts once, mapping them on the scripts with the same name and determining the
+     * executed script with the highest script index.
+     */
+    protected void initExecutedScriptIndexes() {
+        executedScripts = executedScriptInfoSource.getExecutedScripts();
+        for (ExecutedScript executedScript : executedScripts) {
+            Script executedScriptScript = executedScript.getScript();
+            scriptNameExecutedScriptMap.put(executedScriptScript.getFileName(), executedScript);
+            if (executedScriptScript.isIncremental() && (executedScriptWithHighestScriptIndex == null || executedScriptScript.compareTo(executedScriptWithHighestScriptIndex) > 0)) {
+                executedScriptWithHighestScriptIndex = executedScriptScript;
+            }
+            Script scriptWithSameName = findScriptWithSameName(executedScript);
+            if (scriptWithSameName == null) {
+                executedScriptsWithoutScriptWithSameName.add(executedScript);
+            } else {
+                executedScriptScriptWithSameNameMap.put(executedScript, scriptWithSameName);
             }
         }
-        return result;
     }
 
 
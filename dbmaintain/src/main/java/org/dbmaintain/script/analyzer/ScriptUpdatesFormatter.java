@@ -53,6 +53,8 @@ public class ScriptUpdatesFormatter {
                 return "newly added repeatable script: " + scriptUpdate.getScript().getFileName();
             case REPEATABLE_SCRIPT_UPDATED:
                 return "updated repeatable script: " + scriptUpdate.getScript().getFileName();
+            case CHUNKED_SCRIPT_RESUMED:
+                return "resumed interrupted chunked script: " + scriptUpdate.getScript().getFileName();
             case REPEATABLE_SCRIPT_DELETED:
                 return "deleted repeatable script: " + scriptUpdate.getScript().getFileName();
             case PREPROCESSING_SCRIPT_ADDED:
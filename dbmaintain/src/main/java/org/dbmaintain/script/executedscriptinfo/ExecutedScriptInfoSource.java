@@ -18,6 +18,7 @@ package org.dbmaintain.script.executedscriptinfo;
 import org.dbmaintain.script.ExecutedScript;
 import org.dbmaintain.script.Script;
 
+import java.util.Collection;
 import java.util.Set;
 
 
@@ -37,6 +38,23 @@ public interface ExecutedScriptInfoSource {
      */
     void registerExecutedScript(ExecutedScript executedScript);
 
+    /**
+     * Registers the fact that the given script has been executed on the database, without committing. If a
+     * transaction was started on the connection of the default database, the registration is part of that
+     * transaction and is rolled back together with it.
+     *
+     * @param executedScript The script that was executed on the database, not null
+     */
+    void registerExecutedScriptWithoutCommit(ExecutedScript executedScript);
+
+    /**
+     * Registers the fact that the given scripts have been executed on the database. All scripts are registered
+     * at once, which is a lot faster than registering them one by one.
+     *
+     * @param executedScripts The scripts that were executed on the database, not null
+     */
+    void registerExecutedScripts(Collection<ExecutedScript> executedScripts);
+
     /**
      * Updates the given registered script
      *
@@ -90,9 +108,34 @@ public interface ExecutedScriptInfoSource {
      */
     void removeErrorScripts();
 
+    /**
+     * Gets the progress of the execution in chunks of the given script, as stored by
+     * {@link #updateChunkCheckpoint}. The value is read from the database, not from the cached scripts.
+     *
+     * @param script The script, not null
+     * @return The checkpoint, null if there is none
+     */
+    Long getChunkCheckpoint(Script script);
+
+    /**
+     * Stores the progress of the execution in chunks of the given script, so that an interrupted execution can be
+     * resumed. The update is not committed: if a transaction was started on the connection of the default database,
+     * the update is part of that transaction.
+     *
+     * @param script          The script, not null
+     * @param chunkCheckpoint The checkpoint, null to clear it
+     */
+    void updateChunkCheckpoint(Script script, Long chunkCheckpoint);
+
     /**
      * Resets the cached state, for example when the scripts table was modified by another process.
      * The scripts will be reloaded the next time.
      */
     void resetCachedState();
+
+    /**
+     * Refreshes the cached state, for example when the scripts table was modified by another process.
+     * Only the changed scripts are reloaded, if possible. Otherwise this is the same as {@link #resetCachedState()}.
+     */
+    void refreshCachedState();
 }
@@ -22,8 +22,6 @@ import org.dbmaintain.script.ScriptFactory;
 import org.dbmaintain.script.executedscriptinfo.impl.DefaultExecutedScriptInfoSource;
 import org.dbmaintain.script.qualifier.Qualifier;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Set;
 
 import static org.dbmaintain.config.DbMaintainProperties.*;
@@ -39,6 +37,7 @@ public class ExecutedScriptInfoSourceFactory extends FactoryWithDatabase<Execute
 
     public ExecutedScriptInfoSource createInstance() {
         boolean autoCreateExecutedScriptsTable = PropertyUtils.getBoolean(PROPERTY_AUTO_CREATE_DBMAINTAIN_SCRIPTS_TABLE, getConfiguration());
+        boolean autoCreateExecutedScriptsTableIndex = PropertyUtils.getBoolean(PROPERTY_AUTO_CREATE_DBMAINTAIN_SCRIPTS_TABLE_INDEX, false, getConfiguration());
 
         Database defaultDatabase = getDatabases().getDefaultDatabase();
         String executedScriptsTableName = defaultDatabase.toCorrectCaseIdentifier(getString(PROPERTY_EXECUTED_SCRIPTS_TABLE_NAME, getConfiguration()));
@@ -50,7 +49,14 @@ public class ExecutedScriptInfoSourceFactory extends FactoryWithDatabase<Execute
         String executedAtColumnName = defaultDatabase.toCorrectCaseIdentifier(getString(PROPERTY_EXECUTED_AT_COLUMN_NAME, getConfiguration()));
         int executedAtColumnSize = PropertyUtils.getInt(PROPERTY_EXECUTED_AT_COLUMN_SIZE, getConfiguration());
         String succeededColumnName = defaultDatabase.toCorrectCaseIdentifier(getString(PROPERTY_SUCCEEDED_COLUMN_NAME, getConfiguration()));
-        DateFormat timestampFormat = new SimpleDateFormat(getString(PROPERTY_TIMESTAMP_FORMAT, getConfiguration()));
+        String durationColumnName = defaultDatabase.toCorrectCaseIdentifier(getString(PROPERTY_DURATION_COLUMN_NAME, getConfiguration()));
+        String nrOfStatementsColumnName = defaultDatabase.toCorrectCaseIdentifier(getString(PROPERTY_NR_OF_STATEMENTS_COLUMN_NAME, getConfiguration()));
+        String scriptSizeColumnName = defaultDatabase.toCorrectCaseIdentifier(getString(PROPERTY_SCRIPT_SIZE_COLUMN_NAME, getConfiguration()));
+        String runnerTypeColumnName = defaultDatabase.toCorrectCaseIdentifier(getString(PROPERTY_RUNNER_TYPE_COLUMN_NAME, getConfiguration()));
+        int runnerTypeColumnSize = PropertyUtils.getInt(PROPERTY_RUNNER_TYPE_COLUMN_SIZE, getConfiguration());
+        String changedAtColumnName = defaultDatabase.toCorrectCaseIdentifier(getString(PROPERTY_CHANGED_AT_COLUMN_NAME, getConfiguration()));
+        String chunkCheckpointColumnName = defaultDatabase.toCorrectCaseIdentifier(getString(PROPERTY_CHUNK_CHECKPOINT_COLUMN_NAME, getConfiguration()));
+        TimestampFormat timestampFormat = new TimestampFormat(getString(PROPERTY_TIMESTAMP_FORMAT, getConfiguration()));
         String scriptIndexRegexp = getString(PROPERTY_SCRIPT_INDEX_REGEXP, getConfiguration());
         String targetDatabaseRegexp = getString(PROPERTY_SCRIPT_TARGETDATABASE_REGEXP, getConfiguration());
         String qualifierRegexp = getString(PROPERTY_SCRIPT_QUALIFIER_REGEXP, getConfiguration());
@@ -61,9 +67,10 @@ public class ExecutedScriptInfoSourceFactory extends FactoryWithDatabase<Execute
         ScriptIndexes baselineRevision = factoryWithDatabaseContext.getBaselineRevision();
 
         ScriptFactory scriptFactory = new ScriptFactory(scriptIndexRegexp, targetDatabaseRegexp, qualifierRegexp, registeredQualifiers, patchQualifiers, preProcessingScriptsDirName, postProcessingScriptsDirName, baselineRevision);
-        return new DefaultExecutedScriptInfoSource(autoCreateExecutedScriptsTable, executedScriptsTableName, fileNameColumnName, fileNameColumnSize,
+        return new DefaultExecutedScriptInfoSource(autoCreateExecutedScriptsTable, autoCreateExecutedScriptsTableIndex, executedScriptsTableName, fileNameColumnName, fileNameColumnSize,
                 fileLastModifiedAtColumnName, checksumColumnName, checksumColumnSize,
-                executedAtColumnName, executedAtColumnSize, succeededColumnName, timestampFormat, defaultDatabase,
+                executedAtColumnName, executedAtColumnSize, succeededColumnName, durationColumnName, nrOfStatementsColumnName,
+                scriptSizeColumnName, runnerTypeColumnName, runnerTypeColumnSize, changedAtColumnName, chunkCheckpointColumnName, timestampFormat, defaultDatabase,
                 getSqlHandler(), scriptFactory);
     }
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.executedscriptinfo;
+
+import org.dbmaintain.script.ExecutedScript;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the execution statistics that were registered for the executed scripts: the scripts that took the longest
+ * to execute and the total execution time of the scripts per release. The release of a script is the top level
+ * directory of the script, e.g. 01_release1 for the script 01_release1/02_create_tables.sql.
+ * <p>
+ * Only the last execution of each script is registered, scripts for which no duration was registered, e.g.
+ * because they were executed by an older version, are ignored.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ScriptExecutionReporter {
+
+    /* The default nr of scripts that is shown in the list of slowest scripts */
+    public static final int DEFAULT_MAX_NR_OF_SLOWEST_SCRIPTS = 10;
+
+    protected ExecutedScriptInfoSource executedScriptInfoSource;
+
+
+    public ScriptExecutionReporter(ExecutedScriptInfoSource executedScriptInfoSource) {
+        this.executedScriptInfoSource = executedScriptInfoSource;
+    }
+
+
+    /**
+     * @param maxNrOfScripts The maximum nr of scripts to return
+     * @return The executed scripts with the longest durations, the slowest first, not null
+     */
+    public List<ExecutedScript> getSlowestScripts(int maxNrOfScripts) {
+        List<ExecutedScript> slowestScripts = new ArrayList<>();
+        for (ExecutedScript executedScript : executedScriptInfoSource.getExecutedScripts()) {
+            if (executedScript.getDurationMs() != null) {
+                slowestScripts.add(executedScript);
+            }
+        }
+        slowestScripts.sort(Comparator.comparing(ExecutedScript::getDurationMs).reversed());
+        if (slowestScripts.size() > maxNrOfScripts) {
+            return new ArrayList<>(slowestScripts.subList(0, maxNrOfScripts));
+        }
+        return slowestScripts;
+    }
+
+    /**
+     * @return The total duration in milliseconds of the executed scripts per release, in the order of the scripts, not null
+     */
+    public Map<String, Long> getTotalDurationPerRelease() {
+        Map<String, Long> totalDurationPerRelease = new LinkedHashMap<>();
+        for (ExecutedScript executedScript : executedScriptInfoSource.getExecutedScripts()) {
+            if (executedScript.getDurationMs() != null) {
+                totalDurationPerRelease.merge(getReleaseName(executedScript), executedScript.getDurationMs(), Long::sum);
+            }
+        }
+        return totalDurationPerRelease;
+    }
+
+    /**
+     * @param maxNrOfSlowestScripts The maximum nr of scripts to show in the list of slowest scripts
+     * @return The report, not null
+     */
+    public String createReport(int maxNrOfSlowestScripts) {
+        List<ExecutedScript> slowestScripts = getSlowestScripts(maxNrOfSlowestScripts);
+        if (slowestScripts.isEmpty()) {
+            return "No execution times were registered for the executed scripts.\n";
+        }
+        StringBuilder report = new StringBuilder("Slowest scripts:\n");
+        for (ExecutedScript executedScript : slowestScripts) {
+            report.append("  ").append(executedScript.getDurationMs()).append(" ms\t").append(executedScript.getScript().getFileName());
+            report.append(" (").append(formatExecutionStatistics(executedScript)).append(")\n");
+        }
+        report.append("Total execution time per release:\n");
+        for (Map.Entry<String, Long> entry : getTotalDurationPerRelease().entrySet()) {
+            report.append("  ").append(entry.getValue()).append(" ms\t").append(entry.getKey()).append("\n");
+        }
+        return report.toString();
+    }
+
+
+    /**
+     * @param executedScript The executed script, not null
+     * @return The name of the top level directory of the script, / if the script is not in a directory
+     */
+    protected String getReleaseName(ExecutedScript executedScript) {
+        String fileName = executedScript.getScript().getFileName();
+        for (int i = 0; i < fileName.length(); i++) {
+            char c = fileName.charAt(i);
+            if (c == '/' || c == '\\') {
+                return fileName.substring(0, i);
+            }
+        }
+        return "/";
+    }
+
+    protected String formatExecutionStatistics(ExecutedScript executedScript) {
+        StringBuilder result = new StringBuilder();
+        if (executedScript.getNrOfStatements() != null) {
+            result.append(executedScript.getNrOfStatements()).append(" statements, ");
+        }
+        if (executedScript.getScriptSize() != null) {
+            result.append(executedScript.getScriptSize()).append(" bytes, ");
+        }
+        result.append(executedScript.getRunnerType() == null ? "unknown runner" : executedScript.getRunnerType());
+        return result.toString();
+    }
+}
@@ -18,7 +18,8 @@ package org.dbmaintain.script.executedscriptinfo;
 import org.dbmaintain.util.DbMaintainException;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
@@ -37,14 +38,28 @@ import static org.apache.commons.lang3.StringUtils.split;
  * <p>
  * The last index defines whether the script is incremental or repeatable: if the last index is null, the
  * script is repeatable; if not, it is incremental.
+ * <p>
+ * Script indexes are compared for every insertion of a script in a sorted set. The indexes are therefore stored as
+ * primitive longs, with {@link #NO_INDEX} for a missing index (null), and the hash code and string representation
+ * are cached.
  *
  * @author Filip Neven
  * @author Tim Ducheyne
  */
 public class ScriptIndexes implements Comparable<ScriptIndexes> {
 
+    /**
+     * The value that is stored for a missing index (null, or x in the string representation). Since it is the highest
+     * possible value, a missing index is sorted after any other index.
+     */
+    public static final long NO_INDEX = Long.MAX_VALUE;
+
     /* The version indexes, empty if not defined */
-    private List<Long> indexes = new ArrayList<>();
+    private final long[] indexes;
+    /* The cached hash code */
+    private final int hashCode;
+    /* The cached string representation, null if not yet created */
+    private String indexesString;
 
 
     /**
@@ -53,8 +68,7 @@ public class ScriptIndexes implements Comparable<ScriptIndexes> {
      * @param indexes The script indexes, not null
      */
     public ScriptIndexes(List<Long> indexes) {
-        this.indexes = indexes;
-        assertValidIndexes();
+        this(toIndexArray(indexes));
     }
 
 
@@ -64,7 +78,18 @@ public class ScriptIndexes implements Comparable<ScriptIndexes> {
      * @param indexString The indexes as a string
      */
     public ScriptIndexes(String indexString) {
-        this.indexes = extractIndexes(indexString);
+        this(toIndexArray(extractIndexes(indexString)));
+    }
+
+
+    /**
+     * Creates a new version.
+     *
+     * @param indexes The script indexes, {@link #NO_INDEX} for a missing index, not null
+     */
+    public ScriptIndexes(long[] indexes) {
+        this.indexes = indexes;
+        this.hashCode = 31 + Arrays.hashCode(indexes);
         assertValidIndexes();
     }
 
@@ -75,12 +100,16 @@ public class ScriptIndexes implements Comparable<ScriptIndexes> {
      * @return The script index, not null
      */
     public List<Long> getIndexes() {
-        return indexes;
+        List<Long> result = new ArrayList<>(indexes.length);
+        for (long index : indexes) {
+            result.add(index == NO_INDEX ? null : index);
+        }
+        return Collections.unmodifiableList(result);
     }
 
 
     public boolean isIncrementalScript() {
-        return !indexes.isEmpty() && indexes.get(indexes.size() - 1) != null;
+        return indexes.length > 0 && indexes[indexes.length - 1] != NO_INDEX;
     }
 
 
@@ -91,8 +120,8 @@ public class ScriptIndexes implements Comparable<ScriptIndexes> {
 
     protected void assertValidIndexes() {
         if (isRepeatableScript()) {
-            for (Long index : indexes) {
-                if (index != null) {
+            for (long index : indexes) {
+                if (index != NO_INDEX) {
                     throw new DbMaintainException("Repeatable scripts cannot be located inside an indexed folder.");
                 }
             }
@@ -107,22 +136,22 @@ public class ScriptIndexes implements Comparable<ScriptIndexes> {
      * @return The string, not null
      */
     public String getIndexesString() {
+        if (indexesString != null) {
+            return indexesString;
+        }
         StringBuilder result = new StringBuilder();
-
-        boolean first = true;
-        for (Long index : indexes) {
-            if (first) {
-                first = false;
-            } else {
+        for (int i = 0; i < indexes.length; i++) {
+            if (i > 0) {
                 result.append('.');
             }
-            if (index == null) {
+            if (indexes[i] == NO_INDEX) {
                 result.append('x');
             } else {
-                result.append(index);
+                result.append(indexes[i]);
             }
         }
-        return result.toString();
+        indexesString = result.toString();
+        return indexesString;
     }
 
 
@@ -133,7 +162,7 @@ public class ScriptIndexes implements Comparable<ScriptIndexes> {
      * @param indexString The string
      * @return The list of longs or nulls in case of 'x'
      */
-    protected List<Long> extractIndexes(String indexString) {
+    protected static List<Long> extractIndexes(String indexString) {
         List<Long> result = new ArrayList<>();
         if (isEmpty(indexString)) {
             return result;
@@ -144,7 +173,7 @@ public class ScriptIndexes implements Comparable<ScriptIndexes> {
             if ("x".equalsIgnoreCase(part)) {
                 result.add(null);
             } else {
-                result.add(new Long(part));
+                result.add(Long.valueOf(part));
             }
         }
         return result;
@@ -170,43 +199,15 @@ public class ScriptIndexes implements Comparable<ScriptIndexes> {
      * @return -1 when this version is smaller, 0 if equal, 1 when larger
      */
     public int compareTo(ScriptIndexes otherVersion) {
-        List<Long> otherIndexes = otherVersion.getIndexes();
-        if (indexes.isEmpty()) {
-            if (otherIndexes.isEmpty()) {
-                return 0;
-            }
-            return -1;
-        } else if (otherIndexes.isEmpty()) {
-            return 1;
-        }
-        Iterator<Long> thisIterator = indexes.iterator();
-        Iterator<Long> otherIterator = otherIndexes.iterator();
-
-        while (thisIterator.hasNext() && otherIterator.hasNext()) {
-            Long thisIndex = thisIterator.next();
-            Long otherIndex = otherIterator.next();
-
-            if (thisIndex != null && otherIndex != null) {
-                if (thisIndex < otherIndex) {
-                    return -1;
-                }
-                if (thisIndex > otherIndex) {
-                    return 1;
-                }
-            } else if (thisIndex != null) {
-                return -1;
-            } else if (otherIndex != null) {
-                return 1;
+        long[] otherIndexes = otherVersion.indexes;
+        // a missing index is stored as the highest possible value, so a plain comparison of the values suffices
+        int length = Math.min(indexes.length, otherIndexes.length);
+        for (int i = 0; i < length; i++) {
+            if (indexes[i] != otherIndexes[i]) {
+                return indexes[i] < otherIndexes[i] ? -1 : 1;
             }
         }
-        if (!thisIterator.hasNext() && !otherIterator.hasNext()) {
-            return 0;
-        }
-        if (thisIterator.hasNext()) {
-            return 1;
-        } else {
-            return -1;
-        }
+        return Integer.compare(indexes.length, otherIndexes.length);
     }
 
 
@@ -215,7 +216,7 @@ public class ScriptIndexes implements Comparable<ScriptIndexes> {
      */
     @Override
     public int hashCode() {
-        return 31 + ((indexes == null) ? 0 : indexes.hashCode());
+        return hashCode;
     }
 
 
@@ -235,15 +236,19 @@ public class ScriptIndexes implements Comparable<ScriptIndexes> {
             return false;
         }
         ScriptIndexes other = (ScriptIndexes) object;
-        if (indexes == null) {
-            if (other.indexes != null) {
-                return false;
-            }
-        } else if (!indexes.equals(other.indexes)) {
-            return false;
-        }
-        return true;
+        return hashCode == other.hashCode && Arrays.equals(indexes, other.indexes);
     }
 
 
+    private static long[] toIndexArray(List<Long> indexes) {
+        long[] result = new long[indexes.size()];
+        for (int i = 0; i < result.length; i++) {
+            Long index = indexes.get(i);
+            if (index != null && index == NO_INDEX) {
+                throw new DbMaintainException("Invalid script index " + index + ": the highest possible index value is reserved.");
+            }
+            result[i] = (index == null) ? NO_INDEX : index;
+        }
+        return result;
+    }
 }
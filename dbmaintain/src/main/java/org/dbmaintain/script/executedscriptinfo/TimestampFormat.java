@@ -0,0 +1,191 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.executedscriptinfo;
+
+import org.dbmaintain.util.DbMaintainException;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formats and parses the timestamps at which the scripts were executed. This is a thread-safe replacement of the
+ * java.text.SimpleDateFormat that was used before: the configured pattern (property dbMaintainer.timestampFormat)
+ * is interpreted by a java.time DateTimeFormatter in the default time zone, as SimpleDateFormat did. This is only
+ * done for patterns that have the same meaning for both, i.e. that only contain the fields y (not yy), M, d, H, m
+ * and s, e.g. yyyy-MM-dd HH:mm:ss. Other patterns, e.g. with yy or with h but without a, are interpreted
+ * differently by a DateTimeFormatter: for these a SimpleDateFormat per thread is used, so that the existing
+ * timestamps are still read the same way. A DateTimeFormatter also parses strictly, e.g. it rejects single-digit
+ * values for MM and trailing text: timestamps that it cannot parse, e.g. in hand-edited rows, are parsed again using
+ * the lenient SimpleDateFormat.
+ * <p>
+ * Many scripts are executed in the same second, so the same timestamp string occurs in many rows. The parse results
+ * are therefore cached by string. The cache is cleared when it reaches its maximum size.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class TimestampFormat {
+
+    /* The maximum nr of parsed timestamps that is cached */
+    protected static final int MAX_NR_OF_CACHED_TIMESTAMPS = 10000;
+
+    /* The configured pattern */
+    protected String pattern;
+    /* The formatter for the pattern in the default time zone, null if the pattern requires a SimpleDateFormat */
+    protected DateTimeFormatter dateTimeFormatter;
+    /* The simple date formats per thread */
+    protected ThreadLocal<SimpleDateFormat> simpleDateFormats;
+    /* The parsed timestamps in ms per timestamp string */
+    protected Map<String, Long> parsedTimestamps = new ConcurrentHashMap<>();
+
+
+    /**
+     * @param pattern The date time pattern, e.g. yyyy-MM-dd HH:mm:ss, not null
+     */
+    public TimestampFormat(String pattern) {
+        this.pattern = pattern;
+        try {
+            new SimpleDateFormat(pattern);
+            this.simpleDateFormats = ThreadLocal.withInitial(() -> new SimpleDateFormat(pattern));
+            if (isSameMeaningForDateTimeFormatter(pattern)) {
+                this.dateTimeFormatter = DateTimeFormatter.ofPattern(pattern).withZone(ZoneId.systemDefault());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new DbMaintainException("Invalid timestamp format " + pattern, e);
+        }
+    }
+
+
+    /**
+     * @param date The date to format, not null
+     * @return The formatted date, not null
+     */
+    public String format(Date date) {
+        if (dateTimeFormatter == null) {
+            return simpleDateFormats.get().format(date);
+        }
+        return dateTimeFormatter.format(date.toInstant());
+    }
+
+    /**
+     * If the pattern has no time fields, e.g. dd/MM/yyyy, the time is midnight.
+     *
+     * @param timestamp The timestamp to parse, not null
+     * @return The date, not null
+     */
+    public Date parse(String timestamp) {
+        Long timeMs = parsedTimestamps.get(timestamp);
+        if (timeMs == null) {
+            timeMs = parseTimeMs(timestamp);
+            if (parsedTimestamps.size() >= MAX_NR_OF_CACHED_TIMESTAMPS) {
+                parsedTimestamps.clear();
+            }
+            parsedTimestamps.put(timestamp, timeMs);
+        }
+        return new Date(timeMs);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+
+    /**
+     * @param pattern The date time pattern, not null
+     * @return True if a DateTimeFormatter interprets the pattern the same way as a SimpleDateFormat
+     */
+    protected boolean isSameMeaningForDateTimeFormatter(String pattern) {
+        boolean quoted = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                i++;
+                continue;
+            }
+            if (quoted) {
+                i++;
+                continue;
+            }
+            if ("[]{}#".indexOf(c) >= 0) {
+                return false;
+            }
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                count++;
+            }
+            if (c == 'y' && count == 2) {
+                return false;
+            }
+            if ((c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') && ("yMdHms".indexOf(c) < 0 || c != 'y' && count > 2)) {
+                return false;
+            }
+            i += count;
+        }
+        return true;
+    }
+
+    protected long parseTimeMs(String timestamp) {
+        if (dateTimeFormatter == null) {
+            return parseTimeMsLeniently(timestamp);
+        }
+        try {
+            TemporalAccessor parsed = dateTimeFormatter.parse(timestamp);
+            LocalDate localDate = parsed.query(TemporalQueries.localDate());
+            if (localDate == null) {
+                // e.g. a pattern with only time fields, SimpleDateFormat uses 1 Jan 1970 as date
+                return parseTimeMsLeniently(timestamp);
+            }
+            LocalTime localTime = parsed.query(TemporalQueries.localTime());
+            LocalDateTime localDateTime = localDate.atTime(localTime == null ? LocalTime.MIDNIGHT : localTime);
+            return localDateTime.atZone(dateTimeFormatter.getZone()).toInstant().toEpochMilli();
+
+        } catch (DateTimeParseException e) {
+            return parseTimeMsLeniently(timestamp);
+        }
+    }
+
+    /**
+     * Parses the timestamp using the lenient SimpleDateFormat, as was done before.
+     *
+     * @param timestamp The timestamp to parse, not null
+     * @return The time in ms
+     */
+    protected long parseTimeMsLeniently(String timestamp) {
+        try {
+            return simpleDateFormats.get().parse(timestamp).getTime();
+        } catch (ParseException e) {
+            throw new DbMaintainException("Unable to parse timestamp " + timestamp + " using format " + pattern, e);
+        }
+    }
+}
@@ -23,17 +23,22 @@ import org.dbmaintain.script.ExecutedScript;
 import org.dbmaintain.script.Script;
 import org.dbmaintain.script.ScriptFactory;
 import org.dbmaintain.script.executedscriptinfo.ExecutedScriptInfoSource;
+import org.dbmaintain.script.executedscriptinfo.TimestampFormat;
 import org.dbmaintain.util.DbMaintainException;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.text.DateFormat;
-import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.asList;
 
 import static org.apache.commons.dbutils.DbUtils.closeQuietly;
+import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_AUTO_CREATE_DBMAINTAIN_SCRIPTS_TABLE_INDEX;
+import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_FILE_NAME_COLUMN_SIZE;
 
 /**
  * Implementation of <code>VersionSource</code> that stores the version in the database.
@@ -46,7 +51,22 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
     /* The logger instance for this class */
     private static Log logger = LogFactory.getLog(DefaultExecutedScriptInfoSource.class);
 
-    protected SortedSet<ExecutedScript> cachedExecutedScripts;
+    /**
+     * The nr of milliseconds below the time of the last read from which the rows are read again when refreshing the
+     * cached state. The changed at values are assigned using the clocks of the processes that update the table: this
+     * covers rows of processes whose clock is somewhat behind, and rows that were changed before but committed after
+     * the last read.
+     */
+    protected static final long CHANGED_AT_OVERLAP_MS = 10 * 60 * 1000L;
+
+    /* The cached scripts, null if not loaded. The cached state is only changed while holding the lock on this instance */
+    protected volatile SortedSet<ExecutedScript> cachedExecutedScripts;
+    /* The file names of all rows that were read, including the ones of ignored scripts */
+    protected Set<String> cachedFileNames;
+    /* The time at which the rows were last read, null if they were not read using the changed at column */
+    protected Long cachedChangedAt;
+    /* The last value that was assigned to the changed at column by this instance */
+    protected long lastAssignedChangedAt;
 
     protected Database defaultDatabase;
     protected SQLHandler sqlHandler;
@@ -65,23 +85,46 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
     protected int executedAtColumnSize;
     /* The name of the database column in which the script name is stored */
     protected String succeededColumnName;
+    /* The name of the optional database column in which the duration of the script execution in milliseconds is stored */
+    protected String durationColumnName;
+    /* The name of the optional database column in which the nr of executed statements is stored */
+    protected String nrOfStatementsColumnName;
+    /* The name of the optional database column in which the size of the script in bytes is stored */
+    protected String scriptSizeColumnName;
+    /* The name of the optional database column in which the type of runner that executed the script is stored */
+    protected String runnerTypeColumnName;
+    protected int runnerTypeColumnSize;
+    /* The name of the optional database column that stores when the row was last changed, used to refresh the cached scripts incrementally */
+    protected String changedAtColumnName;
+    /* The name of the optional database column that stores the progress of an interrupted execution of a chunked script */
+    protected String chunkCheckpointColumnName;
     /* True if the scripts table should be created automatically if it does not exist yet */
     protected boolean autoCreateExecutedScriptsTable;
+    /* True if a unique index should be added automatically on the file name column of an existing scripts table without one */
+    protected boolean autoCreateExecutedScriptsTableIndex;
     /* Format of the contents of the executed_at column */
-    protected DateFormat timestampFormat;
+    protected TimestampFormat timestampFormat;
     /* True if the scripts table was checked and was valid */
     protected boolean validExecutedScriptsTable = false;
+    /* True if the scripts table contains the optional columns for the execution statistics */
+    protected boolean executionStatisticsColumnsAvailable = false;
+    /* True if the scripts table contains the optional changed at column */
+    protected boolean changedAtColumnAvailable = false;
+    /* True if the scripts table contains the optional chunk checkpoint column */
+    protected boolean chunkCheckpointColumnAvailable = false;
 
     protected ScriptFactory scriptFactory;
 
-    public DefaultExecutedScriptInfoSource(boolean autoCreateExecutedScriptsTable, String executedScriptsTableName, String fileNameColumnName,
+    public DefaultExecutedScriptInfoSource(boolean autoCreateExecutedScriptsTable, boolean autoCreateExecutedScriptsTableIndex, String executedScriptsTableName, String fileNameColumnName,
                                            int fileNameColumnSize, String fileLastModifiedAtColumnName, String checksumColumnName, int checksumColumnSize,
-                                           String executedAtColumnName, int executedAtColumnSize, String succeededColumnName, DateFormat timestampFormat,
-                                           Database defaultSupport, SQLHandler sqlHandler, ScriptFactory scriptFactory) {
+                                           String executedAtColumnName, int executedAtColumnSize, String succeededColumnName, String durationColumnName,
+                                           String nrOfStatementsColumnName, String scriptSizeColumnName, String runnerTypeColumnName, int runnerTypeColumnSize,
+                                           String changedAtColumnName, String chunkCheckpointColumnName, TimestampFormat timestampFormat, Database defaultSupport, SQLHandler sqlHandler, ScriptFactory scriptFactory) {
 
         this.defaultDatabase = defaultSupport;
         this.sqlHandler = sqlHandler;
         this.autoCreateExecutedScriptsTable = autoCreateExecutedScriptsTable;
+        this.autoCreateExecutedScriptsTableIndex = autoCreateExecutedScriptsTableIndex;
         this.executedScriptsTableName = defaultDatabase.toCorrectCaseIdentifier(executedScriptsTableName);
         this.fileNameColumnName = defaultDatabase.toCorrectCaseIdentifier(fileNameColumnName);
         this.fileNameColumnSize = fileNameColumnSize;
@@ -91,6 +134,13 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
         this.executedAtColumnName = defaultDatabase.toCorrectCaseIdentifier(executedAtColumnName);
         this.executedAtColumnSize = executedAtColumnSize;
         this.succeededColumnName = defaultDatabase.toCorrectCaseIdentifier(succeededColumnName);
+        this.durationColumnName = defaultDatabase.toCorrectCaseIdentifier(durationColumnName);
+        this.nrOfStatementsColumnName = defaultDatabase.toCorrectCaseIdentifier(nrOfStatementsColumnName);
+        this.scriptSizeColumnName = defaultDatabase.toCorrectCaseIdentifier(scriptSizeColumnName);
+        this.runnerTypeColumnName = defaultDatabase.toCorrectCaseIdentifier(runnerTypeColumnName);
+        this.runnerTypeColumnSize = runnerTypeColumnSize;
+        this.changedAtColumnName = defaultDatabase.toCorrectCaseIdentifier(changedAtColumnName);
+        this.chunkCheckpointColumnName = defaultDatabase.toCorrectCaseIdentifier(chunkCheckpointColumnName);
         this.timestampFormat = timestampFormat;
         this.scriptFactory = scriptFactory;
     }
@@ -100,14 +150,17 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
      * @return All scripts that were registered as executed on the database
      */
     public SortedSet<ExecutedScript> getExecutedScripts() {
-        if (cachedExecutedScripts != null) {
+        SortedSet<ExecutedScript> executedScripts = cachedExecutedScripts;
+        if (executedScripts != null) {
+            return executedScripts;
+        }
+        synchronized (this) {
+            if (cachedExecutedScripts == null) {
+                checkExecutedScriptsTable();
+                cachedExecutedScripts = doGetExecutedScripts();
+            }
             return cachedExecutedScripts;
         }
-
-        checkExecutedScriptsTable();
-
-        cachedExecutedScripts = doGetExecutedScripts();
-        return cachedExecutedScripts;
     }
 
 
@@ -117,43 +170,135 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
      * @return All scripts that were registered as executed on the database
      */
     protected synchronized SortedSet<ExecutedScript> doGetExecutedScripts() {
-        TreeSet<ExecutedScript> executedScripts = new TreeSet<>();
+        SortedSet<ExecutedScript> executedScripts = new ConcurrentSkipListSet<>();
+        cachedFileNames = new HashSet<>();
+        cachedChangedAt = null;
+        readExecutedScripts(null, executedScripts);
+        return executedScripts;
+    }
+
+
+    /**
+     * Refreshes the cached scripts by only reading the rows that were changed since the scripts were last read and
+     * merging them into the cached scripts. This requires the changed at column. To account for differences between
+     * the clocks of the processes and for changes that were committed late, the rows that were changed during the
+     * {@link #CHANGED_AT_OVERLAP_MS} before the last read are read again. Rows that were removed cannot be
+     * detected this way: if the nr of rows in the table no longer matches the nr of rows that were read, or if the
+     * table has no changed at column, the cached state is reset and all scripts are reloaded the next time.
+     * Does nothing if the scripts were not loaded yet.
+     */
+    public synchronized void refreshCachedState() {
+        if (cachedExecutedScripts == null) {
+            return;
+        }
+        if (!changedAtColumnAvailable) {
+            resetCachedState();
+            return;
+        }
+        Long changedSince = cachedChangedAt == null ? null : cachedChangedAt - CHANGED_AT_OVERLAP_MS;
+        readExecutedScripts(changedSince, cachedExecutedScripts);
+
+        long nrOfRows = sqlHandler.getItemAsLong("select count(*) from " + getQualifiedExecutedScriptsTableName(), defaultDatabase.getDataSource());
+        if (nrOfRows != cachedFileNames.size()) {
+            logger.debug("Rows were removed from executed scripts table " + getQualifiedExecutedScriptsTableName() + ". All scripts will be reloaded.");
+            resetCachedState();
+        }
+    }
+
+
+    /**
+     * Reads the rows that were changed since the given value of the changed at column and merges them into the
+     * given scripts: a script that is already in the given set is replaced. The time at which the rows are read is
+     * stored as the cached changed at value.
+     *
+     * @param changedSince    The minimum value of the changed at column, null to read all rows
+     * @param executedScripts The scripts to merge the read rows into, not null
+     */
+    protected synchronized void readExecutedScripts(Long changedSince, SortedSet<ExecutedScript> executedScripts) {
+        String selectSql = "select " + fileNameColumnName + ", " + fileLastModifiedAtColumnName + ", " +
+                checksumColumnName + ", " + executedAtColumnName + ", " + succeededColumnName;
+        if (executionStatisticsColumnsAvailable) {
+            selectSql += ", " + durationColumnName + ", " + nrOfStatementsColumnName + ", " + scriptSizeColumnName + ", " + runnerTypeColumnName;
+        }
+        if (changedAtColumnAvailable) {
+            selectSql += ", " + changedAtColumnName;
+        }
+        if (chunkCheckpointColumnAvailable) {
+            selectSql += ", " + chunkCheckpointColumnName;
+        }
+        selectSql += " from " + getQualifiedExecutedScriptsTableName();
+        if (changedSince != null) {
+            // rows written by older versions have no changed at value, they are always read again
+            selectSql += " where " + changedAtColumnName + " >= ? or " + changedAtColumnName + " is null";
+        }
 
         Connection connection = null;
-        Statement statement = null;
+        PreparedStatement statement = null;
         ResultSet resultSet = null;
         try {
+            long readAt = currentTimeMillis();
             connection = defaultDatabase.getDataSource().getConnection();
-            statement = connection.createStatement();
-            resultSet = statement.executeQuery("select " + fileNameColumnName + ", " + fileLastModifiedAtColumnName + ", " +
-                    checksumColumnName + ", " + executedAtColumnName + ", " + succeededColumnName +
-                    " from " + getQualifiedExecutedScriptsTableName());
+            statement = connection.prepareStatement(selectSql);
+            if (changedSince != null) {
+                statement.setLong(1, changedSince);
+            }
+            resultSet = statement.executeQuery();
 
             while (resultSet.next()) {
                 String fileName = resultSet.getString(fileNameColumnName);
+                cachedFileNames.add(fileName);
                 String checkSum = resultSet.getString(checksumColumnName);
                 Long fileLastModifiedAt = resultSet.getLong(fileLastModifiedAtColumnName);
                 Date executedAt = null;
-                try {
-                    String executedAtStr = resultSet.getString(executedAtColumnName);
-                    if (executedAtStr != null) executedAt = timestampFormat.parse(executedAtStr);
-                } catch (ParseException e) {
-                    throw new DbMaintainException("Error when parsing date " + executedAt + " using format " + timestampFormat, e);
-                }
+                String executedAtStr = resultSet.getString(executedAtColumnName);
+                if (executedAtStr != null) executedAt = timestampFormat.parse(executedAtStr);
                 boolean succeeded = resultSet.getInt(succeededColumnName) == 1;
 
                 Script script = scriptFactory.createScriptWithoutContent(fileName, fileLastModifiedAt, checkSum);
+                ExecutedScript executedScript = new ExecutedScript(script, executedAt, succeeded);
+                executedScripts.remove(executedScript);
                 if (!script.isIgnored()) {
-                    ExecutedScript executedScript = new ExecutedScript(script, executedAt, succeeded);
+                    if (executionStatisticsColumnsAvailable) {
+                        setExecutionStatistics(executedScript, resultSet);
+                    }
+                    if (chunkCheckpointColumnAvailable) {
+                        long chunkCheckpoint = resultSet.getLong(chunkCheckpointColumnName);
+                        executedScript.setChunkCheckpoint(resultSet.wasNull() ? null : chunkCheckpoint);
+                    }
                     executedScripts.add(executedScript);
                 }
             }
+            if (changedAtColumnAvailable) {
+                cachedChangedAt = readAt;
+            }
         } catch (SQLException e) {
             throw new DbMaintainException("Error while retrieving database version", e);
         } finally {
             closeQuietly(connection, statement, resultSet);
         }
-        return executedScripts;
+    }
+
+
+    /**
+     * Sets the statistics of the execution of the script as stored in the current row of the given result set.
+     *
+     * @param executedScript The executed script, not null
+     * @param resultSet      The result set, not null
+     */
+    protected void setExecutionStatistics(ExecutedScript executedScript, ResultSet resultSet) throws SQLException {
+        long durationMs = resultSet.getLong(durationColumnName);
+        if (!resultSet.wasNull()) {
+            executedScript.setDurationMs(durationMs);
+        }
+        int nrOfStatements = resultSet.getInt(nrOfStatementsColumnName);
+        if (!resultSet.wasNull()) {
+            executedScript.setNrOfStatements(nrOfStatements);
+        }
+        long scriptSize = resultSet.getLong(scriptSizeColumnName);
+        if (!resultSet.wasNull()) {
+            executedScript.setScriptSize(scriptSize);
+        }
+        executedScript.setRunnerType(resultSet.getString(runnerTypeColumnName));
     }
 
 
@@ -162,7 +307,7 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
      *
      * @param executedScript The script that was executed on the database
      */
-    public void registerExecutedScript(ExecutedScript executedScript) {
+    public synchronized void registerExecutedScript(ExecutedScript executedScript) {
         checkExecutedScriptsTable();
 
         if (getExecutedScripts().contains(executedScript)) {
@@ -173,22 +318,64 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
     }
 
 
+    /**
+     * Registers the fact that the given script has been executed on the database, without committing. The
+     * registration is part of the transaction that was started on the connection of the default database, if any.
+     * If that transaction is rolled back, the cached state should be reset.
+     *
+     * @param executedScript The script that was executed on the database, not null
+     */
+    public synchronized void registerExecutedScriptWithoutCommit(ExecutedScript executedScript) {
+        checkExecutedScriptsTable();
+
+        if (getExecutedScripts().contains(executedScript)) {
+            sqlHandler.executeUpdate(getUpdateSql(), getUpdateParameters(executedScript), defaultDatabase.getDataSource());
+        } else {
+            sqlHandler.executeUpdate(getInsertSql(), getInsertParameters(executedScript), defaultDatabase.getDataSource());
+            rememberFileName(executedScript.getScript().getFileName());
+        }
+        getExecutedScripts().add(executedScript);
+    }
+
+
+    /**
+     * Registers the fact that the given scripts have been executed on the database. The new scripts are inserted
+     * and the already registered scripts are updated using batches of prepared statements.
+     *
+     * @param executedScripts The scripts that were executed on the database, not null
+     */
+    public synchronized void registerExecutedScripts(Collection<ExecutedScript> executedScripts) {
+        checkExecutedScriptsTable();
+
+        List<Object[]> insertParameters = new ArrayList<>();
+        List<Object[]> updateParameters = new ArrayList<>();
+        for (ExecutedScript executedScript : executedScripts) {
+            if (getExecutedScripts().contains(executedScript)) {
+                updateParameters.add(getUpdateParameters(executedScript));
+            } else {
+                insertParameters.add(getInsertParameters(executedScript));
+            }
+        }
+        sqlHandler.executeBatchUpdateAndCommit(getInsertSql(), insertParameters, defaultDatabase.getDataSource());
+        sqlHandler.executeBatchUpdateAndCommit(getUpdateSql(), updateParameters, defaultDatabase.getDataSource());
+        getExecutedScripts().addAll(executedScripts);
+        for (ExecutedScript executedScript : executedScripts) {
+            rememberFileName(executedScript.getScript().getFileName());
+        }
+    }
+
+
     /**
      * Saves the given registered script
      * Precondition: The table db_executed_scripts must exist
      *
      * @param executedScript The script that needs to be saved, not null
      */
-    protected void insertExecutedScript(ExecutedScript executedScript) {
+    protected synchronized void insertExecutedScript(ExecutedScript executedScript) {
         getExecutedScripts().add(executedScript);
 
-        String executedAt = timestampFormat.format(executedScript.getExecutedAt());
-        String insertSql = "insert into " + getQualifiedExecutedScriptsTableName() +
-                " (" + fileNameColumnName + ", " + fileLastModifiedAtColumnName + ", " + checksumColumnName + ", " +
-                executedAtColumnName + ", " + succeededColumnName + ") values ('" + executedScript.getScript().getFileName() +
-                "', " + executedScript.getScript().getFileLastModifiedAt() + ", '" +
-                executedScript.getScript().getCheckSum() + "', '" + executedAt + "', " + (executedScript.isSuccessful() ? "1" : "0") + ")";
-        sqlHandler.executeUpdateAndCommit(insertSql, defaultDatabase.getDataSource());
+        sqlHandler.executeUpdateAndCommit(getInsertSql(), getInsertParameters(executedScript), defaultDatabase.getDataSource());
+        rememberFileName(executedScript.getScript().getFileName());
     }
 
 
@@ -197,19 +384,12 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
      *
      * @param executedScript The script that needs to be updated, not null
      */
-    public void updateExecutedScript(ExecutedScript executedScript) {
+    public synchronized void updateExecutedScript(ExecutedScript executedScript) {
         checkExecutedScriptsTable();
 
         getExecutedScripts().add(executedScript);
 
-        String executedAt = timestampFormat.format(executedScript.getExecutedAt());
-        String updateSql = "update " + getQualifiedExecutedScriptsTableName() +
-                " set " + checksumColumnName + " = '" + executedScript.getScript().getCheckSum() + "', " +
-                fileLastModifiedAtColumnName + " = " + executedScript.getScript().getFileLastModifiedAt() + ", " +
-                executedAtColumnName + " = '" + executedAt + "', " +
-                succeededColumnName + " = " + (executedScript.isSuccessful() ? "1" : "0") +
-                " where " + fileNameColumnName + " = '" + executedScript.getScript().getFileName() + "'";
-        sqlHandler.executeUpdateAndCommit(updateSql, defaultDatabase.getDataSource());
+        sqlHandler.executeUpdateAndCommit(getUpdateSql(), getUpdateParameters(executedScript), defaultDatabase.getDataSource());
     }
 
 
@@ -218,14 +398,13 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
      *
      * @param executedScript The executed script, which is no longer part of the executed scripts
      */
-    public void deleteExecutedScript(ExecutedScript executedScript) {
+    public synchronized void deleteExecutedScript(ExecutedScript executedScript) {
         checkExecutedScriptsTable();
 
         getExecutedScripts().remove(executedScript);
 
-        String deleteSql = "delete from " + getQualifiedExecutedScriptsTableName() +
-                " where " + fileNameColumnName + " = '" + executedScript.getScript().getFileName() + "'";
-        sqlHandler.executeUpdateAndCommit(deleteSql, defaultDatabase.getDataSource());
+        sqlHandler.executeUpdateAndCommit(getDeleteSql(), new Object[]{executedScript.getScript().getFileName()}, defaultDatabase.getDataSource());
+        forgetFileName(executedScript.getScript().getFileName());
     }
 
 
@@ -235,44 +414,73 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
      * @param executedScript  the original executed script that still refers to the original script
      * @param renamedToScript the script to which the original script has been renamed
      */
-    public void renameExecutedScript(ExecutedScript executedScript, Script renamedToScript) {
+    public synchronized void renameExecutedScript(ExecutedScript executedScript, Script renamedToScript) {
         checkExecutedScriptsTable();
 
         String renameSql = "update " + getQualifiedExecutedScriptsTableName() +
-                " set " + fileNameColumnName + " = '" + renamedToScript.getFileName() + "', " +
-                checksumColumnName + " = '" + renamedToScript.getCheckSum() + "', " +
-                fileLastModifiedAtColumnName + " = " + renamedToScript.getFileLastModifiedAt() +
-                " where " + fileNameColumnName + " = '" + executedScript.getScript().getFileName() + "'";
-        sqlHandler.executeUpdateAndCommit(renameSql, defaultDatabase.getDataSource());
+                " set " + fileNameColumnName + " = ?, " + checksumColumnName + " = ?, " + fileLastModifiedAtColumnName + " = ?";
+        List<Object> parameters = new ArrayList<>(asList(renamedToScript.getFileName(), renamedToScript.getCheckSum(), renamedToScript.getFileLastModifiedAt()));
+        if (changedAtColumnAvailable) {
+            renameSql += ", " + changedAtColumnName + " = ?";
+            parameters.add(nextChangedAt());
+        }
+        renameSql += " where " + fileNameColumnName + " = ?";
+        parameters.add(executedScript.getScript().getFileName());
+        sqlHandler.executeUpdateAndCommit(renameSql, parameters.toArray(), defaultDatabase.getDataSource());
+
+        // the file name determines the position in the sorted cache, re-add the script after renaming it
+        boolean cached = cachedExecutedScripts != null && cachedExecutedScripts.remove(executedScript);
+        forgetFileName(executedScript.getScript().getFileName());
         executedScript.renameTo(renamedToScript);
+        rememberFileName(renamedToScript.getFileName());
+        if (cached) {
+            cachedExecutedScripts.add(executedScript);
+        }
     }
 
     public void deleteAllExecutedPreprocessingScripts() {
     	checkExecutedScriptsTable();
 
-        for (Iterator<ExecutedScript> executedScriptsIterator = getExecutedScripts().iterator(); executedScriptsIterator.hasNext();) {
-            ExecutedScript executedScript = executedScriptsIterator.next();
-            if (executedScript.getScript().isPreProcessingScript()) {
-                executedScriptsIterator.remove();
-                String deleteSql = "delete from " + getQualifiedExecutedScriptsTableName() +
-                        " where " + fileNameColumnName + " = '" + executedScript.getScript().getFileName() + "'";
-                sqlHandler.executeUpdateAndCommit(deleteSql, defaultDatabase.getDataSource());
-            }
-        }
+        deleteExecutedScriptsWithFileNamePrefixes(scriptFactory.getPreProcessingScriptFileNamePrefixes());
     }
 
     public void deleteAllExecutedPostprocessingScripts() {
         checkExecutedScriptsTable();
 
-        for (Iterator<ExecutedScript> executedScriptsIterator = getExecutedScripts().iterator(); executedScriptsIterator.hasNext();) {
-            ExecutedScript executedScript = executedScriptsIterator.next();
-            if (executedScript.getScript().isPostProcessingScript()) {
-                executedScriptsIterator.remove();
-                String deleteSql = "delete from " + getQualifiedExecutedScriptsTableName() +
-                        " where " + fileNameColumnName + " = '" + executedScript.getScript().getFileName() + "'";
-                sqlHandler.executeUpdateAndCommit(deleteSql, defaultDatabase.getDataSource());
+        deleteExecutedScriptsWithFileNamePrefixes(scriptFactory.getPostProcessingScriptFileNamePrefixes());
+    }
+
+    /**
+     * Removes all executed scripts of which the file name starts with one of the given prefixes using a single
+     * delete statement. Depending on the collation of the database, like can also match file names that only differ
+     * in case: the cached state is therefore reset, so that the scripts are reloaded as they are in the database.
+     *
+     * @param fileNamePrefixes The prefixes, e.g. the pre processing directory name followed by a /, not null
+     */
+    protected void deleteExecutedScriptsWithFileNamePrefixes(List<String> fileNamePrefixes) {
+        if (fileNamePrefixes.isEmpty()) {
+            return;
+        }
+        StringBuilder deleteSql = new StringBuilder("delete from ").append(getQualifiedExecutedScriptsTableName()).append(" where ");
+        Object[] parameters = new Object[fileNamePrefixes.size()];
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                deleteSql.append(" or ");
             }
+            deleteSql.append(fileNameColumnName).append(" like ? escape '!'");
+            parameters[i] = escapeLikePattern(fileNamePrefixes.get(i)) + "%";
         }
+        sqlHandler.executeUpdateAndCommit(deleteSql.toString(), parameters, defaultDatabase.getDataSource());
+
+        resetCachedState();
+    }
+
+    /**
+     * @param value The value to match literally, not null
+     * @return The value in which the like wildcards are escaped using !
+     */
+    protected String escapeLikePattern(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
     /**
@@ -295,8 +503,13 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
     public void markErrorScriptsAsSuccessful() {
         checkExecutedScriptsTable();
 
-        String deleteSql = "update " + getQualifiedExecutedScriptsTableName() + " set " + succeededColumnName + "=1 where " + succeededColumnName + "=0";
-        sqlHandler.executeUpdateAndCommit(deleteSql, defaultDatabase.getDataSource());
+        if (changedAtColumnAvailable) {
+            String updateSql = "update " + getQualifiedExecutedScriptsTableName() + " set " + succeededColumnName + "=1, " + changedAtColumnName + "=? where " + succeededColumnName + "=0";
+            sqlHandler.executeUpdateAndCommit(updateSql, new Object[]{nextChangedAt()}, defaultDatabase.getDataSource());
+        } else {
+            String updateSql = "update " + getQualifiedExecutedScriptsTableName() + " set " + succeededColumnName + "=1 where " + succeededColumnName + "=0";
+            sqlHandler.executeUpdateAndCommit(updateSql, defaultDatabase.getDataSource());
+        }
 
         resetCachedState();
     }
@@ -314,6 +527,68 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
     }
 
 
+    /**
+     * Gets the progress of the execution in chunks of the given script. Returns null if the scripts table has no
+     * chunk checkpoint column.
+     *
+     * @param script The script, not null
+     * @return The checkpoint, null if there is none
+     */
+    public Long getChunkCheckpoint(Script script) {
+        checkExecutedScriptsTable();
+        if (!chunkCheckpointColumnAvailable) {
+            return null;
+        }
+        String selectSql = "select " + chunkCheckpointColumnName + " from " + getQualifiedExecutedScriptsTableName() + " where " + fileNameColumnName + " = ?";
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = defaultDatabase.getDataSource().getConnection();
+            statement = connection.prepareStatement(selectSql);
+            statement.setString(1, script.getFileName());
+            resultSet = statement.executeQuery();
+            if (resultSet.next()) {
+                long chunkCheckpoint = resultSet.getLong(1);
+                if (!resultSet.wasNull()) {
+                    return chunkCheckpoint;
+                }
+            }
+            return null;
+
+        } catch (SQLException e) {
+            throw new DbMaintainException("Error while retrieving chunk checkpoint of script " + script.getFileName(), e);
+        } finally {
+            closeQuietly(connection, statement, resultSet);
+        }
+    }
+
+    /**
+     * Stores the progress of the execution in chunks of the given script, without committing. Does nothing if the
+     * scripts table has no chunk checkpoint column: the execution can then not be resumed.
+     *
+     * @param script          The script, not null
+     * @param chunkCheckpoint The checkpoint, null to clear it
+     */
+    public void updateChunkCheckpoint(Script script, Long chunkCheckpoint) {
+        checkExecutedScriptsTable();
+        if (!chunkCheckpointColumnAvailable) {
+            return;
+        }
+        String updateSql = "update " + getQualifiedExecutedScriptsTableName() + " set " + chunkCheckpointColumnName + " = ?";
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(chunkCheckpoint);
+        if (changedAtColumnAvailable) {
+            updateSql += ", " + changedAtColumnName + " = ?";
+            parameters.add(nextChangedAt());
+        }
+        updateSql += " where " + fileNameColumnName + " = ?";
+        parameters.add(script.getFileName());
+        sqlHandler.executeUpdate(updateSql, parameters.toArray(), defaultDatabase.getDataSource());
+    }
+
+
     /**
      * Checks if the version table and columns are available and if a record exists in which the version info is stored.
      * If not, the table, columns and record are created if auto-create is true, else an exception is raised.
@@ -327,6 +602,8 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
         // check valid
         if (isExecutedScriptsTableValid()) {
             validExecutedScriptsTable = true;
+            checkExecutedScriptsTableIndex();
+            checkOptionalColumns();
             return true;
         }
 
@@ -334,6 +611,9 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
         if (autoCreateExecutedScriptsTable) {
             logger.warn("Executed scripts table " + getQualifiedExecutedScriptsTableName() + " doesn't exist yet or is invalid. A new one is created automatically.");
             createExecutedScriptsTable();
+            executionStatisticsColumnsAvailable = true;
+            changedAtColumnAvailable = true;
+            chunkCheckpointColumnAvailable = true;
             return false;
         }
 
@@ -368,6 +648,77 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
         return false;
     }
 
+    /**
+     * Checks whether the scripts table contains the optional columns. Tables that were created by older versions
+     * do not have these columns. If the columns in which the duration, the nr of statements, the size and the runner
+     * type of the script executions are stored are missing, the statistics are not stored and an info message is logged.
+     * If the changed at column is missing, the cached scripts cannot be refreshed incrementally and are reloaded instead.
+     * If the chunk checkpoint column is missing, an interrupted chunked script cannot be resumed.
+     */
+    protected void checkOptionalColumns() {
+        Set<String> columnNames = defaultDatabase.getColumnNames(defaultDatabase.getDefaultSchemaName(), executedScriptsTableName);
+        executionStatisticsColumnsAvailable = columnNames.contains(durationColumnName) && columnNames.contains(nrOfStatementsColumnName)
+                && columnNames.contains(scriptSizeColumnName) && columnNames.contains(runnerTypeColumnName);
+        if (!executionStatisticsColumnsAvailable) {
+            logger.info("Executed scripts table " + getQualifiedExecutedScriptsTableName() + " has no columns " + durationColumnName + ", " + nrOfStatementsColumnName + ", " +
+                    scriptSizeColumnName + " and " + runnerTypeColumnName + ". The execution statistics of the scripts will not be stored. " +
+                    "Add these columns, or let DbMaintain re-create the table, to be able to report the execution times of the scripts.");
+        }
+        changedAtColumnAvailable = columnNames.contains(changedAtColumnName);
+        if (!changedAtColumnAvailable) {
+            logger.debug("Executed scripts table " + getQualifiedExecutedScriptsTableName() + " has no column " + changedAtColumnName + ". Refreshing the executed scripts will reload all scripts.");
+        }
+        chunkCheckpointColumnAvailable = columnNames.contains(chunkCheckpointColumnName);
+        if (!chunkCheckpointColumnAvailable) {
+            logger.debug("Executed scripts table " + getQualifiedExecutedScriptsTableName() + " has no column " + chunkCheckpointColumnName + ". Interrupted chunked scripts cannot be resumed.");
+        }
+    }
+
+    /**
+     * Checks whether the file name column of the scripts table is the primary key or has a unique index. Tables that
+     * were created by older versions have neither, which makes every lookup of a script a full table scan. If
+     * auto-create of the index is enabled, a unique index is added, otherwise a warning is logged explaining how to add it.
+     * Problems while checking or adding the index are logged, they do not prevent the update.
+     */
+    protected void checkExecutedScriptsTableIndex() {
+        String schemaName = defaultDatabase.getDefaultSchemaName();
+        try {
+            if (defaultDatabase.isUniqueColumn(schemaName, executedScriptsTableName, fileNameColumnName)) {
+                return;
+            }
+        } catch (DbMaintainException e) {
+            logger.warn("Unable to check the indexes of executed scripts table " + getQualifiedExecutedScriptsTableName() + ": " + e.getMessage());
+            return;
+        }
+
+        String indexName = getExecutedScriptsTableIndexName();
+        if (autoCreateExecutedScriptsTableIndex) {
+            logger.info("Executed scripts table " + getQualifiedExecutedScriptsTableName() + " has no unique index on column " + fileNameColumnName + ". The index is created automatically.");
+            try {
+                defaultDatabase.createUniqueIndex(schemaName, executedScriptsTableName, fileNameColumnName, indexName);
+            } catch (DbMaintainException e) {
+                logger.warn("Unable to create a unique index on column " + fileNameColumnName + " of executed scripts table " + getQualifiedExecutedScriptsTableName() +
+                        ". The table could contain duplicate file names. The table is used without index.", e);
+            }
+            return;
+        }
+        logger.warn("Executed scripts table " + getQualifiedExecutedScriptsTableName() + " has no primary key or unique index on column " + fileNameColumnName + ".\n" +
+                "Updating the executed scripts will get slow when there are many scripts. Let DbMaintain create the index automatically by setting " +
+                "the property " + PROPERTY_AUTO_CREATE_DBMAINTAIN_SCRIPTS_TABLE_INDEX + " to true, or create it manually by executing following statement:\n" +
+                defaultDatabase.getCreateUniqueIndexStatement(schemaName, executedScriptsTableName, fileNameColumnName, indexName));
+    }
+
+    /**
+     * @return The name of the index on the file name column, at most 30 characters
+     */
+    protected String getExecutedScriptsTableIndexName() {
+        String indexName = defaultDatabase.toCorrectCaseIdentifier(executedScriptsTableName + "_idx");
+        if (indexName.length() > 30) {
+            indexName = indexName.substring(0, 30);
+        }
+        return indexName;
+    }
+
     /**
      * Creates the version table and inserts a version record.
      */
@@ -379,6 +730,11 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
             // ignored
         }
 
+        if (!isFileNameColumnIndexable()) {
+            logger.warn("Creating executed scripts table " + getQualifiedExecutedScriptsTableName() + " without primary key: column " + fileNameColumnName +
+                    " of " + fileNameColumnSize + " characters is too large to be indexed, the max is " + defaultDatabase.getMaxIndexedTextLength() + " characters.\n" +
+                    "Updating the executed scripts will get slow when there are many scripts. Reduce the size with property " + PROPERTY_FILE_NAME_COLUMN_SIZE + ".");
+        }
         // Create db version table
         sqlHandler.executeUpdateAndCommit(getCreateExecutedScriptTableStatement(), defaultDatabase.getDataSource());
     }
@@ -389,11 +745,94 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
     protected String getCreateExecutedScriptTableStatement() {
         String longDataType = defaultDatabase.getLongDataType();
         return "create table " + getQualifiedExecutedScriptsTableName() + " ( " +
-                fileNameColumnName + " " + defaultDatabase.getTextDataType(fileNameColumnSize) + ", " +
+                fileNameColumnName + " " + defaultDatabase.getTextDataType(fileNameColumnSize) + (isFileNameColumnIndexable() ? " not null primary key, " : " not null, ") +
                 fileLastModifiedAtColumnName + " " + defaultDatabase.getLongDataType() + ", " +
                 checksumColumnName + " " + defaultDatabase.getTextDataType(checksumColumnSize) + ", " +
                 executedAtColumnName + " " + defaultDatabase.getTextDataType(executedAtColumnSize) + ", " +
-                succeededColumnName + " " + longDataType + " )";
+                succeededColumnName + " " + longDataType + ", " +
+                durationColumnName + " " + longDataType + ", " +
+                nrOfStatementsColumnName + " " + longDataType + ", " +
+                scriptSizeColumnName + " " + longDataType + ", " +
+                runnerTypeColumnName + " " + defaultDatabase.getTextDataType(runnerTypeColumnSize) + ", " +
+                changedAtColumnName + " " + longDataType + ", " +
+                chunkCheckpointColumnName + " " + longDataType + " )";
+    }
+
+    /**
+     * @return True if the file name column is small enough to be the primary key of the table
+     */
+    protected boolean isFileNameColumnIndexable() {
+        return fileNameColumnSize <= defaultDatabase.getMaxIndexedTextLength();
+    }
+
+    protected String getInsertSql() {
+        List<String> columnNames = getValueColumnNames();
+        columnNames.add(0, fileNameColumnName);
+        StringBuilder placeholders = new StringBuilder("?");
+        for (int i = 1; i < columnNames.size(); i++) {
+            placeholders.append(", ?");
+        }
+        return "insert into " + getQualifiedExecutedScriptsTableName() +
+                " (" + String.join(", ", columnNames) + ") values (" + placeholders + ")";
+    }
+
+    protected Object[] getInsertParameters(ExecutedScript executedScript) {
+        List<Object> parameters = getValueParameters(executedScript);
+        parameters.add(0, executedScript.getScript().getFileName());
+        return parameters.toArray();
+    }
+
+    protected String getUpdateSql() {
+        return "update " + getQualifiedExecutedScriptsTableName() +
+                " set " + String.join(" = ?, ", getValueColumnNames()) + " = ?" +
+                " where " + fileNameColumnName + " = ?";
+    }
+
+    protected Object[] getUpdateParameters(ExecutedScript executedScript) {
+        List<Object> parameters = getValueParameters(executedScript);
+        parameters.add(executedScript.getScript().getFileName());
+        return parameters.toArray();
+    }
+
+    /**
+     * @return The names of the columns that are set when a script is registered, except the file name column, not null
+     */
+    protected List<String> getValueColumnNames() {
+        List<String> columnNames = new ArrayList<>(asList(checksumColumnName, fileLastModifiedAtColumnName, executedAtColumnName, succeededColumnName));
+        if (executionStatisticsColumnsAvailable) {
+            columnNames.addAll(asList(durationColumnName, nrOfStatementsColumnName, scriptSizeColumnName, runnerTypeColumnName));
+        }
+        if (changedAtColumnAvailable) {
+            columnNames.add(changedAtColumnName);
+        }
+        if (chunkCheckpointColumnAvailable) {
+            columnNames.add(chunkCheckpointColumnName);
+        }
+        return columnNames;
+    }
+
+    /**
+     * @param executedScript The script, not null
+     * @return The values for the columns of {@link #getValueColumnNames()}, in the same order, not null
+     */
+    protected List<Object> getValueParameters(ExecutedScript executedScript) {
+        Script script = executedScript.getScript();
+        List<Object> parameters = new ArrayList<>(asList(script.getCheckSum(), script.getFileLastModifiedAt(),
+                timestampFormat.format(executedScript.getExecutedAt()), executedScript.isSuccessful() ? 1 : 0));
+        if (executionStatisticsColumnsAvailable) {
+            parameters.addAll(asList(executedScript.getDurationMs(), executedScript.getNrOfStatements(), executedScript.getScriptSize(), executedScript.getRunnerType()));
+        }
+        if (changedAtColumnAvailable) {
+            parameters.add(nextChangedAt());
+        }
+        if (chunkCheckpointColumnAvailable) {
+            parameters.add(executedScript.getChunkCheckpoint());
+        }
+        return parameters;
+    }
+
+    protected String getDeleteSql() {
+        return "delete from " + getQualifiedExecutedScriptsTableName() + " where " + fileNameColumnName + " = ?";
     }
 
     protected String getQualifiedExecutedScriptsTableName() {
@@ -404,7 +843,44 @@ public class DefaultExecutedScriptInfoSource implements ExecutedScriptInfoSource
      * Resets the cached state, for example when the scripts table was modified by another process.
      * The scripts will be reloaded the next time.
      */
-    public void resetCachedState() {
+    public synchronized void resetCachedState() {
         cachedExecutedScripts = null;
+        cachedFileNames = null;
+        cachedChangedAt = null;
+    }
+
+    /**
+     * Adds the given file name to the file names of the known rows, so that the rows that are inserted by this instance
+     * are taken into account when checking for removed rows during a refresh of the cached state.
+     *
+     * @param fileName The file name of the inserted or renamed row, not null
+     */
+    protected synchronized void rememberFileName(String fileName) {
+        if (cachedFileNames != null) {
+            cachedFileNames.add(fileName);
+        }
+    }
+
+    /**
+     * Removes the given file name from the file names of the known rows, so that the removal of its row
+     * is not mistaken for a change made by another process when the cached state is refreshed.
+     *
+     * @param fileName The file name of the removed or renamed row, not null
+     */
+    protected synchronized void forgetFileName(String fileName) {
+        if (cachedFileNames != null) {
+            cachedFileNames.remove(fileName);
+        }
+    }
+
+    /**
+     * The changed at value is the current time in milliseconds, but is increased if needed to make sure that every
+     * change made by this instance gets a higher value than the previous one.
+     *
+     * @return The value for the changed at column of a changed row
+     */
+    protected synchronized long nextChangedAt() {
+        lastAssignedChangedAt = Math.max(currentTimeMillis(), lastAssignedChangedAt + 1);
+        return lastAssignedChangedAt;
     }
 }
@@ -19,11 +19,12 @@ import org.dbmaintain.script.parser.ScriptParser;
 import org.dbmaintain.script.parser.parsingstate.ParsingState;
 import org.dbmaintain.util.DbMaintainException;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Properties;
 
+import static org.dbmaintain.util.CharacterUtils.NO_CHARACTER;
+
 /**
  * A class for parsing statements out of sql scripts.
  * <p>
@@ -32,6 +33,12 @@ import java.util.Properties;
  * <p>
  * This parser also takes quoted literals, double quoted text and in-line (--comment) and block (/ * comment * /)
  * into account when parsing the statements.
+ * <p>
+ * The script is read in blocks into a char buffer and the characters are handled as primitives. The same statement
+ * builder is reused for all statements of the script.
+ * <p>
+ * The parser keeps track of where the returned statement is located in the script, see {@link #getStatementStartOffset()}.
+ * This allows storing the statement boundaries of a script, see {@link StatementIndexCache}.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -39,6 +46,16 @@ import java.util.Properties;
  */
 public class DefaultScriptParser implements ScriptParser {
 
+    /**
+     * The nr of characters that is read from the script at once
+     */
+    protected static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The version of the parser. Increase it when a change to the parser or its parsing states changes the statements
+     * of a script, so that statement indexes created by an older version are no longer used.
+     */
+    public static final int PARSER_VERSION = 1;
 
     /**
      * The reader for the script content stream
@@ -66,9 +83,39 @@ public class DefaultScriptParser implements ScriptParser {
     protected boolean endOfScriptReached = false;
 
     /**
-     * The current parsed character
+     * The current parsed character, NO_CHARACTER if not read yet or if the end of the script is reached
+     */
+    protected int currentChar = NO_CHARACTER, nextChar = NO_CHARACTER;
+
+    /**
+     * The block of characters that was read from the script
+     */
+    protected char[] buffer = new char[BUFFER_SIZE];
+
+    /**
+     * The position of the next character in the buffer and the nr of characters in the buffer
+     */
+    protected int bufferPosition = 0, bufferLength = 0;
+
+    /**
+     * The nr of characters that were read from the script
+     */
+    protected int nrOfCharactersRead = 0;
+
+    /**
+     * The offset in the script of the first character of the statement that is being parsed
      */
-    protected Character currentChar, nextChar;
+    protected int statementStartOffset = 0;
+
+    /**
+     * The offsets in the script of the first character and of the character after the last returned statement
+     */
+    protected int lastStatementStartOffset = 0, lastStatementEndOffset = 0;
+
+    /**
+     * The builder for the statements, reused for every statement. Null if no statement was parsed yet
+     */
+    protected StatementBuilder statementBuilder;
 
 
     /**
@@ -85,7 +132,6 @@ public class DefaultScriptParser implements ScriptParser {
         this.backSlashEscapingEnabled = backSlashEscapingEnabled;
         this.initialParsingState = initialParsingState;
         this.scriptParameters = scriptParameters;
-        this.scriptReader = new BufferedReader(scriptReader);
     }
 
 
@@ -110,14 +156,19 @@ public class DefaultScriptParser implements ScriptParser {
      * @throws IOException if a problem occurs reading the script from the file system
      */
     protected String getNextStatementImpl() throws IOException {
-        StatementBuilder statementBuilder = createStatementBuilder();
-        // Make sure that we read currentChar when we start reading a new script. If not null, currentChar was already
+        if (statementBuilder == null) {
+            statementBuilder = createStatementBuilder();
+        } else {
+            statementBuilder.reset();
+        }
+        // Make sure that we read currentChar when we start reading a new script. If set, currentChar was already
         // set to the first character of the next statement when we read the previous statement.
-        if (currentChar == null) {
+        if (currentChar == NO_CHARACTER) {
             currentChar = readNextCharacter();
         }
+        statementStartOffset = nrOfCharactersRead - 1;
         while (!endOfScriptReached) {
-            if (currentChar == null) {
+            if (currentChar == NO_CHARACTER) {
                 endOfScriptReached = true;
             }
             nextChar = readNextCharacter();
@@ -125,9 +176,12 @@ public class DefaultScriptParser implements ScriptParser {
             currentChar = nextChar;
             if (statementBuilder.isComplete()) {
                 if (statementBuilder.hasExecutableContent()) {
+                    lastStatementStartOffset = statementStartOffset;
+                    lastStatementEndOffset = statementStartOffset + statementBuilder.getStatementLengthInScript();
                     return statementBuilder.buildStatement();
                 }
-                statementBuilder = createStatementBuilder();
+                statementBuilder.reset();
+                statementStartOffset = nrOfCharactersRead - 1;
             }
         }
         if (!statementBuilder.isComplete() && statementBuilder.hasExecutableContent()) {
@@ -136,9 +190,38 @@ public class DefaultScriptParser implements ScriptParser {
         return null;
     }
 
-    protected Character readNextCharacter() throws IOException {
-        int charAsInt = scriptReader.read();
-        return charAsInt == -1 ? null : (char) charAsInt;
+    /**
+     * The returned statement is the content of the script from this offset up to the end offset, with \r\n and \r
+     * replaced by \n and with the script parameters replaced.
+     *
+     * @return The offset in the script of the first character of the last returned statement
+     */
+    public int getStatementStartOffset() {
+        return lastStatementStartOffset;
+    }
+
+    /**
+     * @return The offset in the script of the character after the last returned statement
+     */
+    public int getStatementEndOffset() {
+        return lastStatementEndOffset;
+    }
+
+    /**
+     * @return The next character of the script, NO_CHARACTER if the end of the script is reached
+     * @throws IOException if a problem occurs reading the script
+     */
+    protected int readNextCharacter() throws IOException {
+        if (bufferPosition == bufferLength) {
+            bufferLength = scriptReader.read(buffer, 0, buffer.length);
+            bufferPosition = 0;
+            if (bufferLength <= 0) {
+                bufferLength = 0;
+                return NO_CHARACTER;
+            }
+        }
+        nrOfCharactersRead++;
+        return buffer[bufferPosition++];
     }
 
 
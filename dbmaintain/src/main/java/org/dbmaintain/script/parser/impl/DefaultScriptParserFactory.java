@@ -44,6 +44,21 @@ public class DefaultScriptParserFactory implements ScriptParserFactory {
         return new DefaultScriptParser(scriptReader, createNormalParsingStates(), backSlashEscapingEnabled, scriptParameters);
     }
 
+    /**
+     * Creates a parser that returns the statements at the given offsets in the script, without parsing the script.
+     *
+     * @param scriptContent    The content of the script, not null
+     * @param statementOffsets The start and end offset of each statement, as returned by a script parser of this factory, not null
+     * @return The parser, not null
+     */
+    public ScriptParser createIndexedScriptParser(String scriptContent, int[] statementOffsets) {
+        return new IndexedScriptParser(scriptContent, statementOffsets, scriptParameters);
+    }
+
+    public boolean isBackSlashEscapingEnabled() {
+        return backSlashEscapingEnabled;
+    }
+
 
     /**
      * Creates all the parsing states needed by a script parser when in normal (not stored procedure) state and connects
@@ -0,0 +1,83 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.parser.impl;
+
+import org.dbmaintain.script.parser.ScriptParser;
+
+import java.util.Properties;
+
+import static org.dbmaintain.script.parser.impl.StatementBuilder.replaceScriptParameters;
+
+/**
+ * Script parser that returns the statements at known offsets in the script content instead of parsing the script.
+ * The offsets are the ones of a {@link DefaultScriptParser} for the same content, see {@link StatementIndexCache}.
+ * As with the default parser, \r\n and \r are replaced by \n and the script parameters are replaced.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class IndexedScriptParser implements ScriptParser {
+
+    /* The content of the script */
+    protected String scriptContent;
+    /* The start and end offset of each statement */
+    protected int[] statementOffsets;
+    /* Parameters that must be replaced in the script. Null if there are no such parameters */
+    protected Properties scriptParameters;
+    /* The index in the offsets of the next statement */
+    protected int nextStatementIndex = 0;
+    /* Buffer for the statement, reused for every statement */
+    protected StringBuilder statement = new StringBuilder();
+
+
+    /**
+     * @param scriptContent    The content of the script, not null
+     * @param statementOffsets The start and end offset of each statement, not null
+     * @param scriptParameters Parameters that must be replaced in the script. Null if there are no such parameters
+     */
+    public IndexedScriptParser(String scriptContent, int[] statementOffsets, Properties scriptParameters) {
+        this.scriptContent = scriptContent;
+        this.statementOffsets = statementOffsets;
+        this.scriptParameters = scriptParameters;
+    }
+
+
+    /**
+     * @return The next statement, null if no more statements
+     */
+    public String getNextStatement() {
+        if (nextStatementIndex >= statementOffsets.length) {
+            return null;
+        }
+        int start = statementOffsets[nextStatementIndex];
+        int end = statementOffsets[nextStatementIndex + 1];
+        nextStatementIndex += 2;
+
+        statement.setLength(0);
+        for (int i = start; i < end; i++) {
+            char character = scriptContent.charAt(i);
+            if (character == '\r') {
+                statement.append('\n');
+            } else if (character != '\n' || i == start || scriptContent.charAt(i - 1) != '\r') {
+                statement.append(character);
+            }
+        }
+        if (scriptParameters == null) {
+            return statement.toString();
+        }
+        return replaceScriptParameters(statement, statement.length(), scriptParameters);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.parser.impl;
+
+import org.dbmaintain.script.parser.ScriptParser;
+import org.dbmaintain.util.DbMaintainException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Script parser that parses the statements of another parser in a separate thread, so that parsing the next statements
+ * overlaps with executing the previous ones. The parsed statements are put in a bounded queue: the parser thread waits
+ * when the queue is full, {@link #getNextStatement()} waits when the queue is empty.
+ * <p>
+ * An exception of the parser thread is thrown by {@link #getNextStatement()} once all statements before it were returned.
+ * The parser must be closed after use: this stops the parser thread and waits for it to finish, so that the script
+ * content can be closed safely afterwards.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class PipelinedScriptParser implements ScriptParser, AutoCloseable {
+
+    /* Marks the end of the statements in the queue, compared by reference */
+    private static final String END_OF_SCRIPT = new String();
+
+    /* The parser that is invoked by the parser thread */
+    protected ScriptParser scriptParser;
+    /* The parsed statements that were not returned yet */
+    protected BlockingQueue<String> statements;
+    /* The thread that parses the statements */
+    protected Thread parserThread;
+    /* The exception that was thrown by the parser, null if none */
+    protected volatile Throwable parseException;
+    /* True if the end of the script was reached */
+    protected boolean endOfScriptReached = false;
+
+
+    /**
+     * Creates the parser and starts the parser thread.
+     *
+     * @param scriptParser The parser for the statements, not null
+     * @param queueSize    The maximum nr of parsed statements that are not returned yet, at least 1
+     */
+    public PipelinedScriptParser(ScriptParser scriptParser, int queueSize) {
+        this.scriptParser = scriptParser;
+        this.statements = new ArrayBlockingQueue<>(queueSize);
+        this.parserThread = new Thread(this::parseStatements, "dbmaintain-script-parser");
+        this.parserThread.setDaemon(true);
+        this.parserThread.start();
+    }
+
+
+    /**
+     * @return The next statement, null if no more statements
+     */
+    public String getNextStatement() {
+        if (endOfScriptReached) {
+            return null;
+        }
+        String statement;
+        try {
+            statement = statements.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DbMaintainException("Interrupted while waiting for the next statement of the script.", e);
+        }
+        if (statement != END_OF_SCRIPT) {
+            return statement;
+        }
+        endOfScriptReached = true;
+        if (parseException instanceof RuntimeException) {
+            throw (RuntimeException) parseException;
+        }
+        if (parseException instanceof Error) {
+            throw (Error) parseException;
+        }
+        return null;
+    }
+
+    /**
+     * Stops the parser thread if it is still running and waits for it to finish.
+     */
+    public void close() {
+        parserThread.interrupt();
+        try {
+            parserThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    protected void parseStatements() {
+        try {
+            String statement;
+            while ((statement = scriptParser.getNextStatement()) != null) {
+                statements.put(statement);
+            }
+        } catch (InterruptedException e) {
+            // closed before the end of the script was reached
+            return;
+        } catch (RuntimeException | Error e) {
+            parseException = e;
+        }
+        try {
+            statements.put(END_OF_SCRIPT);
+        } catch (InterruptedException e) {
+            // closed before the end of the script was reached
+        }
+    }
+}
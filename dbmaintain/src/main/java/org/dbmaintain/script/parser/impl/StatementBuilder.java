@@ -18,14 +18,20 @@ package org.dbmaintain.script.parser.impl;
 import org.dbmaintain.script.parser.parsingstate.ParsingState;
 
 import java.util.Properties;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+import static org.dbmaintain.util.CharacterUtils.NO_CHARACTER;
 import static org.dbmaintain.util.CharacterUtils.isNewLineCharacter;
 
 /**
  * Assembles SQL or stored procedure statements by processing characters one by one. It keeps track of the current parsing
  * state and whether the current statement is complete and contains executable content.
+ * <p>
+ * The characters are passed as primitive ints, {@link org.dbmaintain.util.CharacterUtils#NO_CHARACTER} is used when there
+ * is no character. A builder can be reused for the next statement by calling {@link #reset()}, so that its buffers are
+ * only allocated once per script.
+ * <p>
+ * Script parameters, e.g. ${schema}, are only looked for if a ${ was added to the statement. They are then replaced
+ * in a single pass over the statement.
  *
  * @author Stefan Bangels
  * @author Tim Ducheyne
@@ -33,18 +39,25 @@ import static org.dbmaintain.util.CharacterUtils.isNewLineCharacter;
  */
 public class StatementBuilder {
 
-    private static final Character CARRIAGE_RETURN = '\r', NEWLINE = '\n';
+    private static final char CARRIAGE_RETURN = '\r', NEWLINE = '\n';
 
-    private static final Pattern PARAMETER_PATTERN = Pattern.compile("\\$\\{(\\w+)\\}");
+    private static final char PARAMETER_MARKER = '$', PARAMETER_START = '{', PARAMETER_END = '}';
 
-    /* Content of the statement being built */
+    /* Content of the statement being built, including the current line */
     private StringBuilder statement = new StringBuilder();
 
+    /* The index in the statement at which the current line starts */
+    private int currentLineStart = 0;
+
+    /* The nr of characters of the script that were added to the statement and the nr of them before the current line.
+       These are counted before \r\n is replaced by \n, so that the statement can be located in the script */
+    private int lengthInScript = 0, currentLineStartInScript = 0;
+
     /* Parameters that must be replaced in the script. Null if there are no such parameters */
     private Properties scriptParameters;
 
-    /* Content of the current line of the statement being built */
-    private StringBuilder currentLine = new StringBuilder();
+    /* Whether a ${ was added to the statement, i.e. whether it could contain a parameter */
+    private boolean containsParameterStart = false;
 
     /* Content of the statement being built with comments, newlines and unnecessary whitespace left out */
     private StringBuilder statementInUppercaseWithoutCommentsAndWhitespace = new StringBuilder();
@@ -57,11 +70,14 @@ public class StatementBuilder {
        for execution */
     private boolean hasExecutableContent = false;
 
+    /* The state in which a statement starts */
+    private ParsingState initialParsingState;
+
     /* The current state of the statement parser */
     private ParsingState currentParsingState;
 
     /* The previously processed character */
-    private Character previousChar;
+    private int previousChar = NO_CHARACTER;
 
     /**
      * Creates a new instance with the given parsing state as the initial state
@@ -70,12 +86,30 @@ public class StatementBuilder {
      * @param scriptParameters    parameters that must be replaced in the script. Null if there are no such parameters
      */
     public StatementBuilder(ParsingState initialParsingState, Properties scriptParameters) {
-        currentParsingState = initialParsingState;
+        this.initialParsingState = initialParsingState;
+        this.currentParsingState = initialParsingState;
         this.scriptParameters = scriptParameters;
     }
 
 
-    public void addCharacter(Character currentChar, Character nextChar) {
+    /**
+     * Clears the builder so that it can be used to build the next statement, starting from the initial parsing state.
+     */
+    public void reset() {
+        statement.setLength(0);
+        currentLineStart = 0;
+        lengthInScript = 0;
+        currentLineStartInScript = 0;
+        containsParameterStart = false;
+        statementInUppercaseWithoutCommentsAndWhitespace.setLength(0);
+        currentLineHasExecutableContent = false;
+        hasExecutableContent = false;
+        currentParsingState = initialParsingState;
+        previousChar = NO_CHARACTER;
+    }
+
+
+    public void addCharacter(int currentChar, int nextChar) {
         // Fetch the next parsing state from the current one
         HandleNextCharacterResult handleNextCharacterResult = currentParsingState.getNextParsingState(previousChar, currentChar, nextChar, this);
         currentParsingState = handleNextCharacterResult.getNextState();
@@ -86,11 +120,11 @@ public class StatementBuilder {
             currentLineHasExecutableContent = true;
             hasExecutableContent = true;
         }
-        // We assemble the statement content line by line, to make sure we can always efficiently
-        // return the content of the current line
+        // We keep track of where the current line starts, to make sure we can always efficiently
+        // check the content of the current line
         if (currentParsingState != null) {
             appendToCurrentLine(currentChar);
-            if (currentChar == null || isNewLineCharacter(currentChar)) {
+            if (currentChar == NO_CHARACTER || isNewLineCharacter(currentChar)) {
                 flushCurrentLine();
             }
         }
@@ -101,28 +135,35 @@ public class StatementBuilder {
 
 
     protected void flushCurrentLine() {
-        statement.append(currentLine);
-        currentLine = new StringBuilder();
+        currentLineStart = statement.length();
+        currentLineStartInScript = lengthInScript;
         currentLineHasExecutableContent = false;
     }
 
-    protected void appendToCurrentLine(Character currentChar) {
-        if (currentChar == null) {
+    protected void appendToCurrentLine(int currentChar) {
+        if (currentChar != NO_CHARACTER) {
+            lengthInScript++;
+        }
+        if (currentChar == NO_CHARACTER) {
         }
         // Replace \r by \n
-        else if (CARRIAGE_RETURN.equals(currentChar))
-            currentLine.append(NEWLINE);
+        else if (currentChar == CARRIAGE_RETURN)
+            statement.append(NEWLINE);
             // Replace \r\n by \n
-        else if (CARRIAGE_RETURN.equals(previousChar) && NEWLINE.equals(currentChar)) {
+        else if (previousChar == CARRIAGE_RETURN && currentChar == NEWLINE) {
         } // \n was already added when processing the previous character
-        else
-            currentLine.append(currentChar);
+        else {
+            statement.append((char) currentChar);
+            if (currentChar == PARAMETER_START && previousChar == PARAMETER_MARKER) {
+                containsParameterStart = true;
+            }
+        }
     }
 
-    protected void appendToStatementWithoutCommentsAndWhitespace(Character currentChar, HandleNextCharacterResult handleNextCharacterResult) {
+    protected void appendToStatementWithoutCommentsAndWhitespace(int currentChar, HandleNextCharacterResult handleNextCharacterResult) {
         if (handleNextCharacterResult.isExecutable()) {
-            if (currentChar != null) {
-                statementInUppercaseWithoutCommentsAndWhitespace.append(Character.toUpperCase(currentChar));
+            if (currentChar != NO_CHARACTER) {
+                statementInUppercaseWithoutCommentsAndWhitespace.append(Character.toUpperCase((char) currentChar));
             }
         } else {
             if (isWhitespace(currentChar) && statementInUppercaseWithoutCommentsAndWhitespace.length() > 0
@@ -136,12 +177,38 @@ public class StatementBuilder {
         return statement.charAt(statement.length() - 1);
     }
 
-    protected boolean isWhitespace(Character currentChar) {
-        return currentChar != null && Character.isWhitespace(currentChar);
+    protected boolean isWhitespace(int currentChar) {
+        return currentChar != NO_CHARACTER && Character.isWhitespace(currentChar);
     }
 
     public String getCurrentLine() {
-        return currentLine.toString();
+        return statement.substring(currentLineStart);
+    }
+
+    /**
+     * Checks the content of the current line without creating a string for it.
+     *
+     * @param value The value to compare with, without leading or trailing whitespace, not null
+     * @return true if the current line, with leading and trailing whitespace left out, is equal to the given value
+     */
+    public boolean isCurrentLineTrimmedEqualTo(String value) {
+        int start = currentLineStart;
+        int end = statement.length();
+        while (start < end && statement.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && statement.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (statement.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public boolean isComplete() {
@@ -159,30 +226,65 @@ public class StatementBuilder {
      * @return The resulting statement, not null
      */
     public String buildStatement() {
-        if (currentLineHasExecutableContent) flushCurrentLine();
-        if (scriptParameters != null) statement = replaceScriptParameters(statement);
-        return statement.toString();
+        // the current line is only part of the statement if it contains executable content
+        int end = currentLineHasExecutableContent ? statement.length() : currentLineStart;
+        if (scriptParameters == null || !containsParameterStart) {
+            return statement.substring(0, end);
+        }
+        return replaceScriptParameters(statement, end, scriptParameters);
     }
 
     /**
-     * @param statement statement that might contain parameters
+     * @return The nr of characters of the script that make up the resulting statement, without replacing \r\n by \n.
+     *         The statement starts at the first character that was added after the last reset.
+     */
+    public int getStatementLengthInScript() {
+        return currentLineHasExecutableContent ? lengthInScript : currentLineStartInScript;
+    }
+
+    /**
+     * Replaces the parameters, e.g. ${schema}, in the statement by their values. A parameter name consists of letters,
+     * digits and underscores. Parameters without a value are left as they are, the values are inserted literally.
+     *
+     * @param statement        The statement that might contain parameters, not null
+     * @param end              The index at which the statement ends
+     * @param scriptParameters The parameter values, not null
      * @return the statement with the parameters replaced by their corresponding parameter values
      */
-    private StringBuilder replaceScriptParameters(StringBuilder statement) {
-        Matcher parameterMatcher = PARAMETER_PATTERN.matcher(statement);
-        boolean parameterFound = parameterMatcher.find();
-        if (!parameterFound) return statement;
-        StringBuffer result = new StringBuffer();
-        while (parameterFound) {
-            String parameterName = parameterMatcher.group(1);
-            String parameterValue = scriptParameters.getProperty(parameterName);
-            if (parameterValue != null) {
-                parameterMatcher.appendReplacement(result, parameterValue);
+    public static String replaceScriptParameters(CharSequence statement, int end, Properties scriptParameters) {
+        StringBuilder result = null;
+        int copiedUpTo = 0;
+        int index = 0;
+        while (index < end - 1) {
+            if (statement.charAt(index) == PARAMETER_MARKER && statement.charAt(index + 1) == PARAMETER_START) {
+                int nameStart = index + 2;
+                int nameEnd = nameStart;
+                while (nameEnd < end && isParameterNameCharacter(statement.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+                if (nameEnd > nameStart && nameEnd < end && statement.charAt(nameEnd) == PARAMETER_END) {
+                    String parameterValue = scriptParameters.getProperty(statement.subSequence(nameStart, nameEnd).toString());
+                    if (parameterValue != null) {
+                        if (result == null) {
+                            result = new StringBuilder(end + parameterValue.length());
+                        }
+                        result.append(statement, copiedUpTo, index).append(parameterValue);
+                        copiedUpTo = nameEnd + 1;
+                    }
+                    index = nameEnd + 1;
+                    continue;
+                }
             }
-            parameterFound = parameterMatcher.find();
+            index++;
+        }
+        if (result == null) {
+            return statement.subSequence(0, end).toString();
         }
-        parameterMatcher.appendTail(result);
-        return new StringBuilder(result);
+        return result.append(statement, copiedUpTo, end).toString();
+    }
+
+    private static boolean isParameterNameCharacter(char character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || (character >= '0' && character <= '9') || character == '_';
     }
 
     /**
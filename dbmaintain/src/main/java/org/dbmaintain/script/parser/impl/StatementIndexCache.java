@@ -0,0 +1,318 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.parser.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.dbmaintain.script.parser.ScriptParser;
+import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.util.DbMaintainException;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Cache on disk with the statement boundaries of the scripts, so that a script with the same content does not have to
+ * be parsed again. This is useful for repeatable scripts, e.g. views or packages, that are executed again on every
+ * change or from scratch update, possibly for several databases on the same host.
+ * <p>
+ * The index of a script is stored in a file named after the MD5 digest of the script content, the type of the script
+ * parser and the version of the parser. The digest is calculated on the content as it was read, so unlike the check sum of a script, carriage
+ * returns are never ignored. The index contains the start and end offset of every statement in the content. The
+ * statements are then sliced from the content, see {@link IndexedScriptParser}. Script parameters are not part of the
+ * index, they are replaced every time.
+ * <p>
+ * The index is only written when the script was parsed completely without errors. Index files are written to a
+ * temporary file first and then moved, so that several processes can share the same cache directory. An index file
+ * that cannot be read or written is ignored: the script is then parsed as usual.
+ * <p>
+ * Only scripts of at most {@link #DEFAULT_MAX_SCRIPT_LENGTH} characters (or the configured max) are indexed: their
+ * content is held in memory while they are executed. Longer scripts, e.g. large data scripts, are not indexed and are
+ * streamed to the parser as usual.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class StatementIndexCache {
+
+    /* The logger instance for this class */
+    private static Log logger = LogFactory.getLog(StatementIndexCache.class);
+
+    /* The version of the format of the index files, part of the digest so that older files are not used */
+    protected static final int INDEX_FORMAT_VERSION = 1;
+
+    /* The extension of the index files */
+    protected static final String INDEX_FILE_EXTENSION = ".idx";
+
+    /* The default max nr of characters of an indexed script */
+    public static final int DEFAULT_MAX_SCRIPT_LENGTH = 1024 * 1024;
+
+    /* The directory that contains the index files */
+    protected File cacheDirectory;
+    /* The max nr of characters of an indexed script, longer scripts are not indexed */
+    protected int maxScriptLength;
+
+
+    /**
+     * @param cacheDirectory The directory that contains the index files, created if it does not exist, not null
+     */
+    public StatementIndexCache(File cacheDirectory) {
+        this(cacheDirectory, DEFAULT_MAX_SCRIPT_LENGTH);
+    }
+
+    /**
+     * @param cacheDirectory  The directory that contains the index files, created if it does not exist, not null
+     * @param maxScriptLength The max nr of characters of an indexed script, longer scripts are not indexed
+     */
+    public StatementIndexCache(File cacheDirectory, int maxScriptLength) {
+        this.cacheDirectory = cacheDirectory;
+        this.maxScriptLength = maxScriptLength;
+    }
+
+
+    /**
+     * Creates a parser for the given script. If the statement boundaries of the script were stored, the statements are
+     * taken from the content without parsing. Otherwise the script is parsed and the boundaries are stored once all
+     * statements were returned. Scripts that are longer than the max script length are parsed without index.
+     * <p>
+     * Only parsers of a {@link DefaultScriptParserFactory} are indexed, for other factories the parser is returned as is.
+     *
+     * @param scriptReader        The reader for the script content, not null
+     * @param scriptParserFactory The factory for the parser of the script, not null
+     * @return The parser, not null
+     */
+    public ScriptParser createScriptParser(Reader scriptReader, ScriptParserFactory scriptParserFactory) {
+        if (!(scriptParserFactory instanceof DefaultScriptParserFactory)) {
+            return scriptParserFactory.createScriptParser(scriptReader);
+        }
+        DefaultScriptParserFactory defaultScriptParserFactory = (DefaultScriptParserFactory) scriptParserFactory;
+        String scriptContent = readScriptContent(scriptReader, maxScriptLength + 1);
+        if (scriptContent.length() > maxScriptLength) {
+            // the script is too long to hold in memory, the parser continues with the rest of the reader
+            return defaultScriptParserFactory.createScriptParser(new PrefixedReader(scriptContent, scriptReader));
+        }
+        File indexFile = getIndexFile(scriptContent, defaultScriptParserFactory);
+
+        int[] statementOffsets = readStatementOffsets(indexFile, scriptContent.length());
+        if (statementOffsets != null) {
+            logger.debug("Using the statement index " + indexFile.getName() + " instead of parsing the script.");
+            return defaultScriptParserFactory.createIndexedScriptParser(scriptContent, statementOffsets);
+        }
+        ScriptParser scriptParser = defaultScriptParserFactory.createScriptParser(new StringReader(scriptContent));
+        if (!(scriptParser instanceof DefaultScriptParser)) {
+            return scriptParser;
+        }
+        return new IndexWritingScriptParser((DefaultScriptParser) scriptParser, indexFile);
+    }
+
+
+    /**
+     * @param scriptReader The reader for the script content, not null
+     * @param maxLength    The max nr of characters to read, the rest of the content is left in the reader
+     * @return The content that was read, not null
+     */
+    protected String readScriptContent(Reader scriptReader, int maxLength) {
+        try {
+            StringBuilder scriptContent = new StringBuilder();
+            char[] buffer = new char[DefaultScriptParser.BUFFER_SIZE];
+            int nrOfCharactersRead;
+            while (scriptContent.length() < maxLength
+                    && (nrOfCharactersRead = scriptReader.read(buffer, 0, Math.min(buffer.length, maxLength - scriptContent.length()))) != -1) {
+                scriptContent.append(buffer, 0, nrOfCharactersRead);
+            }
+            return scriptContent.toString();
+        } catch (IOException e) {
+            throw new DbMaintainException("Unable to read script content.", e);
+        }
+    }
+
+    protected File getIndexFile(String scriptContent, DefaultScriptParserFactory scriptParserFactory) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            String scriptParserType = scriptParserFactory.getClass().getName() + ";backSlashEscapingEnabled="
+                    + scriptParserFactory.isBackSlashEscapingEnabled() + ";parserVersion=" + DefaultScriptParser.PARSER_VERSION
+                    + ";version=" + INDEX_FORMAT_VERSION + "\n";
+            digest.update(scriptParserType.getBytes(UTF_8));
+            digest.update(scriptContent.getBytes(UTF_8));
+
+            StringBuilder fileName = new StringBuilder();
+            for (byte b : digest.digest()) {
+                fileName.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+            }
+            return new File(cacheDirectory, fileName.append(INDEX_FILE_EXTENSION).toString());
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new DbMaintainException("Unable to calculate digest for script.", e);
+        }
+    }
+
+    /**
+     * @param indexFile           The index file, not null
+     * @param scriptContentLength The nr of characters of the script
+     * @return The start and end offset of each statement, null if there is no valid index file
+     */
+    protected int[] readStatementOffsets(File indexFile, int scriptContentLength) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            int nrOfStatements = inputStream.readInt();
+            if (nrOfStatements < 0 || nrOfStatements > scriptContentLength) {
+                logger.warn("Ignoring invalid statement index " + indexFile + ".");
+                return null;
+            }
+            int[] statementOffsets = new int[2 * nrOfStatements];
+            int previousEnd = 0;
+            for (int i = 0; i < statementOffsets.length; i += 2) {
+                int start = inputStream.readInt();
+                int end = inputStream.readInt();
+                if (start < previousEnd || end < start || end > scriptContentLength) {
+                    logger.warn("Ignoring invalid statement index " + indexFile + ".");
+                    return null;
+                }
+                statementOffsets[i] = start;
+                statementOffsets[i + 1] = end;
+                previousEnd = end;
+            }
+            return statementOffsets;
+
+        } catch (IOException e) {
+            logger.warn("Unable to read statement index " + indexFile + ". The script will be parsed.", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param indexFile        The index file, not null
+     * @param statementOffsets The start and end offset of each statement, not null
+     * @param length           The nr of offsets to write
+     */
+    protected void writeStatementOffsets(File indexFile, int[] statementOffsets, int length) {
+        File tempFile = null;
+        try {
+            Files.createDirectories(cacheDirectory.toPath());
+            tempFile = File.createTempFile(indexFile.getName(), ".tmp", cacheDirectory);
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                outputStream.writeInt(length / 2);
+                for (int i = 0; i < length; i++) {
+                    outputStream.writeInt(statementOffsets[i]);
+                }
+            }
+            try {
+                Files.move(tempFile.toPath(), indexFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), indexFile.toPath(), REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write statement index " + indexFile + ".", e);
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+
+    /**
+     * Reader that first returns the given start of the content and then the rest of the content from the given reader.
+     */
+    protected static class PrefixedReader extends Reader {
+
+        /* The start of the content, null once it was returned */
+        protected String prefix;
+        /* The position in the start of the content */
+        protected int position = 0;
+        /* The reader for the rest of the content */
+        protected Reader reader;
+
+
+        public PrefixedReader(String prefix, Reader reader) {
+            this.prefix = prefix;
+            this.reader = reader;
+        }
+
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (prefix == null) {
+                return reader.read(buffer, offset, length);
+            }
+            int nrOfCharacters = Math.min(length, prefix.length() - position);
+            prefix.getChars(position, position + nrOfCharacters, buffer, offset);
+            position += nrOfCharacters;
+            if (position == prefix.length()) {
+                prefix = null;
+            }
+            return nrOfCharacters;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+
+    /**
+     * Parser that keeps track of the offsets of the statements of a default parser and writes them to the index file
+     * when the end of the script is reached.
+     */
+    protected class IndexWritingScriptParser implements ScriptParser {
+
+        /* The parser of the script */
+        protected DefaultScriptParser scriptParser;
+        /* The file to which the index is written */
+        protected File indexFile;
+        /* The start and end offset of each statement that was returned */
+        protected int[] statementOffsets = new int[64];
+        /* The nr of offsets that were stored */
+        protected int length = 0;
+        /* True if the end of the script was reached */
+        protected boolean endOfScriptReached = false;
+
+
+        public IndexWritingScriptParser(DefaultScriptParser scriptParser, File indexFile) {
+            this.scriptParser = scriptParser;
+            this.indexFile = indexFile;
+        }
+
+
+        public String getNextStatement() {
+            if (endOfScriptReached) {
+                return null;
+            }
+            String statement = scriptParser.getNextStatement();
+            if (statement == null) {
+                endOfScriptReached = true;
+                writeStatementOffsets(indexFile, statementOffsets, length);
+                return null;
+            }
+            if (length + 2 > statementOffsets.length) {
+                statementOffsets = Arrays.copyOf(statementOffsets, 2 * statementOffsets.length);
+            }
+            statementOffsets[length++] = scriptParser.getStatementStartOffset();
+            statementOffsets[length++] = scriptParser.getStatementEndOffset();
+            return statement;
+        }
+    }
+}
@@ -29,14 +29,15 @@ public interface ParsingState {
 
 
     /**
-     * Calculates the next parsing state from the given characters and the statement being built
+     * Calculates the next parsing state from the given characters and the statement being built. The characters are
+     * passed as primitive ints, {@link org.dbmaintain.util.CharacterUtils#NO_CHARACTER} is used when there is no character.
      *
-     * @param previousChar     the previous char, null if none
-     * @param currentChar      the current char
-     * @param nextChar         the next char, null if none
+     * @param previousChar     the previous char, NO_CHARACTER if none
+     * @param currentChar      the current char, NO_CHARACTER if the end of the script is reached
+     * @param nextChar         the next char, NO_CHARACTER if none
      * @param statementBuilder The statement builder, not null
      * @return the next parsing state, null if the end of the statement is reached
      */
-    HandleNextCharacterResult getNextParsingState(Character previousChar, Character currentChar, Character nextChar, StatementBuilder statementBuilder);
+    HandleNextCharacterResult getNextParsingState(int previousChar, int currentChar, int nextChar, StatementBuilder statementBuilder);
 
 }
\ No newline at end of file
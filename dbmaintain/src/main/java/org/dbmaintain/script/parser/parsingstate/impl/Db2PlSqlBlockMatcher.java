@@ -15,20 +15,15 @@
  */
 package org.dbmaintain.script.parser.parsingstate.impl;
 
-import org.dbmaintain.script.parser.parsingstate.PlSqlBlockMatcher;
-
-import java.util.regex.Pattern;
-
 /**
  * @author Tim Ducheyne
  * @author Filip Neven
  */
-public class Db2PlSqlBlockMatcher implements PlSqlBlockMatcher {
-
-    private static final Pattern PL_SQL_PATTERN = Pattern.compile("^(CREATE (OR REPLACE )?(FUNCTION|PROCEDURE|TRIGGER|TYPE)|BEGIN)");
+public class Db2PlSqlBlockMatcher extends KeywordPlSqlBlockMatcher {
 
-    public boolean isStartOfPlSqlBlock(StringBuilder statementWithoutCommentsOrWhitespace) {
-        return PL_SQL_PATTERN.matcher(statementWithoutCommentsOrWhitespace).matches();
+    public Db2PlSqlBlockMatcher() {
+        super("BEGIN");
+        addCreateBlockStarts(true, "FUNCTION", "PROCEDURE", "TRIGGER", "TYPE");
     }
 
 }
\ No newline at end of file
@@ -41,7 +41,7 @@ public class EscapingParsingState implements ParsingState {
     }
 
 
-    public HandleNextCharacterResult getNextParsingState(Character previousChar, Character currentChar, Character nextChar, StatementBuilder statementBuilder) {
+    public HandleNextCharacterResult getNextParsingState(int previousChar, int currentChar, int nextChar, StatementBuilder statementBuilder) {
         return backToNormalResult;
     }
 }
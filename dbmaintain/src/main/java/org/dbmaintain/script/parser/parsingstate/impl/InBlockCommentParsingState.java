@@ -27,8 +27,8 @@ import org.dbmaintain.script.parser.parsingstate.ParsingState;
  */
 public class InBlockCommentParsingState implements ParsingState {
 
-    private static final Character SLASH = '/';
-    private static final Character ASTERIX = '*';
+    private static final char SLASH = '/';
+    private static final char ASTERIX = '*';
 
     /**
      * The normal parsing state, that should be returned when the comment end is reached.
@@ -52,13 +52,13 @@ public class InBlockCommentParsingState implements ParsingState {
      * Determines whether the end of the block comment is reached.
      * If that is the case, the normal parsing state is returned.
      *
-     * @param previousChar     The previous char, null if none
+     * @param previousChar     The previous char, NO_CHARACTER if none
      * @param currentChar      The current char
-     * @param nextChar         The next char, null if none
+     * @param nextChar         The next char, NO_CHARACTER if none
      * @param statementBuilder The statement builder, not null
      * @return The next parsing state, null if the end of the statement is reached
      */
-    public HandleNextCharacterResult getNextParsingState(Character previousChar, Character currentChar, Character nextChar, StatementBuilder statementBuilder) {
+    public HandleNextCharacterResult getNextParsingState(int previousChar, int currentChar, int nextChar, StatementBuilder statementBuilder) {
         if (isEndOfBlockComment(previousChar, currentChar)) {
             return backToNormalResult;
         }
@@ -66,12 +66,12 @@ public class InBlockCommentParsingState implements ParsingState {
     }
 
     /**
-     * @param previousChar The previous char, null if none
+     * @param previousChar The previous char, NO_CHARACTER if none
      * @param currentChar  The current char
      * @return true if the given previous and current character indicate the end of the block comment
      */
-    protected boolean isEndOfBlockComment(Character previousChar, Character currentChar) {
-        return ASTERIX.equals(previousChar) && SLASH.equals(currentChar);
+    protected boolean isEndOfBlockComment(int previousChar, int currentChar) {
+        return previousChar == ASTERIX && currentChar == SLASH;
     }
 
 }
\ No newline at end of file
@@ -27,7 +27,7 @@ import org.dbmaintain.script.parser.parsingstate.ParsingState;
  */
 public class InCurlyBraceBlockCommentParsingState implements ParsingState {
 
-    private static final Character RIGHT_CURLY_BRACE = '}';
+    private static final char RIGHT_CURLY_BRACE = '}';
 
     /**
      * The normal parsing state, that should be returned when the comment end is reached.
@@ -51,13 +51,13 @@ public class InCurlyBraceBlockCommentParsingState implements ParsingState {
      * Determines whether the end of the block comment is reached.
      * If that is the case, the normal parsing state is returned.
      *
-     * @param previousChar     The previous char, null if none
+     * @param previousChar     The previous char, NO_CHARACTER if none
      * @param currentChar      The current char
-     * @param nextChar         The next char, null if none
+     * @param nextChar         The next char, NO_CHARACTER if none
      * @param statementBuilder The statement builder, not null
      * @return The next parsing state, null if the end of the statement is reached
      */
-    public HandleNextCharacterResult getNextParsingState(Character previousChar, Character currentChar, Character nextChar, StatementBuilder statementBuilder) {
+    public HandleNextCharacterResult getNextParsingState(int previousChar, int currentChar, int nextChar, StatementBuilder statementBuilder) {
         if (isEndOfBlockComment(currentChar)) {
             return backToNormalResult;
         }
@@ -68,7 +68,7 @@ public class InCurlyBraceBlockCommentParsingState implements ParsingState {
      * @param currentChar The current char
      * @return true if the given previous and current character indicate the end of the block comment
      */
-    protected boolean isEndOfBlockComment(Character currentChar) {
-        return RIGHT_CURLY_BRACE.equals(currentChar);
+    protected boolean isEndOfBlockComment(int currentChar) {
+        return currentChar == RIGHT_CURLY_BRACE;
     }
 }
@@ -27,8 +27,8 @@ import org.dbmaintain.script.parser.parsingstate.ParsingState;
  */
 public class InDoubleQuotesParsingState implements ParsingState {
 
-    private static final Character DOUBLE_QUOTE = '"';
-    private static final Character BACKSLASH = '\\';
+    private static final char DOUBLE_QUOTE = '"';
+    private static final char BACKSLASH = '\\';
 
     /* Determines whether backslashes can be used to escape characters, e.g. \" for a double quote (= "") */
     protected boolean backSlashEscapingEnabled;
@@ -65,30 +65,30 @@ public class InDoubleQuotesParsingState implements ParsingState {
      * Determines whether the end of the literal is reached.
      * If that is the case, the normal parsing state is returned.
      *
-     * @param previousChar     The previous char, null if none
+     * @param previousChar     The previous char, NO_CHARACTER if none
      * @param currentChar      The current char
-     * @param nextChar         The next char, null if none
+     * @param nextChar         The next char, NO_CHARACTER if none
      * @param statementBuilder The statement builder, not null
      * @return The next parsing state, null if the end of the statement is reached
      */
-    public HandleNextCharacterResult getNextParsingState(Character previousChar, Character currentChar, Character nextChar, StatementBuilder statementBuilder) {
+    public HandleNextCharacterResult getNextParsingState(int previousChar, int currentChar, int nextChar, StatementBuilder statementBuilder) {
         // escape current character
         if (escaping) {
             escaping = false;
             return stayInDoubleQuotesStateResult;
         }
         // check for escaped double quotes
-        if (DOUBLE_QUOTE.equals(currentChar) && DOUBLE_QUOTE.equals(nextChar)) {
+        if (currentChar == DOUBLE_QUOTE && nextChar == DOUBLE_QUOTE) {
             escaping = true;
             return stayInDoubleQuotesStateResult;
         }
         // check for escaped characters
-        if (BACKSLASH.equals(currentChar) && backSlashEscapingEnabled) {
+        if (currentChar == BACKSLASH && backSlashEscapingEnabled) {
             escaping = true;
             return stayInDoubleQuotesStateResult;
         }
         // check for ending quote
-        if (DOUBLE_QUOTE.equals(currentChar)) {
+        if (currentChar == DOUBLE_QUOTE) {
             return backToNormalResult;
         }
         return stayInDoubleQuotesStateResult;
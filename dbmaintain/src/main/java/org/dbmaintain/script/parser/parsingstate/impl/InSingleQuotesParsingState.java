@@ -27,8 +27,8 @@ import org.dbmaintain.script.parser.parsingstate.ParsingState;
  */
 public class InSingleQuotesParsingState implements ParsingState {
 
-    private static final Character SINGLE_QUOTE = '\'';
-    private static final Character BACKSLASH = '\\';
+    private static final char SINGLE_QUOTE = '\'';
+    private static final char BACKSLASH = '\\';
 
     /* Determines whether backslashes can be used to escape characters, e.g. \' for a single quote (= '') */
     protected boolean backSlashEscapingEnabled;
@@ -65,30 +65,30 @@ public class InSingleQuotesParsingState implements ParsingState {
      * Determines whether the end of the literal is reached.
      * If that is the case, the normal parsing state is returned.
      *
-     * @param previousChar     The previous char, null if none
+     * @param previousChar     The previous char, NO_CHARACTER if none
      * @param currentChar      The current char
-     * @param nextChar         The next char, null if none
+     * @param nextChar         The next char, NO_CHARACTER if none
      * @param statementBuilder The statement builder, not null
      * @return The next parsing state, null if the end of the statement is reached
      */
-    public HandleNextCharacterResult getNextParsingState(Character previousChar, Character currentChar, Character nextChar, StatementBuilder statementBuilder) {
+    public HandleNextCharacterResult getNextParsingState(int previousChar, int currentChar, int nextChar, StatementBuilder statementBuilder) {
         // escape current character
         if (escaping) {
             escaping = false;
             return stayInSingleQuotesStateResult;
         }
         // check for escaped single quotes
-        if (SINGLE_QUOTE.equals(currentChar) && SINGLE_QUOTE.equals(nextChar)) {
+        if (currentChar == SINGLE_QUOTE && nextChar == SINGLE_QUOTE) {
             escaping = true;
             return stayInSingleQuotesStateResult;
         }
         // check escaped characters
-        if (BACKSLASH.equals(currentChar) && backSlashEscapingEnabled) {
+        if (currentChar == BACKSLASH && backSlashEscapingEnabled) {
             escaping = true;
             return stayInSingleQuotesStateResult;
         }
         // check for ending quote
-        if (SINGLE_QUOTE.equals(currentChar)) {
+        if (currentChar == SINGLE_QUOTE) {
             return backToNormalResult;
         }
         return stayInSingleQuotesStateResult;
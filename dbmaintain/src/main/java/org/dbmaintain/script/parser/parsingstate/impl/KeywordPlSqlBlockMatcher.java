@@ -0,0 +1,130 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.parser.parsingstate.impl;
+
+import org.dbmaintain.script.parser.parsingstate.PlSqlBlockMatcher;
+
+/**
+ * Pl-sql block matcher that matches a fixed set of block starts, e.g. CREATE OR REPLACE PACKAGE or BEGIN.
+ * <p>
+ * The matcher is invoked for every whitespace character of a statement, so it must not look at the whole statement.
+ * The block starts are kept in a keyword trie: a statement that is longer than the longest block start is rejected
+ * immediately, a shorter one is only compared with the block starts that share its first characters.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class KeywordPlSqlBlockMatcher implements PlSqlBlockMatcher {
+
+    /* The root of the trie with the block starts */
+    protected KeywordNode rootNode = new KeywordNode();
+    /* The length of the longest block start */
+    protected int maxBlockStartLength = 0;
+
+
+    /**
+     * @param blockStarts The block starts in uppercase, separated by single spaces, e.g. DECLARE, not null
+     */
+    public KeywordPlSqlBlockMatcher(String... blockStarts) {
+        for (String blockStart : blockStarts) {
+            addBlockStart(blockStart);
+        }
+    }
+
+
+    public boolean isStartOfPlSqlBlock(StringBuilder statementWithoutCommentsOrWhitespace) {
+        int length = statementWithoutCommentsOrWhitespace.length();
+        if (length > maxBlockStartLength) {
+            return false;
+        }
+        KeywordNode node = rootNode;
+        for (int i = 0; i < length && node != null; i++) {
+            node = node.getChildNode(statementWithoutCommentsOrWhitespace.charAt(i));
+        }
+        return node != null && node.blockStart;
+    }
+
+
+    /**
+     * @param blockStart The block start in uppercase, separated by single spaces, e.g. DECLARE, not null
+     */
+    protected void addBlockStart(String blockStart) {
+        KeywordNode node = rootNode;
+        for (int i = 0; i < blockStart.length(); i++) {
+            node = node.getOrAddChildNode(blockStart.charAt(i));
+        }
+        node.blockStart = true;
+        maxBlockStartLength = Math.max(maxBlockStartLength, blockStart.length());
+    }
+
+    /**
+     * Adds the block starts CREATE objectType and, if allowed, CREATE OR REPLACE objectType for all given object types.
+     *
+     * @param orReplaceAllowed True if CREATE OR REPLACE is also a block start
+     * @param objectTypes      The object types in uppercase, e.g. PROCEDURE, not null
+     */
+    protected void addCreateBlockStarts(boolean orReplaceAllowed, String... objectTypes) {
+        for (String objectType : objectTypes) {
+            addBlockStart("CREATE " + objectType);
+            if (orReplaceAllowed) {
+                addBlockStart("CREATE OR REPLACE " + objectType);
+            }
+        }
+    }
+
+
+    /**
+     * A node of the trie: the characters that can follow and, for each character, the node of the next character.
+     * There are only a few block starts, so the characters are searched linearly.
+     */
+    protected static class KeywordNode {
+
+        /* The characters that can follow */
+        protected char[] characters = new char[0];
+        /* The node for each character that can follow */
+        protected KeywordNode[] childNodes = new KeywordNode[0];
+        /* True if the characters up to this node form a block start */
+        protected boolean blockStart = false;
+
+
+        protected KeywordNode getChildNode(char character) {
+            for (int i = 0; i < characters.length; i++) {
+                if (characters[i] == character) {
+                    return childNodes[i];
+                }
+            }
+            return null;
+        }
+
+        protected KeywordNode getOrAddChildNode(char character) {
+            KeywordNode childNode = getChildNode(character);
+            if (childNode != null) {
+                return childNode;
+            }
+            int nrOfCharacters = characters.length;
+            char[] newCharacters = new char[nrOfCharacters + 1];
+            KeywordNode[] newChildNodes = new KeywordNode[nrOfCharacters + 1];
+            System.arraycopy(characters, 0, newCharacters, 0, nrOfCharacters);
+            System.arraycopy(childNodes, 0, newChildNodes, 0, nrOfCharacters);
+            childNode = new KeywordNode();
+            newCharacters[nrOfCharacters] = character;
+            newChildNodes[nrOfCharacters] = childNode;
+            characters = newCharacters;
+            childNodes = newChildNodes;
+            return childNode;
+        }
+    }
+}
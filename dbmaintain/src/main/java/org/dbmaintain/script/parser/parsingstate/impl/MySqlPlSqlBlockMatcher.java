@@ -15,21 +15,68 @@
  */
 package org.dbmaintain.script.parser.parsingstate.impl;
 
-import org.dbmaintain.script.parser.parsingstate.PlSqlBlockMatcher;
-
-import java.util.regex.Pattern;
-
 /**
+ * The definer of a create statement can be anything, e.g. CREATE DEFINER=`user`@`host` PROCEDURE, so these
+ * statements are matched on their start and their last keyword instead of by the keyword trie.
+ *
  * @author Ken Dombeck
  * @author Tim Ducheyne
  * @author Filip Neven
  */
-public class MySqlPlSqlBlockMatcher implements PlSqlBlockMatcher {
+public class MySqlPlSqlBlockMatcher extends KeywordPlSqlBlockMatcher {
+
+    /* The start of a create statement with a definer, e.g. CREATE DEFINER=`user`@`host` PROCEDURE */
+    protected static final String CREATE_DEFINER = "CREATE DEFINER=";
+    /* The object types that start a block */
+    protected static final String[] OBJECT_TYPES = {"FUNCTION", "PROCEDURE", "TRIGGER"};
+
+
+    public MySqlPlSqlBlockMatcher() {
+        super("BEGIN");
+        addCreateBlockStarts(false, OBJECT_TYPES);
+    }
 
-    private static final Pattern PL_SQL_PATTERN = Pattern.compile("^(CREATE (DEFINER=.*)?(FUNCTION|PROCEDURE|TRIGGER)|BEGIN)");
 
+    @Override
     public boolean isStartOfPlSqlBlock(StringBuilder statementWithoutCommentsOrWhitespace) {
-        return PL_SQL_PATTERN.matcher(statementWithoutCommentsOrWhitespace).matches();
+        if (super.isStartOfPlSqlBlock(statementWithoutCommentsOrWhitespace)) {
+            return true;
+        }
+        if (!startsWith(statementWithoutCommentsOrWhitespace, CREATE_DEFINER)) {
+            return false;
+        }
+        for (String objectType : OBJECT_TYPES) {
+            if (endsWith(statementWithoutCommentsOrWhitespace, objectType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    protected boolean startsWith(StringBuilder statement, String start) {
+        if (statement.length() < start.length()) {
+            return false;
+        }
+        for (int i = 0; i < start.length(); i++) {
+            if (statement.charAt(i) != start.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected boolean endsWith(StringBuilder statement, String objectType) {
+        int offset = statement.length() - objectType.length();
+        if (offset < CREATE_DEFINER.length()) {
+            return false;
+        }
+        for (int i = 0; i < objectType.length(); i++) {
+            if (statement.charAt(offset + i) != objectType.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
 }
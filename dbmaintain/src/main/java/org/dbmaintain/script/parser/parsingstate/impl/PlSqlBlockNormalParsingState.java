@@ -17,6 +17,7 @@ package org.dbmaintain.script.parser.parsingstate.impl;
 
 import org.dbmaintain.script.parser.impl.StatementBuilder;
 
+import static org.dbmaintain.util.CharacterUtils.NO_CHARACTER;
 import static org.dbmaintain.util.CharacterUtils.isNewLineCharacter;
 
 /**
@@ -30,12 +31,12 @@ public class PlSqlBlockNormalParsingState extends BaseNormalParsingState {
     }
 
 
-    protected boolean isStatementSeparator(Character currentChar) {
-        return SLASH.equals(currentChar);
+    protected boolean isStatementSeparator(int currentChar) {
+        return currentChar == SLASH;
     }
 
-    protected boolean isEndOfStatement(Character previousChar, Character currentChar, StatementBuilder statementBuilder) {
-        return (currentChar == null || isNewLineCharacter(currentChar)) && statementBuilder.getCurrentLine().trim().equals("/");
+    protected boolean isEndOfStatement(int previousChar, int currentChar, StatementBuilder statementBuilder) {
+        return (currentChar == NO_CHARACTER || isNewLineCharacter(currentChar)) && statementBuilder.isCurrentLineTrimmedEqualTo("/");
     }
 
 }
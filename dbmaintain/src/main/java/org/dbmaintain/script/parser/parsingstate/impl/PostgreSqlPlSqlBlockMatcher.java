@@ -15,20 +15,16 @@
  */
 package org.dbmaintain.script.parser.parsingstate.impl;
 
-import org.dbmaintain.script.parser.parsingstate.PlSqlBlockMatcher;
-
-import java.util.regex.Pattern;
-
 /**
  * @author Sean Laurent
  * @author Filip Neven
  * @author Tim Ducheyne
  */
-public class PostgreSqlPlSqlBlockMatcher implements PlSqlBlockMatcher {
+public class PostgreSqlPlSqlBlockMatcher extends KeywordPlSqlBlockMatcher {
 
-    private static final Pattern PL_SQL_PATTERN = Pattern.compile("^(CREATE (OR REPLACE )?(FUNCTION|RULE)|BEGIN)");
-
-    public boolean isStartOfPlSqlBlock(StringBuilder statementWithoutCommentsOrWhitespace) {
-        return PL_SQL_PATTERN.matcher(statementWithoutCommentsOrWhitespace).matches();
+    public PostgreSqlPlSqlBlockMatcher() {
+        super("BEGIN");
+        addCreateBlockStarts(true, "FUNCTION", "RULE");
     }
+
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.repository;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.dbmaintain.script.Script;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk cache of the check sums of the scripts of a script location. Check sums are keyed on the relative file name,
+ * the size and the last modification time of the script, so that the content of a script only needs to be read when
+ * one of these has changed.
+ * <p>
+ * The cache is stored as a compact binary file in the cache directory. Every script location gets its own cache file.
+ * The cache file is only rewritten when new check sums were calculated or scripts were removed.
+ * <p>
+ * File systems only store modification times with a limited granularity (up to 2 seconds, e.g. for FAT). A script that
+ * is edited again within that window, without its size changing, keeps the same modification time. Check sums are
+ * therefore only cached for scripts that were last modified at least {@link #MODIFICATION_TIME_GRANULARITY} millis
+ * before they were registered, i.e. before their content could have been read: any later edit will then get a
+ * different modification time.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ScriptCheckSumCache {
+
+    /* The logger instance for this class */
+    private static Log logger = LogFactory.getLog(ScriptCheckSumCache.class);
+
+    /* Identifies a check sum cache file */
+    private static final int MAGIC_NUMBER = 0xDB5C0001;
+
+    /* The largest granularity of file modification times, in millis, that is taken into account */
+    public static final long MODIFICATION_TIME_GRANULARITY = 2000;
+
+    /* The file in which the check sums are stored */
+    private File cacheFile;
+    /* The check sums as read from the cache file */
+    private Map<String, Entry> cachedEntries = new ConcurrentHashMap<>();
+    /* The scripts of the location, with their size */
+    private Map<String, RegisteredScript> registeredScripts = new ConcurrentHashMap<>();
+
+
+    /**
+     * Creates a cache for the given script location. The cache file is read immediately, if it exists.
+     *
+     * @param cacheDirectory     The directory in which the cache files are stored, not null
+     * @param scriptLocationName The name of the script location, not null
+     * @param ignoreCarriageReturnsWhenCalculatingCheckSum
+     *                           If true, carriage return chars are ignored when calculating check sums
+     */
+    public ScriptCheckSumCache(File cacheDirectory, String scriptLocationName, boolean ignoreCarriageReturnsWhenCalculatingCheckSum) {
+        this.cacheFile = new File(cacheDirectory, getCacheFileName(scriptLocationName, ignoreCarriageReturnsWhenCalculatingCheckSum));
+        readCacheFile();
+    }
+
+
+    /**
+     * @param fileName           The relative name of the script, not null
+     * @param size               The size of the script in bytes
+     * @param fileLastModifiedAt The last modification time of the script
+     * @return The cached check sum, null if there is no check sum for this version of the script
+     */
+    public String getCheckSum(String fileName, long size, long fileLastModifiedAt) {
+        Entry entry = cachedEntries.get(fileName);
+        if (entry == null || entry.size != size || entry.fileLastModifiedAt != fileLastModifiedAt) {
+            return null;
+        }
+        return entry.checkSum;
+    }
+
+    /**
+     * Registers a script of the location. When the cache is stored, the check sums of all registered scripts for which
+     * a check sum is available are written to the cache file. Scripts that were not registered are removed from the cache.
+     * Scripts need to be registered before their content is read: if the script was modified too shortly before it was
+     * registered, its check sum will not be cached.
+     *
+     * @param script The script, not null
+     * @param size   The size of the script in bytes
+     */
+    public void registerScript(Script script, long size) {
+        registeredScripts.put(script.getFileName(), new RegisteredScript(script, size, System.currentTimeMillis()));
+    }
+
+    /**
+     * Writes the check sums of the registered scripts to the cache file, if they differ from the ones that were read.
+     * Problems writing the file are logged but otherwise ignored: the cache will then simply be rebuilt during a next run.
+     */
+    public void store() {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        for (RegisteredScript registeredScript : registeredScripts.values()) {
+            Script script = registeredScript.script;
+            if (script.isCheckSumCalculated() && registeredScript.isCacheable()) {
+                entries.put(script.getFileName(), new Entry(registeredScript.size, script.getFileLastModifiedAt(), script.getCheckSum()));
+            }
+        }
+        if (entries.equals(cachedEntries)) {
+            return;
+        }
+        try {
+            writeCacheFile(entries);
+            cachedEntries = entries;
+        } catch (IOException e) {
+            logger.warn("Unable to write script check sum cache " + cacheFile + ". Check sums will be recalculated during the next run.", e);
+        }
+    }
+
+    /**
+     * @return The cache file, not null
+     */
+    public File getCacheFile() {
+        return cacheFile;
+    }
+
+
+    protected void readCacheFile() {
+        if (!cacheFile.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC_NUMBER) {
+                logger.warn("Ignoring script check sum cache " + cacheFile + ": not a check sum cache file.");
+                return;
+            }
+            int nrOfEntries = in.readInt();
+            for (int i = 0; i < nrOfEntries; i++) {
+                String fileName = in.readUTF();
+                long size = in.readLong();
+                long fileLastModifiedAt = in.readLong();
+                String checkSum = in.readUTF();
+                cachedEntries.put(fileName, new Entry(size, fileLastModifiedAt, checkSum));
+            }
+        } catch (IOException e) {
+            logger.warn("Ignoring script check sum cache " + cacheFile + ": the file could not be read.", e);
+            cachedEntries.clear();
+        }
+    }
+
+    protected void writeCacheFile(Map<String, Entry> entries) throws IOException {
+        File cacheDirectory = cacheFile.getParentFile();
+        if (!cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+            throw new IOException("Unable to create directory " + cacheDirectory);
+        }
+        // write to a unique temporary file first, so that an interrupted write never leaves a corrupt cache file
+        // behind and runs that share the cache file do not overwrite each other's temporary file
+        File tempFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheDirectory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(MAGIC_NUMBER);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().size);
+                    out.writeLong(entry.getValue().fileLastModifiedAt);
+                    out.writeUTF(entry.getValue().checkSum);
+                }
+            }
+            try {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    protected String getCacheFileName(String scriptLocationName, boolean ignoreCarriageReturnsWhenCalculatingCheckSum) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            digest.update(scriptLocationName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) (ignoreCarriageReturnsWhenCalculatingCheckSum ? 1 : 0));
+            StringBuilder fileName = new StringBuilder("dbmaintain-checksums-");
+            for (byte b : digest.digest()) {
+                fileName.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+            }
+            return fileName.append(".cache").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    /**
+     * A cached check sum, together with the size and last modification time of the script it was calculated for.
+     */
+    protected static class Entry {
+
+        private final long size;
+        private final long fileLastModifiedAt;
+        private final String checkSum;
+
+        protected Entry(long size, long fileLastModifiedAt, String checkSum) {
+            this.size = size;
+            this.fileLastModifiedAt = fileLastModifiedAt;
+            this.checkSum = checkSum;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) object;
+            return size == other.size && fileLastModifiedAt == other.fileLastModifiedAt && checkSum.equals(other.checkSum);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * checkSum.hashCode() + (int) (size ^ fileLastModifiedAt);
+        }
+    }
+
+    private static class RegisteredScript {
+
+        private final Script script;
+        private final long size;
+        private final long registeredAt;
+
+        private RegisteredScript(Script script, long size, long registeredAt) {
+            this.script = script;
+            this.size = size;
+            this.registeredAt = registeredAt;
+        }
+
+        private boolean isCacheable() {
+            return registeredAt - script.getFileLastModifiedAt() >= MODIFICATION_TIME_GRANULARITY;
+        }
+    }
+}
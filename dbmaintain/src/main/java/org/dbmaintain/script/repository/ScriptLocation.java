@@ -58,6 +58,8 @@ abstract public class ScriptLocation {
     /* If true, carriage return chars will be ignored when calculating check sums */
     protected boolean ignoreCarriageReturnsWhenCalculatingCheckSum;
     protected ScriptFactory scriptFactory;
+    /* Cache with the check sums of the scripts of a previous run, null if check sums are not cached */
+    protected ScriptCheckSumCache checkSumCache;
 
 
     /**
@@ -99,6 +101,15 @@ abstract public class ScriptLocation {
                              Set<Qualifier> defaultRegisteredQualifiers, Set<Qualifier> defaultPatchQualifiers, String defaultScriptIndexRegexp, String defaultQualifierRegexp,
                              String defaultTargetDatabaseRegexp, Set<String> defaultScriptFileExtensions, ScriptIndexes defaultBaseLineRevision,
                              boolean ignoreCarriageReturnsWhenCalculatingCheckSum) {
+        this(scriptLocation, defaultScriptEncoding, defaultPreProcessingScriptDirName, defaultPostProcessingScriptDirName, defaultRegisteredQualifiers,
+                defaultPatchQualifiers, defaultScriptIndexRegexp, defaultQualifierRegexp, defaultTargetDatabaseRegexp, defaultScriptFileExtensions,
+                defaultBaseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum, null);
+    }
+
+    protected ScriptLocation(File scriptLocation, String defaultScriptEncoding, String defaultPreProcessingScriptDirName, String defaultPostProcessingScriptDirName,
+                             Set<Qualifier> defaultRegisteredQualifiers, Set<Qualifier> defaultPatchQualifiers, String defaultScriptIndexRegexp, String defaultQualifierRegexp,
+                             String defaultTargetDatabaseRegexp, Set<String> defaultScriptFileExtensions, ScriptIndexes defaultBaseLineRevision,
+                             boolean ignoreCarriageReturnsWhenCalculatingCheckSum, File checkSumCacheDirectory) {
         assertValidScriptLocation(scriptLocation);
 
         this.scriptEncoding = defaultScriptEncoding;
@@ -118,6 +129,7 @@ abstract public class ScriptLocation {
 
         this.scriptLocationName = scriptLocation.getAbsolutePath();
         this.scriptFactory = createScriptFactory();
+        this.checkSumCache = createCheckSumCache(checkSumCacheDirectory);
         this.scripts = loadScripts(scriptLocation);
     }
 
@@ -176,6 +188,16 @@ abstract public class ScriptLocation {
         return scriptFileExtensions;
     }
 
+    /**
+     * Stores the check sums that were calculated for the scripts of this location in the check sum cache, so that they
+     * don't need to be calculated again during a next run. Does nothing if check sums are not cached.
+     */
+    public void storeCheckSumCache() {
+        if (checkSumCache != null) {
+            checkSumCache.store();
+        }
+    }
+
     /**
      * @return The scripts from this location as a sorted set
      */
@@ -275,4 +297,35 @@ abstract public class ScriptLocation {
     protected Script createScript(String fileName, Long fileLastModifiedAt, ScriptContentHandle scriptContentHandle) {
         return scriptFactory.createScriptWithContent(fileName, fileLastModifiedAt, scriptContentHandle);
     }
+
+    /**
+     * Creates a script for which the check sum is looked up in the check sum cache first. If the cache contains a check sum for
+     * this file name, size and modification time, the content is not read to calculate the check sum.
+     *
+     * @param fileName            The relative name of the script, not null
+     * @param size                The size of the script in bytes
+     * @param fileLastModifiedAt  The time when the script was last modified (in ms), not null
+     * @param scriptContentHandle Handle providing access to the contents of the script, not null
+     * @return The script, not null
+     */
+    protected Script createScript(String fileName, long size, Long fileLastModifiedAt, ScriptContentHandle scriptContentHandle) {
+        if (checkSumCache == null) {
+            return createScript(fileName, fileLastModifiedAt, scriptContentHandle);
+        }
+        String checkSum = checkSumCache.getCheckSum(fileName, size, fileLastModifiedAt);
+        Script script = scriptFactory.createScriptWithContent(fileName, fileLastModifiedAt, checkSum, scriptContentHandle);
+        checkSumCache.registerScript(script, size);
+        return script;
+    }
+
+    /**
+     * @param checkSumCacheDirectory The directory in which check sums are cached, null if check sums are not cached
+     * @return The check sum cache for this location, null if check sums are not cached
+     */
+    protected ScriptCheckSumCache createCheckSumCache(File checkSumCacheDirectory) {
+        if (checkSumCacheDirectory == null) {
+            return null;
+        }
+        return new ScriptCheckSumCache(checkSumCacheDirectory, scriptLocationName, ignoreCarriageReturnsWhenCalculatingCheckSum);
+    }
 }
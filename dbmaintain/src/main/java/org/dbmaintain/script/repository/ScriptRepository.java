@@ -16,12 +16,16 @@
 package org.dbmaintain.script.repository;
 
 import org.dbmaintain.script.Script;
+import org.dbmaintain.script.executedscriptinfo.ScriptIndexes;
 import org.dbmaintain.script.qualifier.QualifierEvaluator;
 import org.dbmaintain.util.DbMaintainException;
 
 import java.util.*;
 
 /**
+ * Repository of all scripts of the script locations. The scripts are indexed once, when the repository is created:
+ * the returned script sets are unmodifiable views that are not rebuilt on every call.
+ *
  * @author Filip Neven
  * @author Tim Ducheyne
  * @since 16-dec-2008
@@ -32,15 +36,34 @@ public class ScriptRepository {
     protected SortedSet<Script> repeatableScripts = new TreeSet<>();
     protected SortedSet<Script> preProcessingScripts = new TreeSet<>();
     protected SortedSet<Script> postProcessingScripts = new TreeSet<>();
+    protected SortedSet<Script> allUpdateScripts;
+    protected SortedSet<Script> allScripts;
+
+    /* All scripts, indexed by file name */
+    protected Map<String, Script> scriptsByFileName = new HashMap<>();
+    /* The indexed scripts, indexed by script index */
+    protected Map<ScriptIndexes, Script> indexedScriptsByScriptIndexes = new HashMap<>();
 
+    protected Set<ScriptLocation> scriptLocations;
     protected QualifierEvaluator qualifierEvaluator;
 
 
     public ScriptRepository(Set<ScriptLocation> scriptLocations, QualifierEvaluator qualifierEvaluator) {
+        this.scriptLocations = scriptLocations;
         this.qualifierEvaluator = qualifierEvaluator;
         initScripts(scriptLocations);
     }
 
+    /**
+     * Stores the check sums that were calculated for the scripts in the check sum caches of the script locations, so
+     * that they don't need to be calculated again during a next run.
+     */
+    public void storeCheckSumCaches() {
+        for (ScriptLocation scriptLocation : scriptLocations) {
+            scriptLocation.storeCheckSumCache();
+        }
+    }
+
     public boolean areScriptsAvailable() {
         return indexedScripts.size() > 0 || repeatableScripts.size() > 0 || preProcessingScripts.size() > 0 || postProcessingScripts.size() > 0;
     }
@@ -54,9 +77,6 @@ public class ScriptRepository {
     }
 
     public SortedSet<Script> getAllUpdateScripts() {
-        SortedSet<Script> allUpdateScripts = new TreeSet<>();
-        allUpdateScripts.addAll(indexedScripts);
-        allUpdateScripts.addAll(repeatableScripts);
         return allUpdateScripts;
     }
 
@@ -69,14 +89,25 @@ public class ScriptRepository {
     }
 
     public SortedSet<Script> getAllScripts() {
-        SortedSet<Script> allScripts = new TreeSet<>();
-        allScripts.addAll(preProcessingScripts);
-        allScripts.addAll(indexedScripts);
-        allScripts.addAll(repeatableScripts);
-        allScripts.addAll(postProcessingScripts);
         return allScripts;
     }
 
+    /**
+     * @param fileName The file name of the script, not null
+     * @return The script with the given file name, null if there is no such script
+     */
+    public Script getScript(String fileName) {
+        return scriptsByFileName.get(fileName);
+    }
+
+    /**
+     * @param scriptIndexes The index of the script, not null
+     * @return The indexed script with the given index, null if there is no such script
+     */
+    public Script getScript(ScriptIndexes scriptIndexes) {
+        return indexedScriptsByScriptIndexes.get(scriptIndexes);
+    }
+
     protected void initScripts(Set<ScriptLocation> scriptLocations) {
         assertNoDuplicateScripts(scriptLocations);
 
@@ -88,6 +119,28 @@ public class ScriptRepository {
             }
         }
         assertNoDuplicateScriptIndexes();
+        initScriptViews();
+    }
+
+    protected void initScriptViews() {
+        SortedSet<Script> allUpdateScripts = new TreeSet<>(indexedScripts);
+        allUpdateScripts.addAll(repeatableScripts);
+        SortedSet<Script> allScripts = new TreeSet<>(allUpdateScripts);
+        allScripts.addAll(preProcessingScripts);
+        allScripts.addAll(postProcessingScripts);
+        for (Script script : allScripts) {
+            scriptsByFileName.put(script.getFileName(), script);
+        }
+        for (Script script : indexedScripts) {
+            indexedScriptsByScriptIndexes.put(script.getScriptIndexes(), script);
+        }
+
+        this.indexedScripts = Collections.unmodifiableSortedSet(indexedScripts);
+        this.repeatableScripts = Collections.unmodifiableSortedSet(repeatableScripts);
+        this.preProcessingScripts = Collections.unmodifiableSortedSet(preProcessingScripts);
+        this.postProcessingScripts = Collections.unmodifiableSortedSet(postProcessingScripts);
+        this.allUpdateScripts = Collections.unmodifiableSortedSet(allUpdateScripts);
+        this.allScripts = Collections.unmodifiableSortedSet(allScripts);
     }
 
     private void initScript(Script script) {
@@ -122,15 +175,20 @@ public class ScriptRepository {
     }
 
 
+    /**
+     * Asserts that no script is found in more than one location. The check is done in a single pass over all scripts,
+     * using the file names as key.
+     *
+     * @param scriptLocations The script locations, not null
+     */
     protected void assertNoDuplicateScripts(Set<ScriptLocation> scriptLocations) {
-        Set<DuplicateScript> duplicateScripts = new HashSet<>();
-        List<ScriptLocation> scriptLocationList = new ArrayList<>(scriptLocations);
-        for (int i = 0; i < scriptLocationList.size() - 1; i++) {
-            for (Script script : scriptLocationList.get(i).getScripts()) {
-                for (int j = i + 1; j < scriptLocationList.size(); j++) {
-                    if (scriptLocationList.get(j).getScripts().contains(script)) {
-                        duplicateScripts.add(new DuplicateScript(script, scriptLocationList.get(i), scriptLocationList.get(j)));
-                    }
+        List<DuplicateScript> duplicateScripts = new ArrayList<>();
+        Map<String, ScriptLocation> scriptLocationsByFileName = new HashMap<>();
+        for (ScriptLocation scriptLocation : scriptLocations) {
+            for (Script script : scriptLocation.getScripts()) {
+                ScriptLocation firstScriptLocation = scriptLocationsByFileName.putIfAbsent(script.getFileName(), scriptLocation);
+                if (firstScriptLocation != null) {
+                    duplicateScripts.add(new DuplicateScript(script, firstScriptLocation, scriptLocation));
                 }
             }
         }
@@ -28,20 +28,33 @@ import org.dbmaintain.util.WriterOutputStream;
 import java.io.*;
 import java.util.*;
 import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 
 import static org.dbmaintain.config.DbMaintainProperties.*;
 
 /**
- * Script container that reads all scripts from a jar file
+ * Script container that reads all scripts from a jar file.
+ * <p>
+ * The jar file is closed again as soon as the scripts are loaded: it is not kept open (and locked, on Windows) during
+ * the rest of the run. The content of a script is not read while loading. It is only read when it is needed, e.g. when
+ * the check sum is neither stored in the jar file nor cached, or when the script is executed.
  *
  * @author Filip Neven
  * @author Tim Ducheyne
  */
 public class ArchiveScriptLocation extends ScriptLocation {
 
+    /**
+     * Name of the archive entry containing the check sums of the scripts, as calculated when the archive was created
+     */
+    public static final String CHECK_SUMS_FILENAME = "META-INF/dbmaintain-checksums.properties";
+
+    /* The opened archive, null if not opened or closed. Not initialized in the declaration: it is already set while the super constructor loads the scripts */
+    private ScriptArchive scriptArchive;
+
+
     /**
      * Creates a new instance of the {@link ArchiveScriptLocation}, while there is no jar file available yet.
      * This constructor can be used to initialize the container while the scripts are still on the file system,
@@ -92,7 +105,34 @@ public class ArchiveScriptLocation extends ScriptLocation {
                                  Set<Qualifier> defaultRegisteredQualifiers, Set<Qualifier> defaultPatchQualifiers, String defaultScriptIndexRegexp, String defaultQualifierRegexp,
                                  String defaultTargetDatabaseRegexp, Set<String> defaultScriptFileExtensions, ScriptIndexes baseLineRevision,
                                  boolean ignoreCarriageReturnsWhenCalculatingCheckSum) {
-        super(jarLocation, defaultScriptEncoding, defaultPreProcessingScriptDirName, defaultPostProcessingScriptDirName, defaultRegisteredQualifiers, defaultPatchQualifiers, defaultScriptIndexRegexp, defaultQualifierRegexp, defaultTargetDatabaseRegexp, defaultScriptFileExtensions, baseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum);
+        this(jarLocation, defaultScriptEncoding, defaultPreProcessingScriptDirName, defaultPostProcessingScriptDirName, defaultRegisteredQualifiers, defaultPatchQualifiers, defaultScriptIndexRegexp, defaultQualifierRegexp, defaultTargetDatabaseRegexp, defaultScriptFileExtensions, baseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum, null);
+    }
+
+    /**
+     * Creates a new instance based on the contents of the given jar file, caching the check sums of the scripts in the given directory.
+     *
+     * @param jarLocation                 the jar file
+     * @param defaultScriptEncoding       the default script encoding
+     * @param defaultPreProcessingScriptDirName
+     *                                    the default preprocessing dir name
+     * @param defaultPostProcessingScriptDirName
+     *                                    the default postprocessing dir name
+     * @param defaultRegisteredQualifiers the default registered (allowed) qualifiers
+     * @param defaultPatchQualifiers      the default patch qualifiers
+     * @param defaultScriptIndexRegexp    the default script index regexp
+     * @param defaultQualifierRegexp      the default qualifier regexp
+     * @param defaultTargetDatabaseRegexp the default target database regexp
+     * @param defaultScriptFileExtensions the default script file extensions
+     * @param baseLineRevision            The baseline revision. If set, all scripts with a lower revision will be ignored
+     * @param ignoreCarriageReturnsWhenCalculatingCheckSum
+     *                                    If true, carriage return chars will be ignored when calculating check sums
+     * @param checkSumCacheDirectory      The directory in which the check sums of the scripts are cached, null to not cache check sums
+     */
+    public ArchiveScriptLocation(File jarLocation, String defaultScriptEncoding, String defaultPreProcessingScriptDirName, String defaultPostProcessingScriptDirName,
+                                 Set<Qualifier> defaultRegisteredQualifiers, Set<Qualifier> defaultPatchQualifiers, String defaultScriptIndexRegexp, String defaultQualifierRegexp,
+                                 String defaultTargetDatabaseRegexp, Set<String> defaultScriptFileExtensions, ScriptIndexes baseLineRevision,
+                                 boolean ignoreCarriageReturnsWhenCalculatingCheckSum, File checkSumCacheDirectory) {
+        super(jarLocation, defaultScriptEncoding, defaultPreProcessingScriptDirName, defaultPostProcessingScriptDirName, defaultRegisteredQualifiers, defaultPatchQualifiers, defaultScriptIndexRegexp, defaultQualifierRegexp, defaultTargetDatabaseRegexp, defaultScriptFileExtensions, baseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum, checkSumCacheDirectory);
     }
 
 
@@ -116,43 +156,87 @@ public class ArchiveScriptLocation extends ScriptLocation {
     protected SortedSet<Script> loadScripts(File scriptLocation) {
         String subPath = getJarSubPath(scriptLocation);
 
-        JarFile jarFile = createJarFile(scriptLocation);
-        return loadScriptsFromJar(jarFile, subPath);
+        try {
+            ScriptArchive scriptArchive = getScriptArchive(scriptLocation);
+            return loadScriptsFromArchive(scriptArchive, subPath);
+        } finally {
+            closeScriptArchive();
+        }
     }
 
-    protected SortedSet<Script> loadScriptsFromJar(final JarFile jarFile, String subPath) {
+    protected SortedSet<Script> loadScriptsFromArchive(ScriptArchive scriptArchive, String subPath) {
+        Properties checkSums = getCheckSums(scriptArchive);
         SortedSet<Script> scripts = new TreeSet<>();
-        for (Enumeration<JarEntry> jarEntries = jarFile.entries(); jarEntries.hasMoreElements();) {
-            final JarEntry jarEntry = jarEntries.nextElement();
-            String fileName = jarEntry.getName();
-            if (LOCATION_PROPERTIES_FILENAME.equals(fileName) || !isScriptFileName(fileName)) {
+        for (ZipEntry entry : scriptArchive.getEntries()) {
+            String fileName = entry.getName();
+            if (entry.isDirectory() || LOCATION_PROPERTIES_FILENAME.equals(fileName) || CHECK_SUMS_FILENAME.equals(fileName) || !isScriptFileName(fileName)) {
                 continue;
             }
 
-            String relativeScriptName = jarEntry.getName();
+            String relativeScriptName = fileName;
             if (subPath != null) {
                 if (!fileName.startsWith(subPath)) {
                     continue;
                 }
                 relativeScriptName = relativeScriptName.substring(subPath.length());
             }
-            ScriptContentHandle scriptContentHandle = new ScriptContentHandle(scriptEncoding, ignoreCarriageReturnsWhenCalculatingCheckSum) {
-                @Override
-                protected InputStream getScriptInputStream() {
-                    try {
-                        return jarFile.getInputStream(jarEntry);
-                    } catch (IOException e) {
-                        throw new DbMaintainException("Error while reading jar entry " + jarEntry, e);
-                    }
-                }
-            };
-            Long fileLastModifiedAt = jarEntry.getTime();
-            Script script = scriptFactory.createScriptWithContent(relativeScriptName, fileLastModifiedAt, scriptContentHandle);
+            ScriptContentHandle scriptContentHandle = new ArchiveEntryScriptContentHandle(scriptArchive.getArchiveFile(), entry, scriptEncoding, ignoreCarriageReturnsWhenCalculatingCheckSum);
+            String checkSum = getCheckSum(checkSums, entry);
+            Script script;
+            if (checkSum != null) {
+                script = scriptFactory.createScriptWithContent(relativeScriptName, entry.getTime(), checkSum, scriptContentHandle);
+            } else {
+                script = createScript(relativeScriptName, entry.getSize(), entry.getTime(), scriptContentHandle);
+            }
             scripts.add(script);
         }
         return scripts;
     }
 
+    /**
+     * Reads the check sums that were stored in the archive when it was created.
+     *
+     * @param scriptArchive The archive, not null
+     * @return The check sum values per entry name, empty if the archive contains no (usable) check sums
+     */
+    protected Properties getCheckSums(ScriptArchive scriptArchive) {
+        Properties checkSums = new Properties();
+        ZipEntry checkSumsEntry = scriptArchive.getEntry(CHECK_SUMS_FILENAME);
+        if (checkSumsEntry == null) {
+            return checkSums;
+        }
+        try (InputStream checkSumsInputStream = scriptArchive.getInputStream(checkSumsEntry)) {
+            checkSums.load(checkSumsInputStream);
+        } catch (IOException e) {
+            throw new DbMaintainException("Error while reading check sums file " + CHECK_SUMS_FILENAME + " from jar file " + scriptLocationName, e);
+        }
+        // check sums that were calculated with another carriage return setting cannot be used
+        if (!Boolean.toString(ignoreCarriageReturnsWhenCalculatingCheckSum).equals(checkSums.getProperty(PROPERTY_IGNORE_CARRIAGE_RETURN_WHEN_CALCULATING_CHECK_SUM))) {
+            checkSums.clear();
+        }
+        return checkSums;
+    }
+
+    /**
+     * Gets the stored check sum of the given entry. The check sum is only trusted if the size and CRC that were stored with it
+     * match the ones of the entry in the central directory, i.e. if the content was not changed after the archive was created.
+     *
+     * @param checkSums The stored check sums, not null
+     * @param entry     The archive entry, not null
+     * @return The check sum, null if not available
+     */
+    protected String getCheckSum(Properties checkSums, ZipEntry entry) {
+        String checkSumValue = checkSums.getProperty(entry.getName());
+        if (checkSumValue == null) {
+            return null;
+        }
+        String[] parts = checkSumValue.split(",");
+        if (parts.length != 3 || !parts[0].equals(Long.toString(entry.getSize())) || !parts[1].equals(Long.toHexString(entry.getCrc()))) {
+            return null;
+        }
+        return parts[2];
+    }
+
 
     protected String toQualifiersPropertyValue(Set<Qualifier> qualifiers) {
         StringBuilder propertyValue = new StringBuilder();
@@ -171,19 +255,23 @@ public class ArchiveScriptLocation extends ScriptLocation {
      */
     @Override
     protected Properties getCustomProperties(File scriptLocation) {
-        JarFile jarFile = createJarFile(scriptLocation);
-        ZipEntry configurationEntry = jarFile.getEntry(LOCATION_PROPERTIES_FILENAME);
+        ScriptArchive scriptArchive = getScriptArchive(scriptLocation);
+        ZipEntry configurationEntry = scriptArchive.getEntry(LOCATION_PROPERTIES_FILENAME);
         if (configurationEntry == null) {
             // no custom config found in meta-inf folder, skipping
             return null;
         }
         Properties configuration = new Properties();
 
-        try (InputStream configurationInputStream = jarFile.getInputStream(configurationEntry)) {
+        try (InputStream configurationInputStream = scriptArchive.getInputStream(configurationEntry)) {
             configuration.load(configurationInputStream);
             return configuration;
         } catch (IOException e) {
+            closeScriptArchive();
             throw new DbMaintainException("Error while reading configuration file " + LOCATION_PROPERTIES_FILENAME + " from jar file " + scriptLocation, e);
+        } catch (RuntimeException e) {
+            closeScriptArchive();
+            throw e;
         }
     }
 
@@ -211,11 +299,19 @@ public class ArchiveScriptLocation extends ScriptLocation {
             Reader propertiesAsFile = getPropertiesAsFile(getJarProperties());
             writeJarEntry(jarOutputStream, LOCATION_PROPERTIES_FILENAME, System.currentTimeMillis(), propertiesAsFile);
             propertiesAsFile.close();
+            Properties checkSums = new Properties();
+            checkSums.put(PROPERTY_IGNORE_CARRIAGE_RETURN_WHEN_CALCULATING_CHECK_SUM, Boolean.toString(ignoreCarriageReturnsWhenCalculatingCheckSum));
             for (Script script : getScripts()) {
+                byte[] scriptContent;
                 try(Reader scriptContentReader = script.getScriptContentHandle().openScriptContentReader()) {
-                    writeJarEntry(jarOutputStream, script.getFileName(), script.getFileLastModifiedAt(), scriptContentReader);
+                    scriptContent = IOUtils.toByteArray(scriptContentReader, scriptEncoding);
                 }
+                writeJarEntry(jarOutputStream, script.getFileName(), script.getFileLastModifiedAt(), scriptContent);
+                checkSums.put(script.getFileName(), getCheckSumValue(scriptContent));
             }
+            Reader checkSumsAsFile = getPropertiesAsFile(checkSums);
+            writeJarEntry(jarOutputStream, CHECK_SUMS_FILENAME, System.currentTimeMillis(), checkSumsAsFile);
+            checkSumsAsFile.close();
         } catch (IOException e) {
             throw new DbMaintainException("Error while writing archive file " + jarFile, e);
         }
@@ -260,12 +356,65 @@ public class ArchiveScriptLocation extends ScriptLocation {
         jarOutputStream.closeEntry();
     }
 
-    protected JarFile createJarFile(File jarFile) {
-        try {
-            File jarFileWithoutSubPath = getJarFileWithoutSubPath(jarFile);
-            return new JarFile(jarFileWithoutSubPath);
-        } catch (IOException e) {
-            throw new DbMaintainException("Error opening jar file " + jarFile, e);
+    /**
+     * Writes the entry with the given name and content to the given {@link JarOutputStream}
+     *
+     * @param jarOutputStream {@link OutputStream} to the jar file
+     * @param name            Name of the jar file entry
+     * @param timestamp       Last modification date of the entry
+     * @param entryContent    The content of the jar entry
+     * @throws IOException In case of disk IO problems
+     */
+    protected void writeJarEntry(JarOutputStream jarOutputStream, String name, long timestamp, byte[] entryContent) throws IOException {
+        JarEntry jarEntry = new JarEntry(name);
+        jarEntry.setTime(timestamp);
+        jarOutputStream.putNextEntry(jarEntry);
+        jarOutputStream.write(entryContent);
+        jarOutputStream.closeEntry();
+    }
+
+    /**
+     * Calculates the value that is stored in the check sums file for a script: the size, the CRC and the check sum of
+     * the content as it is written in the archive.
+     *
+     * @param scriptContent The content of the script in the archive, not null
+     * @return The check sum value, not null
+     */
+    protected String getCheckSumValue(final byte[] scriptContent) {
+        CRC32 crc = new CRC32();
+        crc.update(scriptContent);
+        ScriptContentHandle scriptContentHandle = new ScriptContentHandle(scriptEncoding, ignoreCarriageReturnsWhenCalculatingCheckSum) {
+            @Override
+            protected InputStream getScriptInputStream() {
+                return new ByteArrayInputStream(scriptContent);
+            }
+        };
+        return scriptContent.length + "," + Long.toHexString(crc.getValue()) + "," + scriptContentHandle.getCheckSum();
+    }
+
+    /**
+     * Opens the archive of the given location. The archive is only opened once: the central directory that is read
+     * when the custom properties are loaded is reused for loading the scripts. The archive is closed by
+     * {@link #closeScriptArchive()} once the scripts are loaded.
+     *
+     * @param jarFile The location of the jar file, possibly with a sub path, not null
+     * @return The archive, not null
+     */
+    protected ScriptArchive getScriptArchive(File jarFile) {
+        if (scriptArchive == null) {
+            scriptArchive = new ScriptArchive(getJarFileWithoutSubPath(jarFile));
+        }
+        return scriptArchive;
+    }
+
+    /**
+     * Closes the archive, if it is open.
+     */
+    protected void closeScriptArchive() {
+        if (scriptArchive != null) {
+            ScriptArchive openedScriptArchive = scriptArchive;
+            scriptArchive = null;
+            openedScriptArchive.close();
         }
     }
 
@@ -305,4 +454,58 @@ public class ArchiveScriptLocation extends ScriptLocation {
         return new File(jarFilePath.substring(0, index));
     }
 
+
+    /**
+     * Handle to the content of a script in an archive. Only the name of the entry is kept. Each time the content is
+     * needed, the archive is opened again and the entry is looked up by name. The archive is closed when the content
+     * stream is closed. Stored (uncompressed) entries are read directly from the file, without inflating.
+     */
+    protected static class ArchiveEntryScriptContentHandle extends ScriptContentHandle {
+
+        /* The archive file, without sub path */
+        private File archiveFile;
+        /* The name of the entry in the archive */
+        private String entryName;
+        /* The uncompressed size of the entry, -1 if not known */
+        private long size;
+
+        protected ArchiveEntryScriptContentHandle(File archiveFile, ZipEntry entry, String encoding, boolean ignoreCarriageReturnsWhenCalculatingCheckSum) {
+            super(encoding, ignoreCarriageReturnsWhenCalculatingCheckSum);
+            this.archiveFile = archiveFile;
+            this.entryName = entry.getName();
+            this.size = entry.getSize();
+        }
+
+        @Override
+        protected InputStream getScriptInputStream() {
+            ScriptArchive scriptArchive = new ScriptArchive(archiveFile);
+            try {
+                ZipEntry entry = scriptArchive.getEntry(entryName);
+                if (entry == null) {
+                    throw new DbMaintainException("Entry " + entryName + " not found in archive file " + archiveFile);
+                }
+                return new FilterInputStream(scriptArchive.getInputStream(entry)) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            scriptArchive.close();
+                        }
+                    }
+                };
+            } catch (RuntimeException e) {
+                scriptArchive.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @return The uncompressed size of the entry as stored in the central directory, null if not known
+         */
+        @Override
+        public Long getScriptSize() {
+            return size < 0 ? null : size;
+        }
+    }
 }
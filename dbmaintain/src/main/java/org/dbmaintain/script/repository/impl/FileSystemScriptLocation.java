@@ -21,16 +21,19 @@ import org.dbmaintain.script.executedscriptinfo.ScriptIndexes;
 import org.dbmaintain.script.qualifier.Qualifier;
 import org.dbmaintain.script.repository.ScriptLocation;
 import org.dbmaintain.util.DbMaintainException;
-import org.dbmaintain.util.FileUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Properties;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Script container that looks for scripts in a file system directory and its subdirectories. The
@@ -64,7 +67,32 @@ public class FileSystemScriptLocation extends ScriptLocation {
      */
     public FileSystemScriptLocation(File scriptLocation, String defaultScriptEncoding, String defaultPreProcessingScriptDirName, String defaultPostProcessingScriptDirName, Set<Qualifier> defaultRegisteredQualifiers, Set<Qualifier> defaultPatchQualifiers, String defaultScriptIndexRegexp, String defaultQualifierRegexp,
                                     String defaultTargetDatabaseRegexp, Set<String> defaultScriptFileExtensions, ScriptIndexes baseLineRevision, boolean ignoreCarriageReturnsWhenCalculatingCheckSum) {
-        super(scriptLocation, defaultScriptEncoding, defaultPreProcessingScriptDirName, defaultPostProcessingScriptDirName, defaultRegisteredQualifiers, defaultPatchQualifiers, defaultScriptIndexRegexp, defaultQualifierRegexp, defaultTargetDatabaseRegexp, defaultScriptFileExtensions, baseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum);
+        this(scriptLocation, defaultScriptEncoding, defaultPreProcessingScriptDirName, defaultPostProcessingScriptDirName, defaultRegisteredQualifiers, defaultPatchQualifiers, defaultScriptIndexRegexp, defaultQualifierRegexp, defaultTargetDatabaseRegexp, defaultScriptFileExtensions, baseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum, null);
+    }
+
+    /**
+     * Constructor for FileSystemScriptLocation that caches the check sums of the scripts in the given directory.
+     *
+     * @param scriptLocation              The file system directory that is the root of this script location
+     * @param defaultScriptEncoding       The default script encoding. Only used if not overridden in {@link #LOCATION_PROPERTIES_FILENAME}.
+     * @param defaultPreProcessingScriptDirName
+     *                   The default preprocessing script dir name. Only used if not overridden in {@link #LOCATION_PROPERTIES_FILENAME}.
+     * @param defaultPostProcessingScriptDirName
+     *                                    The default postprocessing script dir name. Only used if not overridden in {@link #LOCATION_PROPERTIES_FILENAME}.
+     * @param defaultRegisteredQualifiers The default registered qualifiers
+     * @param defaultPatchQualifiers      The default qualfiers that indicate a patch file. Only used if not overridden in {@link #LOCATION_PROPERTIES_FILENAME}.
+     * @param defaultScriptIndexRegexp    The default script index regexp. Only used if not overridden in {@link #LOCATION_PROPERTIES_FILENAME}.
+     * @param defaultQualifierRegexp      The default qualifier regexp. Only used if not overridden in {@link #LOCATION_PROPERTIES_FILENAME}.
+     * @param defaultTargetDatabaseRegexp The default target database regexp. Only used if not overridden in {@link #LOCATION_PROPERTIES_FILENAME}.
+     * @param defaultScriptFileExtensions The default script extensions. Only used if not overridden in {@link #LOCATION_PROPERTIES_FILENAME}.
+     * @param baseLineRevision            The baseline revision. If set, all scripts with a lower revision will be ignored
+     * @param ignoreCarriageReturnsWhenCalculatingCheckSum
+     *                                    If true, carriage return chars will be ignored when calculating check sums
+     * @param checkSumCacheDirectory      The directory in which the check sums of the scripts are cached, null to not cache check sums
+     */
+    public FileSystemScriptLocation(File scriptLocation, String defaultScriptEncoding, String defaultPreProcessingScriptDirName, String defaultPostProcessingScriptDirName, Set<Qualifier> defaultRegisteredQualifiers, Set<Qualifier> defaultPatchQualifiers, String defaultScriptIndexRegexp, String defaultQualifierRegexp,
+                                    String defaultTargetDatabaseRegexp, Set<String> defaultScriptFileExtensions, ScriptIndexes baseLineRevision, boolean ignoreCarriageReturnsWhenCalculatingCheckSum, File checkSumCacheDirectory) {
+        super(scriptLocation, defaultScriptEncoding, defaultPreProcessingScriptDirName, defaultPostProcessingScriptDirName, defaultRegisteredQualifiers, defaultPatchQualifiers, defaultScriptIndexRegexp, defaultQualifierRegexp, defaultTargetDatabaseRegexp, defaultScriptFileExtensions, baseLineRevision, ignoreCarriageReturnsWhenCalculatingCheckSum, checkSumCacheDirectory);
     }
 
 
@@ -105,33 +133,48 @@ public class FileSystemScriptLocation extends ScriptLocation {
      * @return all available scripts, loaded from the file system
      */
     protected SortedSet<Script> loadScripts(File scriptLocation) {
-        SortedSet<Script> scripts = new TreeSet<>();
-        getScriptsAt(scripts, scriptLocation.getAbsolutePath(), "");
-        return scripts;
+        Path scriptRoot = scriptLocation.getAbsoluteFile().toPath();
+        Queue<Script> scripts = new ConcurrentLinkedQueue<>();
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            forkJoinPool.invoke(new ScanDirectoryTask(scripts, scriptRoot, ""));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+        return new TreeSet<>(scripts);
     }
 
 
     /**
-     * Adds all scripts available in the given directory or one of its subdirectories to the given set of files. Recursively
-     * invokes itself to handle subdirectories.
+     * Adds all scripts available in the given directory to the given collection of scripts. The attributes of every
+     * entry are read only once. Subdirectories are scanned concurrently, by forking a new task for each of them.
      *
-     * @param scripts          aggregates the scripts found up until now during recursion.
-     * @param scriptRoot       the root script directory
-     * @param relativeLocation the subdirectory in which we are now looking for scripts
+     * @param scripts          aggregates the scripts found up until now, not null
+     * @param directory        the directory in which we are now looking for scripts, not null
+     * @param relativeLocation the path of the directory relative to the root scripts dir, empty for the root itself
+     * @return the tasks that were forked to scan the subdirectories, not null
      */
-    protected void getScriptsAt(SortedSet<Script> scripts, String scriptRoot, String relativeLocation) {
-        File currentLocation = new File(scriptRoot + "/" + relativeLocation);
-        if (currentLocation.isFile() && isScriptFileName(currentLocation.getName())) {
-            Script script = createScript(currentLocation, relativeLocation);
-            scripts.add(script);
-            return;
-        }
-        // recursively scan sub folders for script files
-        if (currentLocation.isDirectory()) {
-            for (File subLocation : currentLocation.listFiles()) {
-                getScriptsAt(scripts, scriptRoot, "".equals(relativeLocation) ? subLocation.getName() : relativeLocation + '/' + subLocation.getName());
+    protected List<ScanDirectoryTask> scanDirectory(Queue<Script> scripts, Path directory, String relativeLocation) {
+        List<ScanDirectoryTask> subDirectoryTasks = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+            for (Path subLocation : directoryStream) {
+                String fileName = subLocation.getFileName().toString();
+                String relativeSubLocation = "".equals(relativeLocation) ? fileName : relativeLocation + '/' + fileName;
+
+                BasicFileAttributes attributes = Files.readAttributes(subLocation, BasicFileAttributes.class);
+                if (attributes.isDirectory()) {
+                    ScanDirectoryTask subDirectoryTask = new ScanDirectoryTask(scripts, subLocation, relativeSubLocation);
+                    subDirectoryTask.fork();
+                    subDirectoryTasks.add(subDirectoryTask);
+                } else if (attributes.isRegularFile() && isScriptFileName(fileName)) {
+                    scripts.add(createScript(subLocation.toFile(), relativeSubLocation, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                }
             }
+        } catch (IOException e) {
+            throw new DbMaintainException("Error while looking for scripts in directory " + directory, e);
         }
+        return subDirectoryTasks;
     }
 
     /**
@@ -142,9 +185,46 @@ public class FileSystemScriptLocation extends ScriptLocation {
      * @return The script, not null
      */
     protected Script createScript(File scriptFile, String relativeScriptFileName) {
-        Long fileLastModifiedAt = scriptFile.lastModified();
-        ScriptContentHandle scriptContentHandle = new ScriptContentHandle.UrlScriptContentHandle(FileUtils.getUrl(scriptFile), scriptEncoding, ignoreCarriageReturnsWhenCalculatingCheckSum);
-        return scriptFactory.createScriptWithContent(relativeScriptFileName, fileLastModifiedAt, scriptContentHandle);
+        return createScript(scriptFile, relativeScriptFileName, scriptFile.length(), scriptFile.lastModified());
+    }
+
+    /**
+     * Creates a script object for the given script file
+     *
+     * @param scriptFile             the script file, not null
+     * @param relativeScriptFileName the name of the script file relative to the root scripts dir, not null
+     * @param size                   the size of the script file in bytes
+     * @param fileLastModifiedAt     the time the script file was last modified (in ms)
+     * @return The script, not null
+     */
+    protected Script createScript(File scriptFile, String relativeScriptFileName, long size, long fileLastModifiedAt) {
+        ScriptContentHandle scriptContentHandle = new ScriptContentHandle.FileScriptContentHandle(scriptFile, scriptEncoding, ignoreCarriageReturnsWhenCalculatingCheckSum);
+        return createScript(relativeScriptFileName, size, fileLastModifiedAt, scriptContentHandle);
+    }
+
+
+    /**
+     * Task that scans a directory for scripts and waits until the scans of all its subdirectories are finished.
+     */
+    @SuppressWarnings("serial")
+    protected class ScanDirectoryTask extends RecursiveAction {
+
+        private final Queue<Script> scripts;
+        private final Path directory;
+        private final String relativeLocation;
+
+        protected ScanDirectoryTask(Queue<Script> scripts, Path directory, String relativeLocation) {
+            this.scripts = scripts;
+            this.directory = directory;
+            this.relativeLocation = relativeLocation;
+        }
+
+        @Override
+        protected void compute() {
+            for (ScanDirectoryTask subDirectoryTask : scanDirectory(scripts, directory, relativeLocation)) {
+                subDirectoryTask.join();
+            }
+        }
     }
 
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.repository.impl;
+
+import org.apache.commons.io.IOUtils;
+import org.dbmaintain.util.DbMaintainException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Read-only view on a zip or jar archive containing scripts.
+ * <p>
+ * The central directory of the archive is read once, when the archive is opened. The archive should be closed as soon
+ * as its content is read, so that the file is not kept open (and locked, on Windows).
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ScriptArchive implements Closeable {
+
+    /* The archive file */
+    private File archiveFile;
+    /* The opened archive */
+    private ZipFile zipFile;
+
+
+    /**
+     * Opens the given archive and reads its central directory.
+     *
+     * @param archiveFile The archive file, not null
+     */
+    public ScriptArchive(File archiveFile) {
+        this.archiveFile = archiveFile;
+        try {
+            this.zipFile = new ZipFile(archiveFile);
+        } catch (IOException e) {
+            throw new DbMaintainException("Error opening archive file " + archiveFile, e);
+        }
+    }
+
+
+    /**
+     * @return The archive file, not null
+     */
+    public File getArchiveFile() {
+        return archiveFile;
+    }
+
+    /**
+     * @return The entries of the archive, in the order of the central directory, not null
+     */
+    public List<? extends ZipEntry> getEntries() {
+        return Collections.list(zipFile.entries());
+    }
+
+    /**
+     * @param name The name of the entry, not null
+     * @return The entry with the given name, null if there is no such entry
+     */
+    public ZipEntry getEntry(String name) {
+        return zipFile.getEntry(name);
+    }
+
+    /**
+     * Opens a stream to the uncompressed content of the given entry.
+     * <p>
+     * NOTE: do not forget to close the stream after usage.
+     *
+     * @param entry The entry, not null
+     * @return The stream, not null
+     */
+    public InputStream getInputStream(ZipEntry entry) {
+        try {
+            return zipFile.getInputStream(entry);
+        } catch (IOException | IllegalStateException e) {
+            throw new DbMaintainException("Error while reading entry " + entry.getName() + " from archive file " + archiveFile, e);
+        }
+    }
+
+    /**
+     * @param entry The entry, not null
+     * @return The uncompressed content of the given entry, not null
+     */
+    public byte[] getContent(ZipEntry entry) {
+        try (InputStream inputStream = getInputStream(entry)) {
+            return IOUtils.toByteArray(inputStream);
+        } catch (IOException e) {
+            throw new DbMaintainException("Error while reading entry " + entry.getName() + " from archive file " + archiveFile, e);
+        }
+    }
+
+    /**
+     * Closes the archive file. Entries can no longer be read afterwards.
+     */
+    @Override
+    public void close() {
+        try {
+            zipFile.close();
+        } catch (IOException e) {
+            throw new DbMaintainException("Error closing archive file " + archiveFile, e);
+        }
+    }
+}
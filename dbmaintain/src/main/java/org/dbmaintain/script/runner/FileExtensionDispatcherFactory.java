@@ -17,7 +17,10 @@
 
 package org.dbmaintain.script.runner;
 
+import org.dbmaintain.script.executedscriptinfo.ExecutedScriptInfoSource;
 import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.script.parser.impl.StatementIndexCache;
+import java.io.File;
 import java.util.Map;
 import org.dbmaintain.config.FactoryWithDatabase;
 import org.dbmaintain.config.PropertyUtils;
@@ -25,6 +28,10 @@ import org.dbmaintain.script.runner.impl.FileExtensionDispatcher;
 import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_SQL_PLUS_COMMAND;
 import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_SQL_LOADER_COMMAND;
 import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_CHMOD_COMMAND;
+import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_JDBC_STATEMENT_QUEUE_SIZE;
+import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_JDBC_STATEMENT_INDEX_CACHE_DIR;
+import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_JDBC_BATCH_SIZE;
+import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_CHUNKED_SCRIPT_CHUNK_SIZE;
 
 /**
  *
@@ -36,7 +43,13 @@ public class FileExtensionDispatcherFactory extends FactoryWithDatabase<ScriptRu
         String sqlLoaderCommand = PropertyUtils.getString(PROPERTY_SQL_LOADER_COMMAND, getConfiguration());
         String sqlPlusCommand = PropertyUtils.getString(PROPERTY_SQL_PLUS_COMMAND, getConfiguration());
         String chmodCommand = PropertyUtils.getString(PROPERTY_CHMOD_COMMAND, getConfiguration());
+        int statementQueueSize = PropertyUtils.getInt(PROPERTY_JDBC_STATEMENT_QUEUE_SIZE, getConfiguration());
+        String statementIndexCacheDir = PropertyUtils.getString(PROPERTY_JDBC_STATEMENT_INDEX_CACHE_DIR, null, getConfiguration());
+        StatementIndexCache statementIndexCache = statementIndexCacheDir == null ? null : new StatementIndexCache(new File(statementIndexCacheDir));
+        int batchSize = PropertyUtils.getInt(PROPERTY_JDBC_BATCH_SIZE, getConfiguration());
+        long chunkSize = PropertyUtils.getLong(PROPERTY_CHUNKED_SCRIPT_CHUNK_SIZE, getConfiguration());
+        ExecutedScriptInfoSource executedScriptInfoSource = factoryWithDatabaseContext.getMainFactory().getExecutedScriptInfoSource();
         Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap = factoryWithDatabaseContext.getDatabaseDialectScriptParserFactoryMap();
-        return new FileExtensionDispatcher(getDatabases(), getSqlHandler(), sqlLoaderCommand, sqlPlusCommand, chmodCommand, databaseDialectScriptParserFactoryMap);
+        return new FileExtensionDispatcher(getDatabases(), getSqlHandler(), sqlLoaderCommand, sqlPlusCommand, chmodCommand, databaseDialectScriptParserFactoryMap, statementQueueSize, statementIndexCache, batchSize, executedScriptInfoSource, chunkSize);
     }
 }
\ No newline at end of file
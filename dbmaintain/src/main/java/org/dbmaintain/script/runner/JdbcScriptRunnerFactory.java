@@ -16,11 +16,18 @@
 package org.dbmaintain.script.runner;
 
 import org.dbmaintain.config.FactoryWithDatabase;
+import org.dbmaintain.config.PropertyUtils;
 import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.script.parser.impl.StatementIndexCache;
 import org.dbmaintain.script.runner.impl.JdbcScriptRunner;
 
+import java.io.File;
 import java.util.Map;
 
+import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_JDBC_BATCH_SIZE;
+import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_JDBC_STATEMENT_INDEX_CACHE_DIR;
+import static org.dbmaintain.config.DbMaintainProperties.PROPERTY_JDBC_STATEMENT_QUEUE_SIZE;
+
 /**
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -30,7 +37,11 @@ public class JdbcScriptRunnerFactory extends FactoryWithDatabase<ScriptRunner> {
 
     public ScriptRunner createInstance() {
         Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap = factoryWithDatabaseContext.getDatabaseDialectScriptParserFactoryMap();
-        return new JdbcScriptRunner(databaseDialectScriptParserFactoryMap, getDatabases(), getSqlHandler());
+        int statementQueueSize = PropertyUtils.getInt(PROPERTY_JDBC_STATEMENT_QUEUE_SIZE, getConfiguration());
+        String statementIndexCacheDir = PropertyUtils.getString(PROPERTY_JDBC_STATEMENT_INDEX_CACHE_DIR, null, getConfiguration());
+        StatementIndexCache statementIndexCache = statementIndexCacheDir == null ? null : new StatementIndexCache(new File(statementIndexCacheDir));
+        int batchSize = PropertyUtils.getInt(PROPERTY_JDBC_BATCH_SIZE, getConfiguration());
+        return new JdbcScriptRunner(databaseDialectScriptParserFactoryMap, getDatabases(), getSqlHandler(), statementQueueSize, statementIndexCache, batchSize);
     }
 
 }
@@ -17,6 +17,8 @@ package org.dbmaintain.script.runner;
 
 import org.dbmaintain.script.Script;
 
+import java.util.function.IntConsumer;
+
 
 /**
  * Runs a given database script.
@@ -32,8 +34,31 @@ public interface ScriptRunner {
      * Executes the given script
      *
      * @param script A handle that provides access to the content of the script, not null
+     * @return The nr of statements that were executed, -1 if not known
+     */
+    int execute(Script script);
+
+    /**
+     * Executes the given script and invokes the given callback when the script was executed successfully. If
+     * {@link #isExecutedInDefaultDatabaseTransaction} returns true for the script, the callback is invoked in the
+     * transaction of the script, right before it is committed. If the callback fails, the script is rolled back.
+     *
+     * @param script       A handle that provides access to the content of the script, not null
+     * @param beforeCommit The callback, receives the nr of statements that were executed or -1 if not known, not null
+     */
+    void execute(Script script, IntConsumer beforeCommit);
+
+    /**
+     * @param script The script, not null
+     * @return The type of runner that executes the script, e.g. jdbc or sqlplus, not null
+     */
+    String getRunnerType(Script script);
+
+    /**
+     * @param script The script, not null
+     * @return True if the script is executed in a single transaction on the connection of the default database
      */
-    void execute(Script script);
+    boolean isExecutedInDefaultDatabaseTransaction(Script script);
 
     /**
      * Initializes the script runner.
@@ -26,6 +26,7 @@ import org.dbmaintain.util.DbMaintainException;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
+import java.util.function.IntConsumer;
 
 import static java.lang.System.currentTimeMillis;
 import static org.dbmaintain.util.FileUtils.createFile;
@@ -61,18 +62,20 @@ public abstract class BaseNativeScriptRunner implements ScriptRunner {
      * Executes the given script.
      *
      * @param script The script, not null
+     * @return -1, the nr of statements executed by the native tool is not known
      */
-    public void execute(Script script) {
+    public int execute(Script script) {
         try {
             // Define the target database on which to execute the script
             Database targetDatabase = getTargetDatabaseDatabase(script);
             if (targetDatabase == null) {
                 logger.info("Script " + script.getFileName() + " has target database " + script.getTargetDatabaseName() + ". This database is disabled, so the script is not executed.");
-                return;
+                return 0;
             }
 
             File scriptFile = createTemporaryScriptFile(script);
             executeScript(scriptFile, targetDatabase);
+            return -1;
 
         } catch (Exception e) {
             throw new DbMaintainException("Error executing script " + script.getFileName(), e);
@@ -80,6 +83,23 @@ public abstract class BaseNativeScriptRunner implements ScriptRunner {
     }
 
 
+    /**
+     * Executes the given script and invokes the callback afterwards. A native script is not executed in a
+     * transaction of DbMaintain, so the callback cannot be made part of it.
+     *
+     * @param script       The script, not null
+     * @param beforeCommit The callback, not null
+     */
+    public void execute(Script script, IntConsumer beforeCommit) {
+        int nrOfStatements = execute(script);
+        beforeCommit.accept(nrOfStatements);
+    }
+
+    public boolean isExecutedInDefaultDatabaseTransaction(Script script) {
+        return false;
+    }
+
+
     protected abstract void executeScript(File scriptFile, Database targetDatabase) throws Exception;
 
 
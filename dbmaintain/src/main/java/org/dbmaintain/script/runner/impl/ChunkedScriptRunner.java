@@ -0,0 +1,335 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.runner.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.dbmaintain.database.Database;
+import org.dbmaintain.database.Databases;
+import org.dbmaintain.database.SQLHandler;
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.executedscriptinfo.ExecutedScriptInfoSource;
+import org.dbmaintain.script.parser.ScriptParser;
+import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.util.DbMaintainException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+
+import static org.dbmaintain.script.parser.impl.StatementBuilder.replaceScriptParameters;
+
+/**
+ * Script runner for large data migrations that executes a single update or delete statement repeatedly, every time
+ * on a limited part of the data, and commits after every chunk. This keeps the locks, undo and logs of every
+ * transaction small, at the cost of the script no longer being atomic.
+ * <p>
+ * A script with a single statement is executed in row-limit chunks: the statement must limit the nr of rows it
+ * processes using the parameter ${chunkSize}, e.g. using rownum or limit, and is repeated until it no longer
+ * processes any rows. The statement must therefore exclude the rows that it already processed.
+ * <p>
+ * A script with two statements is executed in key-range chunks. The first statement is a query that returns the
+ * lowest and highest key, e.g. select min(id), max(id) from big_table. The second statement processes the rows with
+ * a key from ${chunkStart} (inclusive) to ${chunkEnd} (exclusive). The keys must be numbers, smaller than the maximum
+ * long value. Every key range is executed in its own transaction, also when it contains no keys: if the keys are
+ * sparse, let the query only return the keys from ${chunkStart} onwards, e.g. select min(id), max(id) from big_table
+ * where id >= ${chunkStart}. After a key range without updates, the query is then executed again to skip to the next
+ * key. The first time, ${chunkStart} is the checkpoint or the minimum long value.
+ * <p>
+ * After every chunk, the progress is stored as checkpoint in the executed scripts table: the start of the next key
+ * range or the nr of rows processed so far. If the script is interrupted, the next update resumes it from the
+ * checkpoint instead of starting over. If the script targets the default database, the checkpoint is committed in
+ * the same transaction as the chunk. Otherwise it is committed right after the chunk.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ChunkedScriptRunner extends JdbcScriptRunner {
+
+    /* The logger instance for this class */
+    private static Log logger = LogFactory.getLog(ChunkedScriptRunner.class);
+
+    /* The name of the parameter for the nr of keys or rows of a chunk */
+    public static final String CHUNK_SIZE_PARAMETER = "chunkSize";
+    /* The name of the parameter for the first key of a key-range chunk */
+    public static final String CHUNK_START_PARAMETER = "chunkStart";
+    /* The name of the parameter for the key after the last key of a key-range chunk */
+    public static final String CHUNK_END_PARAMETER = "chunkEnd";
+
+    /* The source in which the checkpoints of the scripts are stored */
+    protected ExecutedScriptInfoSource executedScriptInfoSource;
+    /* The nr of keys or the max nr of rows of a chunk */
+    protected long chunkSize;
+
+
+    public ChunkedScriptRunner(Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap, Databases databases, SQLHandler sqlHandler,
+                               ExecutedScriptInfoSource executedScriptInfoSource, long chunkSize) {
+        super(databaseDialectScriptParserFactoryMap, databases, sqlHandler);
+        this.executedScriptInfoSource = executedScriptInfoSource;
+        this.chunkSize = chunkSize;
+    }
+
+
+    @Override
+    public String getRunnerType(Script script) {
+        return "chunked";
+    }
+
+    /**
+     * @param script The script, not null
+     * @return False, every chunk is committed separately
+     */
+    @Override
+    public boolean isExecutedInDefaultDatabaseTransaction(Script script) {
+        return false;
+    }
+
+    /**
+     * @param script       The script, not null
+     * @param beforeCommit The callback, invoked after the last chunk was committed, null if there is none
+     * @return The nr of statements that were executed, i.e. the key range query and the nr of chunks
+     */
+    @Override
+    protected int executeScript(Script script, IntConsumer beforeCommit) {
+        if (chunkSize <= 0) {
+            throw new DbMaintainException("Unable to execute chunked script " + script.getFileName() + ". The chunk size must be larger than 0, but was " + chunkSize + ".");
+        }
+        Database targetDatabase = getTargetDatabaseDatabase(script);
+        if (targetDatabase == null) {
+            logger.info("Script " + script.getFileName() + " has target database " + script.getTargetDatabaseName() + ". This database is disabled, so the script is not executed.");
+            if (beforeCommit != null) {
+                beforeCommit.accept(0);
+            }
+            return 0;
+        }
+
+        List<String> statements = getStatements(script, targetDatabase);
+        int nrOfStatements;
+        if (statements.size() == 1) {
+            nrOfStatements = executeInRowLimitChunks(script, targetDatabase, statements.get(0));
+        } else if (statements.size() == 2) {
+            nrOfStatements = executeInKeyRangeChunks(script, targetDatabase, statements.get(0), statements.get(1));
+        } else {
+            throw new DbMaintainException("Unable to execute chunked script " + script.getFileName() + ". A chunked script must contain either a single statement " +
+                    "that is executed in row-limit chunks, or a query for the lowest and highest key followed by a statement that is executed in key-range chunks. " +
+                    "The script contains " + statements.size() + " statements.");
+        }
+        if (beforeCommit != null) {
+            beforeCommit.accept(nrOfStatements);
+        }
+        return nrOfStatements;
+    }
+
+
+    /**
+     * Repeats the given statement until it no longer processes any rows. The checkpoint is the total nr of processed rows.
+     *
+     * @param script         The script, not null
+     * @param targetDatabase The database, not null
+     * @param statement      The statement, containing the chunk size parameter, not null
+     * @return The nr of executed statements
+     */
+    protected int executeInRowLimitChunks(Script script, Database targetDatabase, String statement) {
+        assertContainsParameters(script, statement, CHUNK_SIZE_PARAMETER);
+        Properties chunkParameters = new Properties();
+        chunkParameters.put(CHUNK_SIZE_PARAMETER, Long.toString(chunkSize));
+        String chunkStatement = replaceScriptParameters(statement, statement.length(), chunkParameters);
+
+        Long checkpoint = executedScriptInfoSource.getChunkCheckpoint(script);
+        long nrOfRows = checkpoint == null ? 0 : checkpoint;
+        if (checkpoint == null) {
+            storeChunkCheckpoint(script, nrOfRows);
+        } else {
+            logger.info("Resuming chunked script " + script.getFileName() + ", " + nrOfRows + " rows were already processed.");
+        }
+
+        int nrOfChunks = 0;
+        int nrOfUpdates;
+        do {
+            long processedRows = nrOfRows;
+            nrOfUpdates = executeChunk(script, targetDatabase, chunkStatement, updates -> processedRows + updates, "row " + (nrOfRows + 1) + " onwards");
+            nrOfRows += nrOfUpdates;
+            nrOfChunks++;
+        } while (nrOfUpdates > 0);
+        return nrOfChunks;
+    }
+
+    /**
+     * Executes the given statement for consecutive key ranges, from the lowest to the highest key. The checkpoint is
+     * the start of the next key range.
+     *
+     * @param script         The script, not null
+     * @param targetDatabase The database, not null
+     * @param keyRangeQuery  The query that returns the lowest and highest key, not null
+     * @param statement      The statement, containing the chunk start and end parameters, not null
+     * @return The nr of executed statements
+     */
+    protected int executeInKeyRangeChunks(Script script, Database targetDatabase, String keyRangeQuery, String statement) {
+        assertContainsParameters(script, statement, CHUNK_START_PARAMETER, CHUNK_END_PARAMETER);
+        Long checkpoint = executedScriptInfoSource.getChunkCheckpoint(script);
+        Long[] keyRange = getKeyRange(script, targetDatabase, keyRangeQuery, checkpoint == null ? Long.MIN_VALUE : checkpoint);
+        if (keyRange[0] == null || keyRange[1] == null) {
+            logger.info("Chunked script " + script.getFileName() + " has no keys to process.");
+            return 1;
+        }
+        long highestKey = keyRange[1];
+        if (highestKey == Long.MAX_VALUE) {
+            throw new DbMaintainException("Unable to execute chunked script " + script.getFileName() + ". The highest key must be smaller than " + Long.MAX_VALUE + ".");
+        }
+
+        long chunkStart;
+        if (checkpoint == null) {
+            chunkStart = keyRange[0];
+            storeChunkCheckpoint(script, chunkStart);
+        } else {
+            chunkStart = Math.max(checkpoint, keyRange[0]);
+            logger.info("Resuming chunked script " + script.getFileName() + " from key " + chunkStart + ".");
+        }
+
+        boolean skipToNextKey = keyRangeQuery.contains("${" + CHUNK_START_PARAMETER + "}");
+        Properties chunkParameters = new Properties();
+        chunkParameters.put(CHUNK_SIZE_PARAMETER, Long.toString(chunkSize));
+        int nrOfStatements = 1;
+        while (chunkStart <= highestKey) {
+            // the key range is shortened if the end would overflow
+            long chunkEnd = chunkStart > Long.MAX_VALUE - chunkSize ? highestKey + 1 : chunkStart + chunkSize;
+            chunkParameters.put(CHUNK_START_PARAMETER, Long.toString(chunkStart));
+            chunkParameters.put(CHUNK_END_PARAMETER, Long.toString(chunkEnd));
+            String chunkStatement = replaceScriptParameters(statement, statement.length(), chunkParameters);
+
+            int nrOfUpdates = executeChunk(script, targetDatabase, chunkStatement, updates -> chunkEnd, "keys " + chunkStart + " to " + chunkEnd);
+            chunkStart = chunkEnd;
+            nrOfStatements++;
+
+            if (nrOfUpdates == 0 && skipToNextKey && chunkStart <= highestKey) {
+                Long nextKey = getKeyRange(script, targetDatabase, keyRangeQuery, chunkStart)[0];
+                nrOfStatements++;
+                if (nextKey == null) {
+                    break;
+                }
+                chunkStart = Math.max(chunkStart, nextKey);
+            }
+        }
+        return nrOfStatements;
+    }
+
+    /**
+     * @param script         The script, not null
+     * @param targetDatabase The database, not null
+     * @param keyRangeQuery  The query that returns the lowest and highest key, optionally from the chunk start parameter onwards, not null
+     * @param chunkStart     The value for the chunk start parameter
+     * @return The lowest and highest key, the elements are null if there are no keys
+     */
+    protected Long[] getKeyRange(Script script, Database targetDatabase, String keyRangeQuery, long chunkStart) {
+        Properties chunkParameters = new Properties();
+        chunkParameters.put(CHUNK_START_PARAMETER, Long.toString(chunkStart));
+        String query = replaceScriptParameters(keyRangeQuery, keyRangeQuery.length(), chunkParameters);
+
+        Long[] keyRange = sqlHandler.getRowAsLongs(query, targetDatabase.getDataSource());
+        if (keyRange.length != 2) {
+            throw new DbMaintainException("Unable to execute chunked script " + script.getFileName() + ". The first statement must be a query that returns the lowest and highest key, " +
+                    "but it returned " + keyRange.length + " columns: " + query);
+        }
+        return keyRange;
+    }
+
+    /**
+     * Executes and commits the given chunk together with the checkpoint for the next chunk.
+     *
+     * @param script           The script, not null
+     * @param targetDatabase   The database, not null
+     * @param chunkStatement   The statement in which the chunk parameters were replaced, not null
+     * @param nextCheckpoint   Returns the checkpoint once the chunk was committed for the nr of updates of the chunk, not null
+     * @param chunkDescription Describes the chunk for logging, e.g. keys 1 to 11, not null
+     * @return The nr of updates of the chunk
+     */
+    protected int executeChunk(Script script, Database targetDatabase, String chunkStatement, IntToLongFunction nextCheckpoint, String chunkDescription) {
+        DataSource dataSource = targetDatabase.getDataSource();
+        boolean defaultDatabase = targetDatabase == databases.getDefaultDatabase();
+        int nrOfUpdates;
+        try {
+            sqlHandler.startTransaction(dataSource);
+            nrOfUpdates = sqlHandler.executeUpdate(chunkStatement, dataSource);
+            if (defaultDatabase) {
+                // the checkpoint is updated on the same connection, it is committed together with the chunk
+                executedScriptInfoSource.updateChunkCheckpoint(script, nextCheckpoint.applyAsLong(nrOfUpdates));
+            }
+            sqlHandler.endTransactionAndCommit(dataSource);
+
+        } catch (DbMaintainException e) {
+            sqlHandler.endTransactionAndRollback(dataSource);
+            logger.error("Chunk with " + chunkDescription + " of chunked script " + script.getFileName() + " failed. " +
+                    "The previous chunks were committed, the next update resumes from this chunk.");
+            throw e;
+        }
+        if (!defaultDatabase) {
+            storeChunkCheckpoint(script, nextCheckpoint.applyAsLong(nrOfUpdates));
+        }
+        logger.debug("Executed chunk with " + chunkDescription + " of chunked script " + script.getFileName() + ": " + nrOfUpdates + " rows.");
+        return nrOfUpdates;
+    }
+
+    /**
+     * Updates and commits the checkpoint of the given script in its own transaction.
+     *
+     * @param script          The script, not null
+     * @param chunkCheckpoint The checkpoint, not null
+     */
+    protected void storeChunkCheckpoint(Script script, long chunkCheckpoint) {
+        DataSource dataSource = databases.getDefaultDatabase().getDataSource();
+        try {
+            sqlHandler.startTransaction(dataSource);
+            executedScriptInfoSource.updateChunkCheckpoint(script, chunkCheckpoint);
+            sqlHandler.endTransactionAndCommit(dataSource);
+
+        } catch (DbMaintainException e) {
+            sqlHandler.endTransactionAndRollback(dataSource);
+            throw e;
+        }
+    }
+
+
+    protected List<String> getStatements(Script script, Database targetDatabase) {
+        try (Reader scriptContentReader = script.getScriptContentHandle().openScriptContentReader()) {
+            ScriptParserFactory scriptParserFactory = databaseDialectScriptParserFactoryMap.get(targetDatabase.getSupportedDatabaseDialect());
+            ScriptParser scriptParser = createScriptParser(scriptContentReader, scriptParserFactory);
+            List<String> statements = new ArrayList<>();
+            String statement;
+            while ((statement = scriptParser.getNextStatement()) != null) {
+                statements.add(statement);
+            }
+            return statements;
+
+        } catch (IOException e) {
+            throw new DbMaintainException(e);
+        }
+    }
+
+    protected void assertContainsParameters(Script script, String statement, String... parameterNames) {
+        for (String parameterName : parameterNames) {
+            if (!statement.contains("${" + parameterName + "}")) {
+                throw new DbMaintainException("Unable to execute chunked script " + script.getFileName() + ". The statement must contain the parameter ${" +
+                        parameterName + "} to limit the rows of a chunk: " + statement);
+            }
+        }
+    }
+}
@@ -18,10 +18,13 @@
 package org.dbmaintain.script.runner.impl;
 
 import java.util.Map;
+import java.util.function.IntConsumer;
 import org.dbmaintain.database.Databases;
 import org.dbmaintain.database.SQLHandler;
 import org.dbmaintain.script.Script;
+import org.dbmaintain.script.executedscriptinfo.ExecutedScriptInfoSource;
 import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.script.parser.impl.StatementIndexCache;
 import org.dbmaintain.script.runner.ScriptRunner;
 
 /**
@@ -37,33 +40,64 @@ public class FileExtensionDispatcher implements ScriptRunner {
     protected String sqlPlusCommand;
     protected String chmodCommand;
     protected Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap;
+    protected int statementQueueSize;
+    protected StatementIndexCache statementIndexCache;
+    protected int batchSize;
+    protected ExecutedScriptInfoSource executedScriptInfoSource;
+    protected long chunkSize;
     
     public FileExtensionDispatcher(Databases databases, 
             SQLHandler sqlHandler,
             String sqlLoaderCommand,
             String sqlPlusCommand,
             String chmodCommand,
-            Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap) {
+            Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap,
+            int statementQueueSize,
+            StatementIndexCache statementIndexCache,
+            int batchSize,
+            ExecutedScriptInfoSource executedScriptInfoSource,
+            long chunkSize) {
         this.databases = databases;
         this.sqlHandler = sqlHandler;
         this.sqlLoaderCommand = sqlLoaderCommand;
         this.sqlPlusCommand = sqlPlusCommand;
         this.chmodCommand = chmodCommand;
         this.databaseDialectScriptParserFactoryMap = databaseDialectScriptParserFactoryMap;
+        this.statementQueueSize = statementQueueSize;
+        this.statementIndexCache = statementIndexCache;
+        this.batchSize = batchSize;
+        this.executedScriptInfoSource = executedScriptInfoSource;
+        this.chunkSize = chunkSize;
     }
 
-    public void execute(Script script) {
+    public int execute(Script script) {
+        return getScriptRunner(script).execute(script);
+    }
+
+    public void execute(Script script, IntConsumer beforeCommit) {
+        getScriptRunner(script).execute(script, beforeCommit);
+    }
+
+    public String getRunnerType(Script script) {
+        return getScriptRunner(script).getRunnerType(script);
+    }
+
+    public boolean isExecutedInDefaultDatabaseTransaction(Script script) {
+        return getScriptRunner(script).isExecutedInDefaultDatabaseTransaction(script);
+    }
+
+    protected ScriptRunner getScriptRunner(Script script) {
         if (script.getFileName().matches("^.*\\.(ldr|ctl)$")) {
-            ScriptRunner runner = new SqlLoaderScriptRunner(databases, sqlLoaderCommand);
-            runner.execute(script);
+            return new SqlLoaderScriptRunner(databases, sqlLoaderCommand);
+        }
+        else if (script.getFileName().matches("^.*\\.chunked\\.sql$")) {
+            return new ChunkedScriptRunner(databaseDialectScriptParserFactoryMap, databases, sqlHandler, executedScriptInfoSource, chunkSize);
         }
         else if (script.getFileName().matches("^.*\\.sql$")) {
-            ScriptRunner runner = new JdbcScriptRunner(databaseDialectScriptParserFactoryMap, databases, sqlHandler);
-            runner.execute(script);
+            return new JdbcScriptRunner(databaseDialectScriptParserFactoryMap, databases, sqlHandler, statementQueueSize, statementIndexCache, batchSize);
         }
         else {
-            ScriptRunner runner = new ShellScriptRunner(databases, chmodCommand);
-            runner.execute(script);
+            return new ShellScriptRunner(databases, chmodCommand);
         }
     }
 
@@ -23,16 +23,31 @@ import org.dbmaintain.database.SQLHandler;
 import org.dbmaintain.script.Script;
 import org.dbmaintain.script.parser.ScriptParser;
 import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.script.parser.impl.PipelinedScriptParser;
+import org.dbmaintain.script.parser.impl.StatementIndexCache;
 import org.dbmaintain.script.runner.ScriptRunner;
 import org.dbmaintain.util.DbMaintainException;
 
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.IntConsumer;
 
 /**
  * Default implementation of a script runner that uses JDBC to execute the script.
+ * <p>
+ * If a statement queue size is set, the script is parsed in a separate thread while the previous statements are
+ * executed, see {@link PipelinedScriptParser}. The statements are always executed by the calling thread, so that
+ * the transaction of the script stays on the same connection.
+ * <p>
+ * If a statement index cache is set, scripts with the same content are only parsed once, see {@link StatementIndexCache}.
+ * <p>
+ * If a batch size is set, consecutive insert, update and delete statements are sent to the database in JDBC batches
+ * instead of one by one. Any other statement first executes the pending batch, so the statements are still executed
+ * in the order of the script. Statements with a returning clause are not batched.
  *
  * @author Filip Neven
  * @author Tim Ducheyne
@@ -45,12 +60,33 @@ public class JdbcScriptRunner implements ScriptRunner {
     protected Databases databases;
     protected SQLHandler sqlHandler;
     protected Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap;
+    /* The max nr of statements that are parsed ahead in a separate thread, 0 to parse and execute in the same thread */
+    protected int statementQueueSize;
+    /* The cache with the statement boundaries of the scripts, null if the scripts are always parsed */
+    protected StatementIndexCache statementIndexCache;
+    /* The max nr of consecutive dml statements that are sent to the database in one batch, 0 or 1 to disable batching */
+    protected int batchSize;
 
 
     public JdbcScriptRunner(Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap, Databases databases, SQLHandler sqlHandler) {
+        this(databaseDialectScriptParserFactoryMap, databases, sqlHandler, 0);
+    }
+
+    public JdbcScriptRunner(Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap, Databases databases, SQLHandler sqlHandler, int statementQueueSize) {
+        this(databaseDialectScriptParserFactoryMap, databases, sqlHandler, statementQueueSize, null);
+    }
+
+    public JdbcScriptRunner(Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap, Databases databases, SQLHandler sqlHandler, int statementQueueSize, StatementIndexCache statementIndexCache) {
+        this(databaseDialectScriptParserFactoryMap, databases, sqlHandler, statementQueueSize, statementIndexCache, 0);
+    }
+
+    public JdbcScriptRunner(Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap, Databases databases, SQLHandler sqlHandler, int statementQueueSize, StatementIndexCache statementIndexCache, int batchSize) {
         this.databaseDialectScriptParserFactoryMap = databaseDialectScriptParserFactoryMap;
         this.databases = databases;
         this.sqlHandler = sqlHandler;
+        this.statementQueueSize = statementQueueSize;
+        this.statementIndexCache = statementIndexCache;
+        this.batchSize = batchSize;
     }
 
 
@@ -61,37 +97,95 @@ public class JdbcScriptRunner implements ScriptRunner {
      * added even if it does not end with a semicolon.
      *
      * @param script The script, not null
+     * @return The nr of statements that were executed
      */
-    public void execute(Script script) {
+    public int execute(Script script) {
+        return executeScript(script, null);
+    }
+
+    /**
+     * Executes the given script. The callback is invoked in the transaction of the script, after all statements
+     * were executed and right before the transaction is committed.
+     *
+     * @param script       The script, not null
+     * @param beforeCommit The callback, receives the nr of executed statements, not null
+     */
+    public void execute(Script script, IntConsumer beforeCommit) {
+        executeScript(script, beforeCommit);
+    }
+
+    public String getRunnerType(Script script) {
+        return "jdbc";
+    }
+
+    /**
+     * @param script       The script, not null
+     * @param beforeCommit The callback, null if there is none
+     * @return The nr of statements that were executed
+     */
+    protected int executeScript(Script script, IntConsumer beforeCommit) {
         // Define the target database on which to execute the script
         Database targetDatabase = getTargetDatabaseDatabase(script);
         if (targetDatabase == null) {
             logger.info("Script " + script.getFileName() + " has target database " + script.getTargetDatabaseName() + ". This database is disabled, so the script is not executed.");
-            return;
+            if (beforeCommit != null) {
+                beforeCommit.accept(0);
+            }
+            return 0;
         }
 
         // get content stream
         try(Reader scriptContentReader = script.getScriptContentHandle().openScriptContentReader()) {
             // create a script parser for the target database in question
-            ScriptParser scriptParser = databaseDialectScriptParserFactoryMap.get(targetDatabase.getSupportedDatabaseDialect()).createScriptParser(scriptContentReader);
+            ScriptParserFactory scriptParserFactory = databaseDialectScriptParserFactoryMap.get(targetDatabase.getSupportedDatabaseDialect());
+            ScriptParser scriptParser = createScriptParser(scriptContentReader, scriptParserFactory);
+            if (statementQueueSize > 0) {
+                // parse the statements in a separate thread, it is stopped before the content reader is closed
+                try (PipelinedScriptParser pipelinedScriptParser = new PipelinedScriptParser(scriptParser, statementQueueSize)) {
+                    return parseAndExecuteScript(targetDatabase, pipelinedScriptParser, beforeCommit);
+                }
+            }
             // parse and execute the statements
-            parseAndExecuteScript(targetDatabase, scriptParser);
+            return parseAndExecuteScript(targetDatabase, scriptParser, beforeCommit);
 
         } catch (IOException e) {
             throw new DbMaintainException(e);
         }
     }
 
-    private void parseAndExecuteScript(Database targetDatabase, ScriptParser scriptParser) {
+    protected ScriptParser createScriptParser(Reader scriptContentReader, ScriptParserFactory scriptParserFactory) {
+        if (statementIndexCache == null) {
+            return scriptParserFactory.createScriptParser(scriptContentReader);
+        }
+        return statementIndexCache.createScriptParser(scriptContentReader, scriptParserFactory);
+    }
+
+    private int parseAndExecuteScript(Database targetDatabase, ScriptParser scriptParser, IntConsumer beforeCommit) {
         DataSource dataSource = targetDatabase.getDataSource();
         try {
             sqlHandler.startTransaction(dataSource);
 
+            int nrOfStatements = 0;
+            List<String> batch = new ArrayList<>();
             String statement;
             while ((statement = scriptParser.getNextStatement()) != null) {
-                sqlHandler.execute(statement, dataSource);
+                if (batchSize > 1 && isBatchableStatement(statement)) {
+                    batch.add(statement);
+                    if (batch.size() == batchSize) {
+                        executeBatch(batch, dataSource);
+                    }
+                } else {
+                    executeBatch(batch, dataSource);
+                    sqlHandler.execute(statement, dataSource);
+                }
+                nrOfStatements++;
+            }
+            executeBatch(batch, dataSource);
+            if (beforeCommit != null) {
+                beforeCommit.accept(nrOfStatements);
             }
             sqlHandler.endTransactionAndCommit(dataSource);
+            return nrOfStatements;
 
         } catch (DbMaintainException e) {
             sqlHandler.endTransactionAndRollback(dataSource);
@@ -99,6 +193,69 @@ public class JdbcScriptRunner implements ScriptRunner {
         }
     }
 
+    private void executeBatch(List<String> batch, DataSource dataSource) {
+        if (!batch.isEmpty()) {
+            sqlHandler.executeBatch(batch, dataSource);
+            batch.clear();
+        }
+    }
+
+    /**
+     * @param statement The statement, not null
+     * @return True if the statement is an insert, update or delete, possibly preceded by comments, without a returning clause
+     */
+    protected boolean isBatchableStatement(String statement) {
+        int index = skipWhitespaceAndComments(statement);
+        if (!startsWithKeyword(statement, index, "INSERT") && !startsWithKeyword(statement, index, "UPDATE") && !startsWithKeyword(statement, index, "DELETE")) {
+            return false;
+        }
+        for (int i = index; i < statement.length(); i++) {
+            if (startsWithKeyword(statement, i, "RETURNING")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipWhitespaceAndComments(String statement) {
+        int index = 0;
+        int length = statement.length();
+        while (index < length) {
+            if (Character.isWhitespace(statement.charAt(index))) {
+                index++;
+            } else if (statement.startsWith("--", index)) {
+                int endOfLine = statement.indexOf('\n', index);
+                index = endOfLine == -1 ? length : endOfLine + 1;
+            } else if (statement.startsWith("/*", index)) {
+                int endOfComment = statement.indexOf("*/", index + 2);
+                index = endOfComment == -1 ? length : endOfComment + 2;
+            } else {
+                break;
+            }
+        }
+        return index;
+    }
+
+    private boolean startsWithKeyword(String statement, int index, String keyword) {
+        if (!statement.regionMatches(true, index, keyword, 0, keyword.length())) {
+            return false;
+        }
+        if (index > 0 && isIdentifierCharacter(statement.charAt(index - 1))) {
+            return false;
+        }
+        int end = index + keyword.length();
+        return end == statement.length() || !isIdentifierCharacter(statement.charAt(end));
+    }
+
+    private boolean isIdentifierCharacter(char character) {
+        return Character.isLetterOrDigit(character) || character == '_';
+    }
+
+    public boolean isExecutedInDefaultDatabaseTransaction(Script script) {
+        Database targetDatabase = getTargetDatabaseDatabase(script);
+        return targetDatabase != null && targetDatabase == databases.getDefaultDatabase();
+    }
+
     public void initialize() {
         // nothing to initialize
     }
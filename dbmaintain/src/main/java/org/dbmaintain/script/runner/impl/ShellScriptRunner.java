@@ -24,6 +24,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.dbmaintain.database.Database;
 import org.dbmaintain.database.DatabaseInfo;
 import org.dbmaintain.database.Databases;
+import org.dbmaintain.script.Script;
 import org.dbmaintain.util.DbMaintainException;
 
 import java.util.Arrays;
@@ -45,6 +46,10 @@ public class ShellScriptRunner extends BaseNativeScriptRunner {
         super(databases);
         this.chmodCommand = chmodCommand;
     }
+
+    public String getRunnerType(Script script) {
+        return "shell";
+    }
     
     @Override
     protected void executeScript(File scriptFile, Database targetDatabase) {
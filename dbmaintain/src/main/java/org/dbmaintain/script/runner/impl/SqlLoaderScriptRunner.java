@@ -25,6 +25,7 @@ import java.io.IOException;
 import org.dbmaintain.database.Database;
 import org.dbmaintain.database.DatabaseInfo;
 import org.dbmaintain.database.Databases;
+import org.dbmaintain.script.Script;
 import org.dbmaintain.util.DbMaintainException;
 
 /**
@@ -42,6 +43,10 @@ public class SqlLoaderScriptRunner extends BaseNativeScriptRunner {
         this.sqlLoaderCommand = sqlLoaderCommand;
         this.application = createApplication(sqlLoaderCommand);
     }
+
+    public String getRunnerType(Script script) {
+        return "sqlloader";
+    }
     
     @Override
     protected void executeScript(File scriptFile, Database targetDatabase)
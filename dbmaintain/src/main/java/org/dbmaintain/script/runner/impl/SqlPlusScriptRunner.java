@@ -59,6 +59,10 @@ public class SqlPlusScriptRunner extends BaseNativeScriptRunner {
         application = createApplication(sqlPlusCommand);
     }
 
+    public String getRunnerType(Script script) {
+        return "sqlplus";
+    }
+
     @Override
     protected void executeScript(final File scriptFile, final Database targetDatabase) throws Exception {
         final File wrapperScriptFile = generateWrapperScriptFile(targetDatabase.getDatabaseInfo(), scriptFile);
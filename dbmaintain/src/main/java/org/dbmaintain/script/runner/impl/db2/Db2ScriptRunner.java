@@ -18,6 +18,7 @@ package org.dbmaintain.script.runner.impl.db2;
 import org.dbmaintain.database.Database;
 import org.dbmaintain.database.DatabaseInfo;
 import org.dbmaintain.database.Databases;
+import org.dbmaintain.script.Script;
 import org.dbmaintain.script.runner.impl.Application;
 import org.dbmaintain.script.runner.impl.BaseNativeScriptRunner;
 import org.dbmaintain.util.DbMaintainException;
@@ -47,6 +48,11 @@ public class Db2ScriptRunner extends BaseNativeScriptRunner {
     }
 
 
+    public String getRunnerType(Script script) {
+        return "db2";
+    }
+
+
     public void initialize() {
         for (Db2ConnectionInfo db2ConnectionInfo : db2ConnectionInfos.values()) {
             unregisterDatabaseQuietly(db2ConnectionInfo);
@@ -21,9 +21,12 @@ package org.dbmaintain.util;
  */
 public class CharacterUtils {
 
-    private static final Character CARRIAGE_RETURN = '\r', NEW_LINE = '\n';
+    /* Value of a character that is read as a primitive int, when there is no character, e.g. at the end of a script */
+    public static final int NO_CHARACTER = -1;
 
-    public static boolean isNewLineCharacter(Character currentChar) {
-        return CARRIAGE_RETURN.equals(currentChar) || NEW_LINE.equals(currentChar);
+    private static final char CARRIAGE_RETURN = '\r', NEW_LINE = '\n';
+
+    public static boolean isNewLineCharacter(int currentChar) {
+        return currentChar == CARRIAGE_RETURN || currentChar == NEW_LINE;
     }
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain;
+
+import org.dbmaintain.database.Database;
+import org.dbmaintain.database.DatabaseException;
+import org.dbmaintain.database.Databases;
+import org.dbmaintain.database.SQLHandler;
+import org.dbmaintain.database.impl.DefaultSQLHandler;
+import org.dbmaintain.script.ExecutedScript;
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.script.parser.impl.DefaultScriptParserFactory;
+import org.dbmaintain.script.runner.impl.JdbcScriptRunner;
+import org.dbmaintain.util.DbMaintainException;
+import org.dbmaintain.util.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedSet;
+
+import static org.dbmaintain.util.SQLTestUtils.executeUpdate;
+import static org.dbmaintain.util.SQLTestUtils.executeUpdateQuietly;
+import static org.dbmaintain.util.SQLTestUtils.getItemAsLong;
+import static org.dbmaintain.util.TestUtils.createScriptWithContent;
+import static org.dbmaintain.util.TestUtils.getDefaultExecutedScriptInfoSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests registering the execution of a script in the same transaction as the script itself.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+class DefaultDbMaintainerRegisterScriptExecutionInScriptTransactionTest {
+
+    private DefaultDbMaintainer defaultDbMaintainer;
+
+    private Database defaultDatabase;
+    private DataSource dataSource;
+    private SQLHandler sqlHandler;
+
+    private boolean failCommit;
+    private Long nrOfRegisteredScriptsAfterFailedCommit;
+
+
+    @BeforeEach
+    void initialize() {
+        Databases databases = TestUtils.getDatabases();
+        defaultDatabase = databases.getDefaultDatabase();
+        dataSource = defaultDatabase.getDataSource();
+        sqlHandler = new DefaultSQLHandler() {
+
+            @Override
+            public void endTransactionAndCommit(DataSource dataSource) {
+                if (!failCommit) {
+                    super.endTransactionAndCommit(dataSource);
+                    return;
+                }
+                // a failing commit rolls back the transaction
+                endTransactionAndRollback(dataSource);
+                nrOfRegisteredScriptsAfterFailedCommit = getItemAsLong("select count(1) from dbmaintain_scripts", dataSource);
+                throw new DatabaseException("Error while performing database commit.");
+            }
+        };
+
+        Map<String, ScriptParserFactory> databaseDialectScriptParserFactoryMap = Collections.singletonMap("hsqldb", new DefaultScriptParserFactory(false, null));
+        JdbcScriptRunner scriptRunner = new JdbcScriptRunner(databaseDialectScriptParserFactoryMap, databases, sqlHandler);
+        defaultDbMaintainer = new DefaultDbMaintainer(scriptRunner, null, getDefaultExecutedScriptInfoSource(defaultDatabase, true, false, null, sqlHandler),
+                false, false, false, false, false, false, null, null, null, null, null, sqlHandler, 0, null, false, 150, 1, true);
+
+        cleanupTestDatabase();
+        executeUpdate("create table table1 (id int)", dataSource);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        sqlHandler.closeAllConnections();
+        cleanupTestDatabase();
+    }
+
+
+    @Test
+    void successfulScript() {
+        Script script = createScriptWithContent("01_script.sql", "insert into table1 values (1); insert into table1 values (2);");
+        defaultDbMaintainer.executeScript(script);
+
+        assertEquals(2, getItemAsLong("select count(1) from table1", dataSource));
+        ExecutedScript executedScript = getExecutedScript();
+        assertEquals(script, executedScript.getScript());
+        assertTrue(executedScript.isSuccessful());
+        assertEquals(2, (int) executedScript.getNrOfStatements());
+        assertEquals(61L, (long) executedScript.getScriptSize());
+        assertEquals("jdbc", executedScript.getRunnerType());
+        assertNotNull(executedScript.getDurationMs());
+    }
+
+    @Test
+    void failedScriptIsRolledBackAndRegisteredAsFailed() {
+        Script script = createScriptWithContent("01_script.sql", "insert into table1 values (1); insert into xxxx values (2);");
+        assertThrows(DbMaintainException.class, () -> defaultDbMaintainer.executeScript(script));
+
+        assertEquals(0, getItemAsLong("select count(1) from table1", dataSource));
+        ExecutedScript executedScript = getExecutedScript();
+        assertEquals(script, executedScript.getScript());
+        assertFalse(executedScript.isSuccessful());
+    }
+
+    @Test
+    void registrationIsRolledBackWhenCommitFails() {
+        // the scripts table is created before any script is executed, creating it would commit the transaction
+        getDefaultExecutedScriptInfoSource(defaultDatabase, true).getExecutedScripts();
+        Script script = createScriptWithContent("01_script.sql", "insert into table1 values (1); insert into table1 values (2);");
+        failCommit = true;
+        assertThrows(DbMaintainException.class, () -> defaultDbMaintainer.executeScript(script));
+
+        assertEquals(0, (long) nrOfRegisteredScriptsAfterFailedCommit);
+        assertEquals(0, getItemAsLong("select count(1) from table1", dataSource));
+        assertFalse(getExecutedScript().isSuccessful());
+    }
+
+    @Test
+    void failedScriptThatWasExecutedBefore() {
+        Script script = createScriptWithContent("repeatable.sql", "insert into table1 values (1);");
+        defaultDbMaintainer.executeScript(script);
+
+        Script changedScript = createScriptWithContent("repeatable.sql", "insert into xxxx values (2);");
+        assertThrows(DbMaintainException.class, () -> defaultDbMaintainer.executeScript(changedScript));
+
+        assertEquals(1, getItemAsLong("select count(1) from table1", dataSource));
+        assertFalse(getExecutedScript().isSuccessful());
+    }
+
+
+    private ExecutedScript getExecutedScript() {
+        SortedSet<ExecutedScript> executedScripts = getDefaultExecutedScriptInfoSource(defaultDatabase, false).getExecutedScripts();
+        assertEquals(1, executedScripts.size());
+        return executedScripts.first();
+    }
+
+    private void cleanupTestDatabase() {
+        executeUpdateQuietly("drop table table1", dataSource);
+        executeUpdateQuietly("drop table dbmaintain_scripts", dataSource);
+    }
+}
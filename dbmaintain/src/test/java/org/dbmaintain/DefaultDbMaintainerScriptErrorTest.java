@@ -83,7 +83,7 @@ class DefaultDbMaintainerScriptErrorTest {
 
     private DefaultDbMaintainer createDefaultDbMaintainer(long maxNrOfCharsWhenLoggingScriptContent) {
         return new DefaultDbMaintainer(scriptRunner, null, executedScriptInfoSource, false, false, false, false, false,
-                false, null, null, null, null, null, null, maxNrOfCharsWhenLoggingScriptContent, null, false, 150);
+                false, null, null, null, null, null, null, maxNrOfCharsWhenLoggingScriptContent, null, false, 150, 1, false);
     }
 
 }
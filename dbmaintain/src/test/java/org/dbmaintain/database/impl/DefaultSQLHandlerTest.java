@@ -0,0 +1,81 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.database.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@ExtendWith(MockitoExtension.class)
+class DefaultSQLHandlerTest {
+
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private ParameterMetaData parameterMetaData;
+
+    private DefaultSQLHandler defaultSQLHandler;
+
+
+    @BeforeEach
+    void initialize() {
+        defaultSQLHandler = new DefaultSQLHandler();
+    }
+
+
+    @Test
+    void parameterTypesAreLookedUpOncePerStatement() throws SQLException {
+        when(preparedStatement.getParameterMetaData()).thenReturn(parameterMetaData);
+        doReturn(Types.VARCHAR).when(parameterMetaData).getParameterType(1);
+        doReturn(Types.BIGINT).when(parameterMetaData).getParameterType(2);
+
+        int[] parameterTypes = null;
+        for (int i = 0; i < 3; i++) {
+            parameterTypes = defaultSQLHandler.setParameters(preparedStatement, new Object[]{"value", null}, parameterTypes);
+        }
+        verify(preparedStatement, times(1)).getParameterMetaData();
+        verify(preparedStatement, times(3)).setNull(2, Types.BIGINT);
+    }
+
+    @Test
+    void varcharWhenParameterTypesAreNotSupported() throws SQLException {
+        when(preparedStatement.getParameterMetaData()).thenThrow(new SQLException("not supported"));
+
+        int[] parameterTypes = null;
+        for (int i = 0; i < 3; i++) {
+            parameterTypes = defaultSQLHandler.setParameters(preparedStatement, new Object[]{null, null}, parameterTypes);
+        }
+        verify(preparedStatement, times(1)).getParameterMetaData();
+        verify(preparedStatement, times(3)).setNull(1, Types.VARCHAR);
+        verify(preparedStatement, times(3)).setNull(2, Types.VARCHAR);
+    }
+}
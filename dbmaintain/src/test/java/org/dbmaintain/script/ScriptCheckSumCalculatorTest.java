@@ -0,0 +1,71 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.dbmaintain.util.TestUtils.createScriptWithContent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+class ScriptCheckSumCalculatorTest {
+
+
+    @Test
+    void sameCheckSumsAsSequentialCalculation() {
+        List<Script> scripts = createScripts();
+        List<Script> sameScripts = createScripts();
+
+        new ScriptCheckSumCalculator(4).calculateCheckSums(scripts);
+
+        for (int i = 0; i < scripts.size(); i++) {
+            assertEquals(sameScripts.get(i).getScriptContentHandle().getCheckSum(), scripts.get(i).getCheckSum());
+        }
+    }
+
+    @Test
+    void largeContent() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("insert into table values (").append(i).append(");\r\n");
+        }
+        ScriptContentHandle stringHandle = new ScriptContentHandle.StringScriptContentHandle(content.toString(), "ISO-8859-1", true);
+        ScriptContentHandle unixStringHandle = new ScriptContentHandle.StringScriptContentHandle(content.toString().replace("\r", ""), "ISO-8859-1", false);
+
+        assertEquals(unixStringHandle.getCheckSum(), stringHandle.getCheckSum());
+    }
+
+    @Test
+    void defaultParallelismIsNrOfProcessors() {
+        ScriptCheckSumCalculator scriptCheckSumCalculator = new ScriptCheckSumCalculator(0);
+        assertEquals(Runtime.getRuntime().availableProcessors(), scriptCheckSumCalculator.getParallelism());
+    }
+
+
+    private List<Script> createScripts() {
+        List<Script> scripts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            scripts.add(createScriptWithContent(i + "_script.sql", "script content " + i));
+        }
+        return scripts;
+    }
+}
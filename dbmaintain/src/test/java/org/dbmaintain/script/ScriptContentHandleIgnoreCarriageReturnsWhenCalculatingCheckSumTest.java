@@ -17,6 +17,9 @@ package org.dbmaintain.script;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.net.URISyntaxException;
+
 import static org.dbmaintain.util.TestUtils.createScriptFactory;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -51,6 +54,26 @@ class ScriptContentHandleIgnoreCarriageReturnsWhenCalculatingCheckSumTest {
         assertEquals(windowsCheckSum, unixCheckSum, "CheckSums should be equal for unix and windows");
     }
 
+    @Test
+    void ignored_fileHandle() throws Exception {
+        ScriptContentHandle unixScriptContentHandle = new ScriptContentHandle.FileScriptContentHandle(getFile("unix-script.sql"), "ISO-8859-1", true);
+        ScriptContentHandle windowsScriptContentHandle = new ScriptContentHandle.FileScriptContentHandle(getFile("windows-script.sql"), "ISO-8859-1", true);
+
+        String unixCheckSum = unixScriptContentHandle.getCheckSum();
+        String windowsCheckSum = windowsScriptContentHandle.getCheckSum();
+
+        assertEquals(windowsCheckSum, unixCheckSum, "CheckSums should be equal for unix and windows");
+    }
+
+    @Test
+    void notIgnored_fileHandleSameAsUrlHandle() throws Exception {
+        ScriptContentHandle urlScriptContentHandle = new ScriptContentHandle.UrlScriptContentHandle(getClass().getResource("windows-script.sql"), "ISO-8859-1", false);
+        ScriptContentHandle fileScriptContentHandle = new ScriptContentHandle.FileScriptContentHandle(getFile("windows-script.sql"), "ISO-8859-1", false);
+
+        assertEquals(urlScriptContentHandle.getCheckSum(), fileScriptContentHandle.getCheckSum());
+        assertEquals(urlScriptContentHandle.getScriptContentsAsString(1000), fileScriptContentHandle.getScriptContentsAsString(1000));
+    }
+
     @Test
     void notIgnored_stringHandle() {
         Script unixFile = createScriptWithContent("fileName", "script\ncontent", false);
@@ -74,6 +97,10 @@ class ScriptContentHandleIgnoreCarriageReturnsWhenCalculatingCheckSumTest {
     }
 
 
+    private File getFile(String fileName) throws URISyntaxException {
+        return new File(getClass().getResource(fileName).toURI());
+    }
+
     private Script createScriptWithContent(String fileName, String scriptContent, boolean ignoreCarriageReturnsWhenCalculatingCheckSum) {
         ScriptFactory scriptFactory = createScriptFactory();
         return scriptFactory.createScriptWithContent(fileName, 0L, new ScriptContentHandle.StringScriptContentHandle(scriptContent, "ISO-8859-1", ignoreCarriageReturnsWhenCalculatingCheckSum));
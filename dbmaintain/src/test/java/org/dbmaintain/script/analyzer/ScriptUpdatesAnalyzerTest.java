@@ -17,6 +17,7 @@ package org.dbmaintain.script.analyzer;
 
 import org.dbmaintain.script.ExecutedScript;
 import org.dbmaintain.script.Script;
+import org.dbmaintain.script.ScriptFactory;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
@@ -24,6 +25,7 @@ import java.util.Date;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import static org.dbmaintain.script.analyzer.ScriptUpdateType.CHUNKED_SCRIPT_RESUMED;
 import static org.dbmaintain.script.analyzer.ScriptUpdateType.HIGHER_INDEX_SCRIPT_ADDED;
 import static org.dbmaintain.script.analyzer.ScriptUpdateType.INDEXED_SCRIPT_DELETED;
 import static org.dbmaintain.script.analyzer.ScriptUpdateType.INDEXED_SCRIPT_RENAMED;
@@ -43,9 +45,13 @@ import static org.dbmaintain.script.analyzer.ScriptUpdateType.REPEATABLE_SCRIPT_
 import static org.dbmaintain.script.analyzer.ScriptUpdateType.REPEATABLE_SCRIPT_DELETED;
 import static org.dbmaintain.script.analyzer.ScriptUpdateType.REPEATABLE_SCRIPT_RENAMED;
 import static org.dbmaintain.script.analyzer.ScriptUpdateType.REPEATABLE_SCRIPT_UPDATED;
+import static org.dbmaintain.util.TestUtils.createScriptFactory;
+import static org.dbmaintain.util.TestUtils.createScriptWithContent;
 import static org.dbmaintain.util.TestUtils.createScriptWithModificationDateAndCheckSum;
 import static org.dbmaintain.util.TestUtils.getExecutedScriptInfoSource;
 import static org.dbmaintain.util.TestUtils.getScriptRepository;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -151,6 +157,28 @@ class ScriptUpdatesAnalyzerTest {
         assertRepeatableScriptDeletion(REPEATABLE_2);
     }
 
+    @Test
+    void interruptedChunkedScriptResumed() {
+        executedScripts(INDEXED_1);
+        ExecutedScript interruptedScript = new ExecutedScript(INDEXED_2, new Date(), false);
+        interruptedScript.setChunkCheckpoint(11L);
+        executedScripts.add(interruptedScript);
+        scripts(INDEXED_1, INDEXED_2, INDEXED_3);
+        calculateScriptUpdates();
+        assertRegularScriptUpdate(CHUNKED_SCRIPT_RESUMED, INDEXED_2);
+        assertRegularScriptUpdate(HIGHER_INDEX_SCRIPT_ADDED, INDEXED_3);
+        assertNoIrregularScriptUpdates();
+    }
+
+    @Test
+    void failedScriptWithoutChunkCheckpointNotResumed() {
+        executedScripts(INDEXED_1);
+        executedScripts.add(new ExecutedScript(INDEXED_2, new Date(), false));
+        scripts(INDEXED_1, INDEXED_2);
+        calculateScriptUpdates();
+        assertNoRegularlyAddedOrModifiedScripts();
+    }
+
     @Test
     void repeatableScriptIgnoreDeleted() {
         executedScripts(REPEATABLE_1, REPEATABLE_2);
@@ -341,6 +369,64 @@ class ScriptUpdatesAnalyzerTest {
         assertTrue(scriptUpdates.getRegularlyAddedOrModifiedScripts().isEmpty());
     }
 
+    @Test
+    void largeNrOfScripts() {
+        ScriptFactory scriptFactory = createScriptFactory();
+        for (int i = 1; i <= 101000; i++) {
+            Script script = scriptFactory.createScriptWithoutContent(i + "_script" + i + ".sql", 0L, "checksum" + i);
+            scripts.add(script);
+            if (i <= 100000) {
+                executedScripts.add(new ExecutedScript(script, new Date(), true));
+            }
+        }
+        for (int i = 1; i <= 1000; i++) {
+            Script repeatable = scriptFactory.createScriptWithoutContent("repeatable_script" + i + ".sql", 0L, "repeatable checksum" + i);
+            executedScripts.add(new ExecutedScript(repeatable, new Date(), true));
+            if (i > 3) {
+                scripts.add(repeatable);
+            }
+        }
+        Script updatedRepeatable = scriptFactory.createScriptWithoutContent("repeatable_script1.sql", 1L, "updated checksum");
+        Script renamedRepeatable = scriptFactory.createScriptWithoutContent("repeatable_script2_renamed.sql", 0L, "repeatable checksum2");
+        scripts(updatedRepeatable, renamedRepeatable);
+        calculateScriptUpdates();
+
+        assertEquals(1001, scriptUpdates.getRegularlyAddedOrModifiedScripts().size());
+        assertRegularScriptUpdate(HIGHER_INDEX_SCRIPT_ADDED, scriptFactory.createScriptWithoutContent("100001_script100001.sql", 0L, "checksum100001"));
+        assertRegularScriptUpdate(HIGHER_INDEX_SCRIPT_ADDED, scriptFactory.createScriptWithoutContent("101000_script101000.sql", 0L, "checksum101000"));
+        assertRegularScriptUpdate(REPEATABLE_SCRIPT_UPDATED, updatedRepeatable);
+        assertEquals(1, scriptUpdates.getRegularlyRenamedScripts().size());
+        assertRegularScriptRenames(REPEATABLE_SCRIPT_RENAMED, scriptFactory.createScriptWithoutContent("repeatable_script2.sql", 0L, "repeatable checksum2"), renamedRepeatable);
+        assertEquals(1, scriptUpdates.getRegularlyDeletedRepeatableScripts().size());
+        assertRepeatableScriptDeletion(scriptFactory.createScriptWithoutContent("repeatable_script3.sql", 0L, "repeatable checksum3"));
+        assertNoIrregularScriptUpdates();
+    }
+
+
+    @Test
+    void onlyCandidatesAreHashedForRenameDetection() {
+        Script indexed = createScriptWithContent("1_indexed.sql", "indexed");
+        Script newIndexed = createScriptWithContent("2_indexed.sql", "new indexed");
+        Script newRepeatable = createScriptWithContent("repeatable_new.sql", "repeatable");
+        executedScripts(indexed, createScriptWithModificationDateAndCheckSum("repeatable_old.sql", 0L, createScriptWithContent("repeatable_old.sql", "repeatable").getCheckSum()));
+        scripts(indexed, newIndexed, newRepeatable);
+        calculateScriptUpdates();
+
+        assertRegularScriptRenames(REPEATABLE_SCRIPT_RENAMED, createScript("repeatable_old.sql", false), newRepeatable);
+        assertFalse(indexed.isCheckSumCalculated());
+    }
+
+    @Test
+    void deletedScriptWithSameContentAsScriptOfOtherTypeIsNotReportedAsDeleted() {
+        Script newRepeatable = createScriptWithContent("repeatable_new.sql", "indexed");
+        executedScripts(createScriptWithModificationDateAndCheckSum("1_indexed.sql", 0L, newRepeatable.getCheckSum()));
+        scripts(newRepeatable);
+        calculateScriptUpdates();
+
+        assertNoIrregularScriptUpdates();
+    }
+
+
     private void calculateScriptUpdates() {
         calculateScriptUpdates(true, false);
     }
@@ -0,0 +1,114 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.executedscriptinfo;
+
+import org.dbmaintain.script.ExecutedScript;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static java.util.Arrays.asList;
+import static org.dbmaintain.util.TestUtils.createScript;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@ExtendWith(MockitoExtension.class)
+class ScriptExecutionReporterTest {
+
+    /* Tested object */
+    private ScriptExecutionReporter scriptExecutionReporter;
+
+    @Mock
+    private ExecutedScriptInfoSource executedScriptInfoSource;
+
+
+    @BeforeEach
+    void initialize() {
+        scriptExecutionReporter = new ScriptExecutionReporter(executedScriptInfoSource);
+    }
+
+
+    @Test
+    void slowestScripts() {
+        ExecutedScript script1 = createExecutedScript("01_release1/01_script1.sql", 100L);
+        ExecutedScript script2 = createExecutedScript("01_release1/02_script2.sql", 300L);
+        ExecutedScript script3 = createExecutedScript("02_release2/01_script3.sql", 200L);
+        ExecutedScript scriptWithoutDuration = createExecutedScript("02_release2/02_script4.sql", null);
+        registerExecutedScripts(script1, script2, script3, scriptWithoutDuration);
+
+        List<ExecutedScript> result = scriptExecutionReporter.getSlowestScripts(2);
+        assertEquals(asList(script2, script3), result);
+    }
+
+    @Test
+    void totalDurationPerRelease() {
+        registerExecutedScripts(
+                createExecutedScript("01_release1/01_script1.sql", 100L),
+                createExecutedScript("01_release1/02_script2.sql", 300L),
+                createExecutedScript("02_release2/01_script3.sql", 200L),
+                createExecutedScript("repeatable.sql", 50L));
+
+        Map<String, Long> result = scriptExecutionReporter.getTotalDurationPerRelease();
+        assertEquals(3, result.size());
+        assertEquals(400L, (long) result.get("01_release1"));
+        assertEquals(200L, (long) result.get("02_release2"));
+        assertEquals(50L, (long) result.get("/"));
+    }
+
+    @Test
+    void report() {
+        ExecutedScript executedScript = createExecutedScript("01_release1/01_script1.sql", 100L);
+        executedScript.setNrOfStatements(5);
+        executedScript.setScriptSize(1024L);
+        executedScript.setRunnerType("jdbc");
+        registerExecutedScripts(executedScript);
+
+        String result = scriptExecutionReporter.createReport(10);
+        assertTrue(result.contains("100 ms\t01_release1/01_script1.sql (5 statements, 1024 bytes, jdbc)"), result);
+        assertTrue(result.contains("100 ms\t01_release1\n"), result);
+    }
+
+    @Test
+    void noExecutionTimesRegistered() {
+        registerExecutedScripts(createExecutedScript("01_release1/01_script1.sql", null));
+
+        String result = scriptExecutionReporter.createReport(10);
+        assertEquals("No execution times were registered for the executed scripts.\n", result);
+    }
+
+
+    private ExecutedScript createExecutedScript(String fileName, Long durationMs) {
+        ExecutedScript executedScript = new ExecutedScript(createScript(fileName), new Date(), true);
+        executedScript.setDurationMs(durationMs);
+        return executedScript;
+    }
+
+    private void registerExecutedScripts(ExecutedScript... executedScripts) {
+        when(executedScriptInfoSource.getExecutedScripts()).thenReturn(new TreeSet<>(asList(executedScripts)));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.executedscriptinfo;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+class ScriptIndexesTest {
+
+
+    @Test
+    void compare() {
+        assertOrdered("", "1");
+        assertOrdered("1", "2");
+        assertOrdered("1", "x");
+        assertOrdered("1", "1.1");
+        assertOrdered("2.1", "x.x");
+        assertOrdered("1.x.1", "2.1");
+        assertOrdered("1.1", "1.10");
+        assertEquals(0, new ScriptIndexes("1.x.2").compareTo(new ScriptIndexes("1.x.2")));
+    }
+
+    @Test
+    void indexesString() {
+        assertEquals("1.x.20", new ScriptIndexes("1.x.20").getIndexesString());
+        assertEquals("", new ScriptIndexes("").getIndexesString());
+        assertEquals("x.1", new ScriptIndexes(asList(null, 1L)).getIndexesString());
+    }
+
+    @Test
+    void indexes() {
+        assertEquals(asList(1L, null, 2L), new ScriptIndexes("1.x.2").getIndexes());
+        assertTrue(new ScriptIndexes("1.x.2").isIncrementalScript());
+        assertTrue(new ScriptIndexes("x.x").isRepeatableScript());
+    }
+
+    @Test
+    void equalsAndHashCode() {
+        ScriptIndexes scriptIndexes = new ScriptIndexes("1.x.2");
+        ScriptIndexes sameScriptIndexes = new ScriptIndexes(new long[]{1, ScriptIndexes.NO_INDEX, 2});
+
+        assertEquals(scriptIndexes, sameScriptIndexes);
+        assertEquals(scriptIndexes.hashCode(), sameScriptIndexes.hashCode());
+        assertNotEquals(scriptIndexes, new ScriptIndexes("1.x.3"));
+    }
+
+
+    private void assertOrdered(String lowerIndexes, String higherIndexes) {
+        assertTrue(new ScriptIndexes(lowerIndexes).compareTo(new ScriptIndexes(higherIndexes)) < 0);
+        assertTrue(new ScriptIndexes(higherIndexes).compareTo(new ScriptIndexes(lowerIndexes)) > 0);
+    }
+}
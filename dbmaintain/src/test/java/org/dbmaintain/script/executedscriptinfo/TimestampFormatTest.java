@@ -0,0 +1,98 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.executedscriptinfo;
+
+import org.dbmaintain.util.DbMaintainException;
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+class TimestampFormatTest {
+
+    private TimestampFormat timestampFormat = new TimestampFormat("yyyy-MM-dd HH:mm:ss");
+
+
+    @Test
+    void formatSameAsSimpleDateFormat() {
+        Date date = new Date(1211271600000L);
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(date), timestampFormat.format(date));
+    }
+
+    @Test
+    void parseSameAsSimpleDateFormat() throws Exception {
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2008-05-20 10:20:00"), timestampFormat.parse("2008-05-20 10:20:00"));
+    }
+
+    @Test
+    void parseCachedTimestampReturnsNewDate() {
+        Date date = timestampFormat.parse("2008-05-20 10:20:00");
+        date.setTime(0);
+        assertEquals(timestampFormat.parse("2008-05-20 10:20:00"), timestampFormat.parse("2008-05-20 10:20:00"));
+        assertNotEquals(date, timestampFormat.parse("2008-05-20 10:20:00"));
+    }
+
+    @Test
+    void patternWithoutTime() throws Exception {
+        TimestampFormat dateFormat = new TimestampFormat("dd/MM/yyyy");
+        assertEquals(new SimpleDateFormat("dd/MM/yyyy").parse("20/05/2008"), dateFormat.parse("20/05/2008"));
+    }
+
+    @Test
+    void patternWithHourOfHalfDayWithoutAmPmMarker() throws Exception {
+        TimestampFormat dateFormat = new TimestampFormat("yyyy-MM-dd hh:mm:ss");
+        Date date = new SimpleDateFormat("yyyy-MM-dd hh:mm:ss").parse("2008-05-20 10:20:00");
+        assertEquals(date, dateFormat.parse("2008-05-20 10:20:00"));
+        assertEquals("2008-05-20 10:20:00", dateFormat.format(date));
+    }
+
+    @Test
+    void patternWithTwoDigitYear() throws Exception {
+        TimestampFormat dateFormat = new TimestampFormat("yy-MM-dd");
+        assertEquals(new SimpleDateFormat("yy-MM-dd").parse("98-05-20"), dateFormat.parse("98-05-20"));
+    }
+
+    @Test
+    void patternWithMilliseconds() throws Exception {
+        TimestampFormat dateFormat = new TimestampFormat("yyyy-MM-dd HH:mm:ss.S");
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.S").parse("2008-05-20 10:20:00.5"), dateFormat.parse("2008-05-20 10:20:00.5"));
+    }
+
+    @Test
+    void timestampRejectedByStrictParsingIsParsedLeniently() throws Exception {
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        assertEquals(simpleDateFormat.parse("2008-5-20 10:20:00"), timestampFormat.parse("2008-5-20 10:20:00"));
+        assertEquals(simpleDateFormat.parse("2008-05-20 10:20:00 edited"), timestampFormat.parse("2008-05-20 10:20:00 edited"));
+        assertEquals(simpleDateFormat.parse("2008-05-32 10:20:00"), timestampFormat.parse("2008-05-32 10:20:00"));
+    }
+
+    @Test
+    void invalidTimestamp() {
+        DbMaintainException e = assertThrows(DbMaintainException.class, () -> timestampFormat.parse("20/05/2008"));
+        assertTrue(e.getMessage().contains("yyyy-MM-dd HH:mm:ss"));
+    }
+
+    @Test
+    void invalidPattern() {
+        assertThrows(DbMaintainException.class, () -> new TimestampFormat("yyyy-MM-dd q"));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.executedscriptinfo.impl;
+
+import org.dbmaintain.database.Database;
+import org.dbmaintain.util.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+
+import static org.dbmaintain.util.SQLTestUtils.executeUpdate;
+import static org.dbmaintain.util.SQLTestUtils.executeUpdateQuietly;
+import static org.dbmaintain.util.TestUtils.getDefaultExecutedScriptInfoSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Tests the index on the file name column of the executed scripts table.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+class DefaultExecutedScriptInfoSourceIndexTest {
+
+    private DataSource dataSource;
+    private Database defaultDatabase;
+
+
+    @BeforeEach
+    void initialize() {
+        defaultDatabase = TestUtils.getDatabases().getDefaultDatabase();
+        dataSource = defaultDatabase.getDataSource();
+        dropExecutedScriptsTable();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        dropExecutedScriptsTable();
+    }
+
+
+    @Test
+    void createdTableHasPrimaryKey() {
+        getDefaultExecutedScriptInfoSource(defaultDatabase, true).getExecutedScripts();
+        assertTrue(isFileNameColumnIndexed());
+    }
+
+    @Test
+    void createdTableHasNoPrimaryKeyWhenFileNameColumnIsTooLargeToBeIndexed() {
+        Database database = spy(defaultDatabase);
+        doReturn(100).when(database).getMaxIndexedTextLength();
+
+        getDefaultExecutedScriptInfoSource(database, true).getExecutedScripts();
+        assertFalse(isFileNameColumnIndexed());
+    }
+
+    @Test
+    void indexAddedToExistingTable() {
+        createUnindexedExecutedScriptsTable();
+        getDefaultExecutedScriptInfoSource(defaultDatabase, false, true).getExecutedScripts();
+        assertTrue(isFileNameColumnIndexed());
+    }
+
+    @Test
+    void noIndexAddedWhenAutoCreateIndexIsDisabled() {
+        createUnindexedExecutedScriptsTable();
+        getDefaultExecutedScriptInfoSource(defaultDatabase, false, false).getExecutedScripts();
+        assertFalse(isFileNameColumnIndexed());
+    }
+
+    @Test
+    void duplicateFileNamesDoNotPreventUpdate() {
+        createUnindexedExecutedScriptsTable();
+        executeUpdate("insert into dbmaintain_scripts values ('1_script.sql', 0, 'checksum', '20/05/2008', 1)", dataSource);
+        executeUpdate("insert into dbmaintain_scripts values ('1_script.sql', 0, 'checksum', '20/05/2008', 1)", dataSource);
+
+        assertEquals(1, getDefaultExecutedScriptInfoSource(defaultDatabase, false, true).getExecutedScripts().size());
+        assertFalse(isFileNameColumnIndexed());
+    }
+
+
+    private boolean isFileNameColumnIndexed() {
+        return defaultDatabase.isUniqueColumn("PUBLIC", "DBMAINTAIN_SCRIPTS", "FILE_NAME");
+    }
+
+    private void createUnindexedExecutedScriptsTable() {
+        executeUpdate("create table dbmaintain_scripts (file_name varchar(150), file_last_modified_at bigint, checksum varchar(50), executed_at varchar(50), succeeded bigint)", dataSource);
+    }
+
+    private void dropExecutedScriptsTable() {
+        executeUpdateQuietly("drop table dbmaintain_scripts", dataSource);
+    }
+}
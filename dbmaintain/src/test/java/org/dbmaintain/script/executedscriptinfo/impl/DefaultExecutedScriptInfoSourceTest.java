@@ -28,12 +28,17 @@ import javax.sql.DataSource;
 import java.text.ParseException;
 import java.util.Set;
 
+import static java.util.Arrays.asList;
+
 import static org.apache.commons.lang3.time.DateUtils.parseDate;
 import static org.dbmaintain.util.SQLTestUtils.executeUpdate;
 import static org.dbmaintain.util.SQLTestUtils.executeUpdateQuietly;
 import static org.dbmaintain.util.TestUtils.createScript;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -139,6 +144,154 @@ class DefaultExecutedScriptInfoSourceTest {
         assertTrue(executedScriptInfoSource.getExecutedScripts().first().isSuccessful());
     }
 
+    @Test
+    void registerExecutedScripts() {
+        executedScriptInfoSource.registerExecutedScript(executedScript1);
+        executedScript1.setSuccessful(true);
+        executedScriptInfoSource.registerExecutedScripts(asList(executedScript1, executedScript2));
+        assertEquals(2, executedScriptInfoSource.getExecutedScripts().size());
+        initExecutedScriptInfoSource();
+        Set<ExecutedScript> executedScripts = executedScriptInfoSource.getExecutedScripts();
+        assertEquals(2, executedScripts.size());
+        assertTrue(executedScripts.contains(executedScript2));
+        assertTrue(executedScriptInfoSource.getExecutedScripts().first().isSuccessful());
+    }
+
+    @Test
+    void registerExecutionStatistics() {
+        executedScript1.setDurationMs(1500L);
+        executedScript1.setNrOfStatements(12);
+        executedScript1.setScriptSize(2048L);
+        executedScript1.setRunnerType("jdbc");
+        executedScriptInfoSource.registerExecutedScript(executedScript1);
+        initExecutedScriptInfoSource();
+
+        ExecutedScript result = executedScriptInfoSource.getExecutedScripts().first();
+        assertEquals(1500L, (long) result.getDurationMs());
+        assertEquals(12, (int) result.getNrOfStatements());
+        assertEquals(2048L, (long) result.getScriptSize());
+        assertEquals("jdbc", result.getRunnerType());
+    }
+
+    @Test
+    void executionStatisticsIgnoredWhenTableHasNoStatisticsColumns() {
+        dropExecutedScriptsTable();
+        executeUpdate("create table dbmaintain_scripts (file_name varchar(150), file_last_modified_at bigint, checksum varchar(50), executed_at varchar(50), succeeded bigint)", dataSource);
+
+        executedScript1.setDurationMs(1500L);
+        executedScriptInfoSource.registerExecutedScript(executedScript1);
+        initExecutedScriptInfoSource();
+
+        ExecutedScript result = executedScriptInfoSource.getExecutedScripts().first();
+        assertEquals(executedScript1, result);
+        assertNull(result.getDurationMs());
+    }
+
+    @Test
+    void refreshCachedStatePicksUpScriptsRegisteredByOtherSource() {
+        executedScriptInfoSource.registerExecutedScript(executedScript1);
+        assertEquals(1, executedScriptInfoSource.getExecutedScripts().size());
+
+        DefaultExecutedScriptInfoSource otherExecutedScriptInfoSource = TestUtils.getDefaultExecutedScriptInfoSource(defaultDatabase, false);
+        otherExecutedScriptInfoSource.registerExecutedScript(executedScript2);
+        ExecutedScript updatedExecutedScript1 = new ExecutedScript(executedScript1.getScript(), executedScript1.getExecutedAt(), true);
+        otherExecutedScriptInfoSource.updateExecutedScript(updatedExecutedScript1);
+
+        executedScriptInfoSource.refreshCachedState();
+        Set<ExecutedScript> executedScripts = executedScriptInfoSource.getExecutedScripts();
+        assertEquals(2, executedScripts.size());
+        assertTrue(executedScripts.contains(executedScript2));
+        assertTrue(executedScriptInfoSource.getExecutedScripts().first().isSuccessful());
+    }
+
+    @Test
+    void refreshCachedStateReloadsScriptsWhenRowsWereDeletedByOtherSource() {
+        executedScriptInfoSource.registerExecutedScript(executedScript1);
+        executedScriptInfoSource.registerExecutedScript(executedScript2);
+        assertEquals(2, executedScriptInfoSource.getExecutedScripts().size());
+
+        executeUpdate("delete from dbmaintain_scripts where file_name = 'script2.sql'", dataSource);
+
+        executedScriptInfoSource.refreshCachedState();
+        assertEquals(1, executedScriptInfoSource.getExecutedScripts().size());
+        assertEquals(executedScript1, executedScriptInfoSource.getExecutedScripts().first());
+    }
+
+    @Test
+    void refreshCachedStateKeepsOwnDeletesAndRenames() {
+        executedScriptInfoSource.registerExecutedScript(executedScript1);
+        executedScriptInfoSource.registerExecutedScript(executedScript2);
+        executedScriptInfoSource.refreshCachedState();
+        Set<ExecutedScript> cachedExecutedScripts = executedScriptInfoSource.getExecutedScripts();
+
+        executedScriptInfoSource.deleteExecutedScript(executedScript2);
+        Script renamedToScript = createScript("1_script1_renamed.sql");
+        executedScriptInfoSource.renameExecutedScript(executedScript1, renamedToScript);
+
+        executedScriptInfoSource.refreshCachedState();
+        assertSame(cachedExecutedScripts, executedScriptInfoSource.getExecutedScripts());
+        assertEquals(1, cachedExecutedScripts.size());
+        assertEquals(renamedToScript, cachedExecutedScripts.iterator().next().getScript());
+    }
+
+    @Test
+    void refreshCachedStateOnlyReadsRowsChangedSinceScriptsWereLoaded() {
+        executedScriptInfoSource.registerExecutedScript(executedScript1);
+        Set<ExecutedScript> cachedExecutedScripts = executedScriptInfoSource.getExecutedScripts();
+        // a change that is older than the overlap window is not read again
+        executeUpdate("update dbmaintain_scripts set checksum = 'xxx', changed_at = 0 where file_name = '1_script1.sql'", dataSource);
+        executedScriptInfoSource.registerExecutedScript(executedScript2);
+
+        executedScriptInfoSource.refreshCachedState();
+        assertSame(cachedExecutedScripts, executedScriptInfoSource.getExecutedScripts());
+        assertEquals(2, cachedExecutedScripts.size());
+        assertEquals(executedScript1.getScript().getCheckSum(), executedScriptInfoSource.getExecutedScripts().first().getScript().getCheckSum());
+    }
+
+    @Test
+    void refreshCachedStatePicksUpRowsChangedByOtherSourceWithClockBehind() {
+        executedScriptInfoSource.registerExecutedScript(executedScript1);
+        executedScriptInfoSource.refreshCachedState();
+
+        long changedAt = System.currentTimeMillis() - 60 * 1000;
+        executeUpdate("update dbmaintain_scripts set succeeded = 1, changed_at = " + changedAt + " where file_name = '1_script1.sql'", dataSource);
+
+        executedScriptInfoSource.refreshCachedState();
+        assertTrue(executedScriptInfoSource.getExecutedScripts().first().isSuccessful());
+    }
+
+    @Test
+    void refreshCachedStatePicksUpRowsWithoutChangedAt() {
+        executedScriptInfoSource.registerExecutedScript(executedScript1);
+        executedScriptInfoSource.refreshCachedState();
+
+        executeUpdate("update dbmaintain_scripts set succeeded = 1, changed_at = null where file_name = '1_script1.sql'", dataSource);
+
+        executedScriptInfoSource.refreshCachedState();
+        assertTrue(executedScriptInfoSource.getExecutedScripts().first().isSuccessful());
+    }
+
+    @Test
+    void refreshCachedStateWhenTableHasNoChangedAtColumn() {
+        dropExecutedScriptsTable();
+        executeUpdate("create table dbmaintain_scripts (file_name varchar(150), file_last_modified_at bigint, checksum varchar(50), executed_at varchar(50), succeeded bigint)", dataSource);
+        executedScriptInfoSource.registerExecutedScript(executedScript1);
+        assertEquals(1, executedScriptInfoSource.getExecutedScripts().size());
+
+        TestUtils.getDefaultExecutedScriptInfoSource(defaultDatabase, false).registerExecutedScript(executedScript2);
+
+        executedScriptInfoSource.refreshCachedState();
+        assertEquals(2, executedScriptInfoSource.getExecutedScripts().size());
+    }
+
+    @Test
+    void scriptNameContainingQuote() {
+        ExecutedScript executedScript = new ExecutedScript(createScript("1_script'1.sql"), executedScript1.getExecutedAt(), true);
+        executedScriptInfoSource.registerExecutedScript(executedScript);
+        initExecutedScriptInfoSource();
+        assertEquals(executedScript, executedScriptInfoSource.getExecutedScripts().first());
+    }
+
     @Test
     void renameExecutedScript() {
         executedScriptInfoSource.registerExecutedScript(executedScript1);
@@ -183,6 +336,31 @@ class DefaultExecutedScriptInfoSourceTest {
     	assertEquals(executedScript1, executedScriptInfoSource.getExecutedScripts().first());
     }
 
+    @Test
+    void deleteAllExecutedPreprocessingScriptsOnlyDeletesScriptsInPreprocessingDirectory() {
+        ExecutedScript windowsPathScript = new ExecutedScript(createScript("preprocessing\\preprocessingscript2.sql"), executedScript1.getExecutedAt(), true);
+        ExecutedScript otherDirectoryScript = new ExecutedScript(createScript("preprocessing_old/script.sql"), executedScript1.getExecutedAt(), true);
+        executedScriptInfoSource.registerExecutedScripts(asList(executedPreprocessingScript, windowsPathScript, otherDirectoryScript));
+
+        initExecutedScriptInfoSource();
+        executedScriptInfoSource.deleteAllExecutedPreprocessingScripts();
+        assertEquals(1, executedScriptInfoSource.getExecutedScripts().size());
+        initExecutedScriptInfoSource();
+        assertEquals(otherDirectoryScript, executedScriptInfoSource.getExecutedScripts().first());
+    }
+
+    @Test
+    void deleteAllExecutedPreprocessingScriptsReloadsCachedScriptsFromDatabase() {
+        executedScriptInfoSource.registerExecutedScripts(asList(executedScript1, executedPreprocessingScript));
+        Set<ExecutedScript> cachedExecutedScripts = executedScriptInfoSource.getExecutedScripts();
+
+        executedScriptInfoSource.deleteAllExecutedPreprocessingScripts();
+        Set<ExecutedScript> reloadedExecutedScripts = executedScriptInfoSource.getExecutedScripts();
+        assertNotSame(cachedExecutedScripts, reloadedExecutedScripts);
+        assertEquals(1, reloadedExecutedScripts.size());
+        assertTrue(reloadedExecutedScripts.contains(executedScript1));
+    }
+
     @Test
     void deleteAllExecutedPostprocessingScripts() {
         executedScriptInfoSource.registerExecutedScript(executedScript1);
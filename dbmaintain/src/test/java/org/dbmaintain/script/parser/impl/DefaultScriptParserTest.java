@@ -22,7 +22,9 @@ import org.junit.jupiter.api.Test;
 import java.io.StringReader;
 import java.util.Properties;
 
+import static org.apache.commons.lang3.StringUtils.repeat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -122,6 +124,27 @@ class DefaultScriptParserTest extends ScriptParserTestBase {
                 "statement\ron\r\nmultiple\nlines;");
     }
 
+    @Test
+    void carriageReturnAndNewLineInDifferentBlocks() {
+        // the \r is the last character of the first block that is read, the \n the first character of the second block
+        String literal = "'" + repeat('x', DefaultScriptParser.BUFFER_SIZE - 10) + "'";
+        assertTwoStatementsEqualTo("select " + literal + "\nfrom dual", "second statement",
+                "select " + literal + "\r\nfrom dual;second statement;");
+    }
+
+    @Test
+    void manyStatementsSpanningMultipleBlocks() {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            script.append("insert into table1 values (").append(i).append(", 'a ; b');\r\n");
+        }
+        ScriptParser parser = createScriptParser(new StringReader(script.toString()));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("insert into table1 values (" + i + ", 'a ; b')", parser.getNextStatement().trim());
+        }
+        assertNull(parser.getNextStatement());
+    }
+
     @Test
     void replaceParameters() {
         Properties scriptParameters = new Properties();
@@ -130,4 +153,23 @@ class DefaultScriptParserTest extends ScriptParserTestBase {
                 "parameter ${param0} must not be replaced, parameter ${param1} must be replaced;"), scriptParameters);
         assertEquals("parameter ${param0} must not be replaced, parameter param1Value must be replaced", parser.getNextStatement());
     }
+
+    @Test
+    void replaceParametersInSinglePass() {
+        Properties scriptParameters = new Properties();
+        scriptParameters.put("a", "x");
+        scriptParameters.put("b_2", "${a}");
+        ScriptParser parser = createScriptParser(new StringReader(
+                "${a}${b_2} $${a} ${ ${} ${a ${${a}} ${a-b};\nno parameters ${;"), scriptParameters);
+        assertEquals("x${a} $x ${ ${} ${a ${x} ${a-b}", parser.getNextStatement());
+        assertEquals("no parameters ${", parser.getNextStatement().trim());
+    }
+
+    @Test
+    void replaceParametersWithLiteralValue() {
+        Properties scriptParameters = new Properties();
+        scriptParameters.put("dir", "C:\\data\\$1");
+        ScriptParser parser = createScriptParser(new StringReader("load '${dir}';"), scriptParameters);
+        assertEquals("load 'C:\\data\\$1'", parser.getNextStatement());
+    }
 }
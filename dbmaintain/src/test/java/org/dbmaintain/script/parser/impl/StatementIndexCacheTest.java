@@ -0,0 +1,132 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.parser.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.dbmaintain.script.parser.ScriptParser;
+import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.util.DbMaintainException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+class StatementIndexCacheTest {
+
+    private static final String SCRIPT = "-- comment\r\ninsert into table1 values ('a ; b', '${param}');\r\n" +
+            "/* block ; comment */ update table1\rset col1 = 'x\r\ny'; \n-- trailing comment\n" +
+            "create or replace procedure proc1 as\nbegin\n  null;\nend;\n/\n" +
+            "delete from table1 -- last statement\n;";
+
+    private File cacheDirectory;
+    private StatementIndexCache statementIndexCache;
+    private Properties scriptParameters;
+
+
+    @BeforeEach
+    void init() throws IOException {
+        cacheDirectory = Files.createTempDirectory("statementindexcache").toFile();
+        statementIndexCache = new StatementIndexCache(cacheDirectory);
+        scriptParameters = new Properties();
+        scriptParameters.put("param", "value");
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(cacheDirectory);
+    }
+
+
+    @Test
+    void indexedStatementsSameAsParsedStatements() {
+        ScriptParserFactory scriptParserFactory = new OracleScriptParserFactory(false, scriptParameters);
+        List<String> expected = getStatements(scriptParserFactory.createScriptParser(new StringReader(SCRIPT)));
+
+        ScriptParser parser = statementIndexCache.createScriptParser(new StringReader(SCRIPT), scriptParserFactory);
+        assertFalse(parser instanceof IndexedScriptParser);
+        assertEquals(expected, getStatements(parser));
+
+        ScriptParser indexedParser = statementIndexCache.createScriptParser(new StringReader(SCRIPT), scriptParserFactory);
+        assertTrue(indexedParser instanceof IndexedScriptParser);
+        assertEquals(expected, getStatements(indexedParser));
+        assertEquals(4, expected.size());
+    }
+
+    @Test
+    void indexDependsOnContentAndParserType() {
+        getStatements(statementIndexCache.createScriptParser(new StringReader(SCRIPT), new OracleScriptParserFactory(false, null)));
+
+        assertFalse(statementIndexCache.createScriptParser(new StringReader(SCRIPT.replace("\r\n", "\n")), new OracleScriptParserFactory(false, null)) instanceof IndexedScriptParser);
+        assertFalse(statementIndexCache.createScriptParser(new StringReader(SCRIPT), new OracleScriptParserFactory(true, null)) instanceof IndexedScriptParser);
+        assertFalse(statementIndexCache.createScriptParser(new StringReader(SCRIPT), new DefaultScriptParserFactory(false, null)) instanceof IndexedScriptParser);
+        assertTrue(statementIndexCache.createScriptParser(new StringReader(SCRIPT), new OracleScriptParserFactory(false, null)) instanceof IndexedScriptParser);
+    }
+
+    @Test
+    void noIndexWhenParsingFailed() {
+        ScriptParserFactory scriptParserFactory = new DefaultScriptParserFactory(false, null);
+        ScriptParser parser = statementIndexCache.createScriptParser(new StringReader("insert into table1 values ('a"), scriptParserFactory);
+        assertThrows(DbMaintainException.class, () -> getStatements(parser));
+        assertEquals(0, cacheDirectory.list().length);
+    }
+
+    @Test
+    void scriptLongerThanMaxScriptLengthIsNotIndexed() {
+        ScriptParserFactory scriptParserFactory = new OracleScriptParserFactory(false, scriptParameters);
+        StatementIndexCache statementIndexCache = new StatementIndexCache(cacheDirectory, 20);
+        List<String> expected = getStatements(scriptParserFactory.createScriptParser(new StringReader(SCRIPT)));
+
+        assertEquals(expected, getStatements(statementIndexCache.createScriptParser(new StringReader(SCRIPT), scriptParserFactory)));
+        assertEquals(0, cacheDirectory.list().length);
+    }
+
+    @Test
+    void invalidIndexFileIsIgnored() throws IOException {
+        ScriptParserFactory scriptParserFactory = new DefaultScriptParserFactory(false, null);
+        getStatements(statementIndexCache.createScriptParser(new StringReader(SCRIPT), scriptParserFactory));
+        File[] indexFiles = cacheDirectory.listFiles();
+        assertEquals(1, indexFiles.length);
+        FileUtils.writeStringToFile(indexFiles[0], "invalid", StandardCharsets.ISO_8859_1);
+
+        ScriptParser parser = statementIndexCache.createScriptParser(new StringReader(SCRIPT), scriptParserFactory);
+        assertFalse(parser instanceof IndexedScriptParser);
+        assertEquals(getStatements(scriptParserFactory.createScriptParser(new StringReader(SCRIPT))), getStatements(parser));
+    }
+
+
+    private List<String> getStatements(ScriptParser scriptParser) {
+        List<String> statements = new ArrayList<>();
+        String statement;
+        while ((statement = scriptParser.getNextStatement()) != null) {
+            statements.add(statement);
+        }
+        return statements;
+    }
+}
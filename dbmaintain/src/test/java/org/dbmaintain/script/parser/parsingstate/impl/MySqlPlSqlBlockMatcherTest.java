@@ -0,0 +1,67 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.parser.parsingstate.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+class MySqlPlSqlBlockMatcherTest {
+
+    private MySqlPlSqlBlockMatcher matcher = new MySqlPlSqlBlockMatcher();
+
+
+    @Test
+    void isStartOfPlSqlBlock() {
+        assertIsStartOfPlSqlBlock("CREATE FUNCTION", "CREATE PROCEDURE", "CREATE TRIGGER", "BEGIN");
+        assertIsNotStartOfPlSqlBlock("CREATE OR REPLACE PROCEDURE", "CREATE TABLE", "CREATE PROC", "CREATE PROCEDURE X", " BEGIN", "BEGINNING");
+    }
+
+    @Test
+    void definer() {
+        assertIsStartOfPlSqlBlock("CREATE DEFINER=`USER`@`%` FUNCTION", "CREATE DEFINER=CURRENT_USER PROCEDURE",
+                "CREATE DEFINER=`USER`@`LOCALHOST` TRIGGER");
+        assertIsNotStartOfPlSqlBlock("CREATE DEFINER=", "CREATE DEFINER=`USER`@`%`", "CREATE DEFINER=`USER`@`%` PROCEDURE X",
+                "CREATE DEFINER=`USER`@`%` VIEW");
+    }
+
+    @Test
+    void longStatement() {
+        StringBuilder statement = new StringBuilder("INSERT INTO TABLE VALUES ");
+        for (int i = 0; i < 100000; i++) {
+            statement.append("(1, 'VALUE'), ");
+        }
+        assertIsNotStartOfPlSqlBlock(statement.toString());
+    }
+
+
+    private void assertIsStartOfPlSqlBlock(String... statements) {
+        for (String statement : statements) {
+            assertTrue(matcher.isStartOfPlSqlBlock(new StringBuilder(statement)), statement);
+        }
+    }
+
+    private void assertIsNotStartOfPlSqlBlock(String... statements) {
+        for (String statement : statements) {
+            assertFalse(matcher.isStartOfPlSqlBlock(new StringBuilder(statement)), statement);
+        }
+    }
+}
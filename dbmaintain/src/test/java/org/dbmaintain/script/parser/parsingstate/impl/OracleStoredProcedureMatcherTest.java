@@ -47,6 +47,7 @@ class OracleStoredProcedureMatcherTest {
                 "CREATE OR REPLACE PROCEDURE", "CREATE TRIGGER", "CREATE OR REPLACE TRIGGER", "CREATE TYPE",
                 "CREATE OR REPLACE TYPE", "DECLARE", "BEGIN");
         assertIsNotStartOfStoredProcedure(" CREATE PACKAGE", "CREATE  PACKAGE", "CREATE PACKAGE SOMETHING", "CREATE\nPACKAGE");
+        assertIsNotStartOfStoredProcedure("", "CREATE", "CREATE PACK", "CREATE OR REPLACE", "DECLAREX", "CREATE OR REPLACE PACKAGES");
     }
 
     private void assertIsStartOfStoredProcedure(String... testStrings) {
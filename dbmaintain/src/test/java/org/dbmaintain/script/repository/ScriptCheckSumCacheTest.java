@@ -0,0 +1,141 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.repository;
+
+import org.apache.commons.io.FileUtils;
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.qualifier.Qualifier;
+import org.dbmaintain.script.repository.impl.FileSystemScriptLocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+class ScriptCheckSumCacheTest {
+
+    private File scriptRootLocation;
+    private File cacheDirectory;
+    private File scriptFile;
+
+
+    @BeforeEach
+    void init() throws IOException {
+        scriptRootLocation = Files.createTempDirectory("scripts").toFile();
+        cacheDirectory = Files.createTempDirectory("checksumcache").toFile();
+        scriptFile = new File(scriptRootLocation, "01_script.sql");
+        FileUtils.writeStringToFile(scriptFile, "create table test (id int);", StandardCharsets.ISO_8859_1);
+        assertTrue(scriptFile.setLastModified(System.currentTimeMillis() - 60000));
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(scriptRootLocation);
+        FileUtils.deleteDirectory(cacheDirectory);
+    }
+
+
+    @Test
+    void checkSumIsReadFromCache() {
+        ScriptLocation scriptLocation = createFileSystemLocation();
+        Script script = getScript(scriptLocation);
+        assertFalse(script.isCheckSumCalculated());
+        String checkSum = script.getCheckSum();
+        scriptLocation.storeCheckSumCache();
+
+        Script cachedScript = getScript(createFileSystemLocation());
+        assertTrue(cachedScript.isCheckSumCalculated());
+        assertEquals(checkSum, cachedScript.getCheckSum());
+    }
+
+    @Test
+    void checkSumIsRecalculatedWhenScriptChanged() throws IOException {
+        ScriptLocation scriptLocation = createFileSystemLocation();
+        getScript(scriptLocation).getCheckSum();
+        scriptLocation.storeCheckSumCache();
+
+        FileUtils.writeStringToFile(scriptFile, "create table other_test (id int);", StandardCharsets.ISO_8859_1);
+        assertTrue(scriptFile.setLastModified(scriptFile.lastModified() + 2000));
+
+        Script changedScript = getScript(createFileSystemLocation());
+        assertFalse(changedScript.isCheckSumCalculated());
+    }
+
+    @Test
+    void checkSumIsNotCachedWhenScriptWasModifiedWithinModificationTimeGranularity() {
+        assertTrue(scriptFile.setLastModified(System.currentTimeMillis()));
+        ScriptLocation scriptLocation = createFileSystemLocation();
+        getScript(scriptLocation).getCheckSum();
+        scriptLocation.storeCheckSumCache();
+
+        Script script = getScript(createFileSystemLocation());
+        assertFalse(script.isCheckSumCalculated());
+    }
+
+    @Test
+    void corruptCacheFileIsIgnored() throws IOException {
+        ScriptLocation scriptLocation = createFileSystemLocation();
+        getScript(scriptLocation).getCheckSum();
+        scriptLocation.storeCheckSumCache();
+        File cacheFile = new File(cacheDirectory, cacheDirectory.list()[0]);
+        FileUtils.writeStringToFile(cacheFile, "xx", StandardCharsets.ISO_8859_1);
+
+        Script script = getScript(createFileSystemLocation());
+        assertFalse(script.isCheckSumCalculated());
+    }
+
+    @Test
+    void temporaryFileOfOtherRunIsNotOverwritten() throws IOException {
+        ScriptLocation scriptLocation = createFileSystemLocation();
+        getScript(scriptLocation).getCheckSum();
+        scriptLocation.storeCheckSumCache();
+        File cacheFile = new File(cacheDirectory, cacheDirectory.list()[0]);
+        File otherTempFile = new File(cacheDirectory, cacheFile.getName() + ".tmp");
+        FileUtils.writeStringToFile(otherTempFile, "xx", StandardCharsets.ISO_8859_1);
+
+        assertTrue(scriptFile.setLastModified(scriptFile.lastModified() + 2000));
+        ScriptLocation changedScriptLocation = createFileSystemLocation();
+        getScript(changedScriptLocation).getCheckSum();
+        changedScriptLocation.storeCheckSumCache();
+
+        assertEquals("xx", FileUtils.readFileToString(otherTempFile, StandardCharsets.ISO_8859_1));
+        assertEquals(2, cacheDirectory.list().length);
+        assertTrue(getScript(createFileSystemLocation()).isCheckSumCalculated());
+    }
+
+
+    private Script getScript(ScriptLocation scriptLocation) {
+        return scriptLocation.getScripts().first();
+    }
+
+    private FileSystemScriptLocation createFileSystemLocation() {
+        return new FileSystemScriptLocation(scriptRootLocation, "ISO-8859-1", "preprocessing", "postprocessing", Collections.emptySet(),
+                Collections.singleton(new Qualifier("patch")), "^([0-9]+)_", "(?:\\\\G|_)@([a-zA-Z0-9]+)_", "(?:\\\\G|_)#([a-zA-Z0-9]+)_",
+                Collections.singleton("sql"), null, false, cacheDirectory);
+    }
+}
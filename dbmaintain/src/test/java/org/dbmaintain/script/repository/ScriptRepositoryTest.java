@@ -28,6 +28,8 @@ import static org.dbmaintain.util.TestUtils.createArchiveScriptLocation;
 import static org.dbmaintain.util.TestUtils.createScript;
 import static org.dbmaintain.util.TestUtils.getTrivialQualifierEvaluator;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -79,6 +81,27 @@ class ScriptRepositoryTest {
                 scriptRepository.getPostProcessingScripts());
     }
 
+    @Test
+    void lookupScripts() {
+        ScriptRepository scriptRepository = new ScriptRepository(
+                Stream.of(scriptLocation1, scriptLocation2).collect(Collectors.toSet()), getTrivialQualifierEvaluator());
+
+        assertSame(repeatable2, scriptRepository.getScript("repeatable2.sql"));
+        assertSame(preProcessing1, scriptRepository.getScript("preprocessing/01_pre1.sql"));
+        assertNull(scriptRepository.getScript("xxx.sql"));
+        assertSame(indexed2, scriptRepository.getScript(indexed2.getScriptIndexes()));
+    }
+
+    @Test
+    void scriptSetsCannotBeModified() {
+        ScriptRepository scriptRepository = new ScriptRepository(
+                Stream.of(scriptLocation1, scriptLocation2).collect(Collectors.toSet()), getTrivialQualifierEvaluator());
+
+        assertEquals(8, scriptRepository.getAllScripts().size());
+        assertSame(scriptRepository.getAllScripts(), scriptRepository.getAllScripts());
+        assertThrows(UnsupportedOperationException.class, () -> scriptRepository.getAllUpdateScripts().add(duplicateIndex));
+    }
+
     @Test
     void errorInCaseOfDuplicateScript() {
         ScriptLocation location = createArchiveScriptLocation(
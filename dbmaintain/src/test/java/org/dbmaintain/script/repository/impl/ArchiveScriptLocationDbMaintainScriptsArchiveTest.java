@@ -18,22 +18,33 @@ package org.dbmaintain.script.repository.impl;
 import org.dbmaintain.script.Script;
 import org.dbmaintain.script.qualifier.Qualifier;
 import org.dbmaintain.script.repository.ScriptLocation;
+import org.dbmaintain.util.DbMaintainException;
 import org.dbmaintain.util.TestUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.apache.commons.io.IOUtils;
+
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import static java.io.File.createTempFile;
 import static java.util.Collections.singleton;
 import static org.apache.commons.io.IOUtils.contentEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -56,40 +67,72 @@ class ArchiveScriptLocationDbMaintainScriptsArchiveTest {
 
     @Test
     void writeToJarThenRereadFromJarAndEnsureContentIsEqual() throws IOException {
-        ArchiveScriptLocation originalScriptArchive = new ArchiveScriptLocation(
-                scripts,
-                "ISO-8859-1",
-                "preprocessing",
-                "postprocessing",
-                Stream.of(new Qualifier("qualifier1"), new Qualifier("qualifier2")).collect(Collectors.toSet()),
-                singleton(new Qualifier("patch")),
-                "^([0-9]+)_",
-                "(?:\\\\G|_)@([a-zA-Z0-9]+)_",
-                "(?:\\\\G|_)#([a-zA-Z0-9]+)_",
-                Stream.of("sql", "ddl").collect(Collectors.toSet()),
-                null,
-                false);
+        ArchiveScriptLocation originalScriptArchive = createArchiveScriptLocation();
         originalScriptArchive.writeToJarFile(jarFile);
 
-        ArchiveScriptLocation scriptArchiveFromFile = new ArchiveScriptLocation(
-                jarFile,
-                "ISO-8859-1",
-                "preprocessing",
-                "postprocessing",
-                Stream.of(new Qualifier("qualifier1"), new Qualifier("qualifier2")).collect(Collectors.toSet()),
-                singleton(new Qualifier("patch")),
-                "^([0-9]+)_",
-                "(?:\\\\G|_)@([a-zA-Z0-9]+)_",
-                "(?:\\\\G|_)#([a-zA-Z0-9]+)_",
-                Stream.of("sql", "ddl").collect(Collectors.toSet()),
-                null,
-                false);
+        ArchiveScriptLocation scriptArchiveFromFile = createArchiveScriptLocationFromFile(jarFile);
 
         // Make sure the content of the original ScriptJar object is equal to the one reloaded from the jar file
         assertEqualProperties(originalScriptArchive, scriptArchiveFromFile);
         assertEqualScripts(originalScriptArchive.getScripts(), scriptArchiveFromFile.getScripts());
     }
 
+    @Test
+    void archiveIsClosedAfterLoadingTheScriptsAndOnlyReadAgainForTheContent() {
+        createArchiveScriptLocation().writeToJarFile(jarFile);
+
+        ArchiveScriptLocation scriptArchiveFromFile = createArchiveScriptLocationFromFile(jarFile);
+        assertTrue(jarFile.delete());
+
+        // the check sums and sizes are known without reading the content
+        Iterator<Script> scriptsIterator = scripts.iterator();
+        for (Script scriptFromFile : scriptArchiveFromFile.getScripts()) {
+            assertEquals(scriptsIterator.next().getCheckSum(), scriptFromFile.getCheckSum());
+            assertEquals(16L, (long) scriptFromFile.getScriptContentHandle().getScriptSize());
+        }
+        Script scriptFromFile = scriptArchiveFromFile.getScripts().first();
+        assertThrows(DbMaintainException.class, () -> scriptFromFile.getScriptContentHandle().openScriptContentReader());
+    }
+
+    @Test
+    void checkSumsAreReadFromArchive() {
+        createArchiveScriptLocation().writeToJarFile(jarFile);
+
+        ArchiveScriptLocation scriptArchiveFromFile = createArchiveScriptLocationFromFile(jarFile);
+
+        Iterator<Script> scriptsIterator = scripts.iterator();
+        for (Script scriptFromFile : scriptArchiveFromFile.getScripts()) {
+            assertTrue(scriptFromFile.isCheckSumCalculated());
+            assertEquals(scriptsIterator.next().getCheckSum(), scriptFromFile.getCheckSum());
+        }
+    }
+
+    @Test
+    void checkSumIgnoredWhenEntryWasChanged() throws IOException {
+        createArchiveScriptLocation().writeToJarFile(jarFile);
+        File changedJarFile = createTempFile("changedscriptjar", ".jar");
+        try (ZipFile zipFile = new ZipFile(jarFile); ZipOutputStream out = new ZipOutputStream(new FileOutputStream(changedJarFile))) {
+            for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements(); ) {
+                ZipEntry entry = entries.nextElement();
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                if ("folder1/script1.sql".equals(entry.getName())) {
+                    out.write("Changed content".getBytes(StandardCharsets.ISO_8859_1));
+                } else {
+                    IOUtils.copy(zipFile.getInputStream(entry), out);
+                }
+                out.closeEntry();
+            }
+        }
+
+        ArchiveScriptLocation scriptArchiveFromFile = createArchiveScriptLocationFromFile(changedJarFile);
+
+        Iterator<Script> scriptsFromFile = scriptArchiveFromFile.getScripts().iterator();
+        assertFalse(scriptsFromFile.next().isCheckSumCalculated());
+        assertTrue(scriptsFromFile.next().isCheckSumCalculated());
+        changedJarFile.delete();
+    }
+
+
     private void assertEqualScripts(SortedSet<Script> originalScripts, SortedSet<Script> scriptsFromFile) throws IOException {
         Iterator<Script> scriptsFromFileIterator = scriptsFromFile.iterator();
         for (Script originalScript : originalScripts) {
@@ -118,4 +161,35 @@ class ArchiveScriptLocationDbMaintainScriptsArchiveTest {
 
     }
 
+    private ArchiveScriptLocation createArchiveScriptLocation() {
+        return new ArchiveScriptLocation(
+                scripts,
+                "ISO-8859-1",
+                "preprocessing",
+                "postprocessing",
+                Stream.of(new Qualifier("qualifier1"), new Qualifier("qualifier2")).collect(Collectors.toSet()),
+                singleton(new Qualifier("patch")),
+                "^([0-9]+)_",
+                "(?:\\\\G|_)@([a-zA-Z0-9]+)_",
+                "(?:\\\\G|_)#([a-zA-Z0-9]+)_",
+                Stream.of("sql", "ddl").collect(Collectors.toSet()),
+                null,
+                false);
+    }
+
+    private ArchiveScriptLocation createArchiveScriptLocationFromFile(File jarFile) {
+        return new ArchiveScriptLocation(
+                jarFile,
+                "ISO-8859-1",
+                "preprocessing",
+                "postprocessing",
+                Stream.of(new Qualifier("qualifier1"), new Qualifier("qualifier2")).collect(Collectors.toSet()),
+                singleton(new Qualifier("patch")),
+                "^([0-9]+)_",
+                "(?:\\\\G|_)@([a-zA-Z0-9]+)_",
+                "(?:\\\\G|_)#([a-zA-Z0-9]+)_",
+                Stream.of("sql", "ddl").collect(Collectors.toSet()),
+                null,
+                false);
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.repository.impl;
+
+import org.apache.commons.io.IOUtils;
+import org.dbmaintain.util.DbMaintainException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+class ScriptArchiveTest {
+
+    private File zipFile;
+    private File storedZipFile;
+
+    @BeforeEach
+    void init() throws Exception {
+        zipFile = new File(getClass().getResource("test-scripts.zip").toURI());
+        storedZipFile = File.createTempFile("stored", ".zip");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        storedZipFile.delete();
+    }
+
+
+    @Test
+    void sameEntriesAsZipFile() throws Exception {
+        try (ScriptArchive scriptArchive = new ScriptArchive(zipFile); ZipFile expectedZipFile = new ZipFile(zipFile)) {
+            assertEquals(expectedZipFile.size(), scriptArchive.getEntries().size());
+            for (Enumeration<? extends ZipEntry> zipEntries = expectedZipFile.entries(); zipEntries.hasMoreElements(); ) {
+                ZipEntry zipEntry = zipEntries.nextElement();
+                ZipEntry entry = scriptArchive.getEntry(zipEntry.getName());
+
+                assertNotNull(entry);
+                assertEquals(zipEntry.getTime(), entry.getTime());
+                assertEquals(zipEntry.getSize(), entry.getSize());
+                assertEquals(zipEntry.getCrc(), entry.getCrc());
+                try (InputStream expected = expectedZipFile.getInputStream(zipEntry)) {
+                    assertArrayEquals(IOUtils.toByteArray(expected), scriptArchive.getContent(entry));
+                }
+            }
+        }
+    }
+
+    @Test
+    void archiveIsNotKeptOpenAfterClose() throws Exception {
+        byte[] content = "create table test (id int);".getBytes(StandardCharsets.ISO_8859_1);
+        writeStoredZipFile("01_script.sql", content);
+        ScriptArchive scriptArchive = new ScriptArchive(storedZipFile);
+
+        ZipEntry entry = scriptArchive.getEntry("01_script.sql");
+        assertArrayEquals(content, scriptArchive.getContent(entry));
+        scriptArchive.close();
+
+        assertThrows(DbMaintainException.class, () -> scriptArchive.getContent(entry));
+        assertTrue(storedZipFile.delete());
+    }
+
+    @Test
+    void notAnArchive() throws Exception {
+        try (FileOutputStream out = new FileOutputStream(storedZipFile)) {
+            out.write("not a zip file".getBytes(StandardCharsets.ISO_8859_1));
+        }
+        assertThrows(DbMaintainException.class, () -> new ScriptArchive(storedZipFile));
+    }
+
+
+    private void writeStoredZipFile(String name, byte[] content) throws Exception {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(storedZipFile))) {
+            ZipEntry zipEntry = new ZipEntry(name);
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(content.length);
+            zipEntry.setCrc(crc.getValue());
+            out.putNextEntry(zipEntry);
+            out.write(content);
+            out.closeEntry();
+        }
+    }
+}
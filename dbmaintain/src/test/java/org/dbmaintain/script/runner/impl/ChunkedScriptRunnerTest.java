@@ -0,0 +1,228 @@
+/*
+ * Copyright DbMaintain.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dbmaintain.script.runner.impl;
+
+import org.dbmaintain.database.Databases;
+import org.dbmaintain.database.SQLHandler;
+import org.dbmaintain.database.impl.DefaultSQLHandler;
+import org.dbmaintain.script.ExecutedScript;
+import org.dbmaintain.script.Script;
+import org.dbmaintain.script.executedscriptinfo.impl.DefaultExecutedScriptInfoSource;
+import org.dbmaintain.script.parser.ScriptParserFactory;
+import org.dbmaintain.script.parser.impl.DefaultScriptParserFactory;
+import org.dbmaintain.util.DbMaintainException;
+import org.dbmaintain.util.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.dbmaintain.util.SQLTestUtils.executeUpdate;
+import static org.dbmaintain.util.SQLTestUtils.executeUpdateQuietly;
+import static org.dbmaintain.util.SQLTestUtils.getItemAsLong;
+import static org.dbmaintain.util.TestUtils.createScriptWithContent;
+import static org.dbmaintain.util.TestUtils.getDefaultExecutedScriptInfoSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+class ChunkedScriptRunnerTest {
+
+    private static final String KEY_RANGE_SCRIPT = "select min(id), max(id) from big_table;\n" +
+            "update big_table set flag = 1 where id >= ${chunkStart} and id < ${chunkEnd};";
+    private static final String ROW_LIMIT_SCRIPT = "update big_table set flag = 1 where id in (select id from big_table where flag is null order by id limit ${chunkSize});";
+
+    /* The tested object */
+    private ChunkedScriptRunner chunkedScriptRunner;
+
+    private DataSource dataSource;
+    private SQLHandler sqlHandler;
+    private DefaultExecutedScriptInfoSource executedScriptInfoSource;
+
+
+    @BeforeEach
+    void initialize() {
+        Databases databases = TestUtils.getDatabases();
+        dataSource = databases.getDefaultDatabase().getDataSource();
+        sqlHandler = new DefaultSQLHandler();
+        executedScriptInfoSource = getDefaultExecutedScriptInfoSource(databases.getDefaultDatabase(), true, false, null, sqlHandler);
+
+        Map<String, ScriptParserFactory> databaseDialectScriptParserClassMap = new HashMap<>();
+        databaseDialectScriptParserClassMap.put("hsqldb", new DefaultScriptParserFactory(false, null));
+        chunkedScriptRunner = new ChunkedScriptRunner(databaseDialectScriptParserClassMap, databases, sqlHandler, executedScriptInfoSource, 10);
+
+        cleanupTestDatabase();
+        executeUpdate("create table big_table (id integer, flag integer)", dataSource);
+        for (int i = 1; i <= 25; i++) {
+            executeUpdate("insert into big_table (id) values (" + i + ")", dataSource);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        cleanupTestDatabase();
+    }
+
+
+    @Test
+    void keyRangeChunks() {
+        Script script = registerScript("1_migration.chunked.sql", KEY_RANGE_SCRIPT);
+
+        int nrOfStatements = chunkedScriptRunner.execute(script);
+
+        assertEquals(4, nrOfStatements);
+        assertEquals(25, getItemAsLong("select count(1) from big_table where flag = 1", dataSource));
+        assertEquals(Long.valueOf(31), executedScriptInfoSource.getChunkCheckpoint(script));
+    }
+
+    @Test
+    void rowLimitChunks() {
+        Script script = registerScript("1_migration.chunked.sql", ROW_LIMIT_SCRIPT);
+
+        int nrOfStatements = chunkedScriptRunner.execute(script);
+
+        assertEquals(4, nrOfStatements);
+        assertEquals(25, getItemAsLong("select count(1) from big_table where flag = 1", dataSource));
+        assertEquals(Long.valueOf(25), executedScriptInfoSource.getChunkCheckpoint(script));
+    }
+
+    @Test
+    void resumeFromCheckpoint() {
+        Script script = registerScript("1_migration.chunked.sql", KEY_RANGE_SCRIPT);
+        executedScriptInfoSource.updateChunkCheckpoint(script, 11L);
+
+        int nrOfStatements = chunkedScriptRunner.execute(script);
+
+        assertEquals(3, nrOfStatements);
+        assertEquals(15, getItemAsLong("select count(1) from big_table where flag = 1", dataSource));
+        assertEquals(0, getItemAsLong("select count(1) from big_table where flag = 1 and id < 11", dataSource));
+    }
+
+    @Test
+    void failingChunkKeepsPreviousChunksAndCheckpoint() {
+        Script script = registerScript("1_migration.chunked.sql", "select min(id), max(id) from big_table;\n" +
+                "update big_table set flag = 1 / (id - 15) where id >= ${chunkStart} and id < ${chunkEnd};");
+
+        assertThrows(DbMaintainException.class, () -> chunkedScriptRunner.execute(script));
+
+        assertEquals(10, getItemAsLong("select count(1) from big_table where flag is not null", dataSource));
+        assertEquals(0, getItemAsLong("select count(1) from big_table where flag is not null and id >= 11", dataSource));
+        assertEquals(Long.valueOf(11), executedScriptInfoSource.getChunkCheckpoint(script));
+    }
+
+    @Test
+    void sparseKeysSkipToNextKey() {
+        executeUpdate("insert into big_table (id) values (1000000)", dataSource);
+        Script script = registerScript("1_migration.chunked.sql", "select min(id), max(id) from big_table where id >= ${chunkStart};\n" +
+                "update big_table set flag = 1 where id >= ${chunkStart} and id < ${chunkEnd};");
+
+        int nrOfStatements = chunkedScriptRunner.execute(script);
+
+        assertEquals(7, nrOfStatements);
+        assertEquals(26, getItemAsLong("select count(1) from big_table where flag = 1", dataSource));
+        assertEquals(Long.valueOf(1000010), executedScriptInfoSource.getChunkCheckpoint(script));
+    }
+
+    @Test
+    void keysNearMaximumValue() {
+        executeUpdate("create table big_keys (id bigint, flag integer)", dataSource);
+        executeUpdate("insert into big_keys (id) values (" + (Long.MAX_VALUE - 5) + ")", dataSource);
+        executeUpdate("insert into big_keys (id) values (" + (Long.MAX_VALUE - 1) + ")", dataSource);
+        Script script = registerScript("1_migration.chunked.sql", "select min(id), max(id) from big_keys;\n" +
+                "update big_keys set flag = 1 where id >= ${chunkStart} and id < ${chunkEnd};");
+
+        int nrOfStatements = chunkedScriptRunner.execute(script);
+
+        assertEquals(2, nrOfStatements);
+        assertEquals(2, getItemAsLong("select count(1) from big_keys where flag = 1", dataSource));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), executedScriptInfoSource.getChunkCheckpoint(script));
+    }
+
+    @Test
+    void maximumValueAsKey() {
+        executeUpdate("create table big_keys (id bigint, flag integer)", dataSource);
+        executeUpdate("insert into big_keys (id) values (" + Long.MAX_VALUE + ")", dataSource);
+        Script script = registerScript("1_migration.chunked.sql", "select min(id), max(id) from big_keys;\n" +
+                "update big_keys set flag = 1 where id >= ${chunkStart} and id < ${chunkEnd};");
+
+        assertThrows(DbMaintainException.class, () -> chunkedScriptRunner.execute(script));
+    }
+
+    @Test
+    void checkpointUpdateIsPartOfTransaction() {
+        Script script = registerScript("1_migration.chunked.sql", KEY_RANGE_SCRIPT);
+
+        sqlHandler.startTransaction(dataSource);
+        executedScriptInfoSource.updateChunkCheckpoint(script, 11L);
+        sqlHandler.endTransactionAndRollback(dataSource);
+
+        assertNull(executedScriptInfoSource.getChunkCheckpoint(script));
+    }
+
+    @Test
+    void noKeys() {
+        executeUpdate("delete from big_table", dataSource);
+        Script script = registerScript("1_migration.chunked.sql", KEY_RANGE_SCRIPT);
+
+        assertEquals(1, chunkedScriptRunner.execute(script));
+        assertNull(executedScriptInfoSource.getChunkCheckpoint(script));
+    }
+
+    @Test
+    void rowLimitStatementWithoutChunkSize() {
+        Script script = registerScript("1_migration.chunked.sql", "update big_table set flag = 1 where flag is null;");
+
+        DbMaintainException e = assertThrows(DbMaintainException.class, () -> chunkedScriptRunner.execute(script));
+        assertEquals("Unable to execute chunked script 1_migration.chunked.sql. The statement must contain the parameter ${chunkSize} to limit the rows of a chunk: " +
+                "update big_table set flag = 1 where flag is null", e.getMessage());
+        assertEquals(0, getItemAsLong("select count(1) from big_table where flag = 1", dataSource));
+    }
+
+    @Test
+    void tooManyStatements() {
+        Script script = registerScript("1_migration.chunked.sql", KEY_RANGE_SCRIPT + "\ndelete from big_table;");
+
+        assertThrows(DbMaintainException.class, () -> chunkedScriptRunner.execute(script));
+        assertEquals(25, getItemAsLong("select count(1) from big_table", dataSource));
+    }
+
+    @Test
+    void notExecutedInDefaultDatabaseTransaction() {
+        assertFalse(chunkedScriptRunner.isExecutedInDefaultDatabaseTransaction(createScriptWithContent("1_migration.chunked.sql", ROW_LIMIT_SCRIPT)));
+    }
+
+
+    private Script registerScript(String fileName, String scriptContent) {
+        Script script = createScriptWithContent(fileName, scriptContent);
+        executedScriptInfoSource.registerExecutedScript(new ExecutedScript(script, new Date(), false));
+        return script;
+    }
+
+    private void cleanupTestDatabase() {
+        executeUpdateQuietly("drop table big_table", dataSource);
+        executeUpdateQuietly("drop table big_keys", dataSource);
+        executeUpdateQuietly("drop table dbmaintain_scripts", dataSource);
+    }
+}
@@ -0,0 +1,4 @@
+insert into table1 (col1) values (1);
+insert into table1 (col1) values (2);
+insert into unknown_table (col1) values (3);
+insert into table1 (col1) values (4);
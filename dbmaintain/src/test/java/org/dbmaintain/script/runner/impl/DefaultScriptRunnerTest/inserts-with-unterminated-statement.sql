@@ -0,0 +1,3 @@
+insert into table1 (col1) values (1);
+insert into table1 (col1) values (2);
+insert into table1 (col1) values (3)
@@ -15,6 +15,7 @@
  */
 package org.dbmaintain.script.runner.impl;
 
+import org.apache.commons.io.FileUtils;
 import org.dbmaintain.database.Databases;
 import org.dbmaintain.database.impl.DefaultSQLHandler;
 import org.dbmaintain.script.Script;
@@ -22,6 +23,7 @@ import org.dbmaintain.script.ScriptContentHandle;
 import org.dbmaintain.script.ScriptFactory;
 import org.dbmaintain.script.parser.ScriptParserFactory;
 import org.dbmaintain.script.parser.impl.DefaultScriptParserFactory;
+import org.dbmaintain.script.parser.impl.StatementIndexCache;
 import org.dbmaintain.util.DbMaintainException;
 import org.dbmaintain.util.TestUtils;
 import org.junit.jupiter.api.AfterEach;
@@ -29,6 +31,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -37,6 +42,7 @@ import static org.dbmaintain.util.SQLTestUtils.getItemAsLong;
 import static org.dbmaintain.util.SQLTestUtils.isEmpty;
 import static org.dbmaintain.util.TestUtils.createScriptFactory;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -69,6 +75,10 @@ class JdbcScriptRunnerTest {
     private Script scriptWithQuery;
     /* An empty test script */
     private Script emptyScript;
+    /* A test script performing inserts of which the last statement is not terminated */
+    private Script insertsWithUnterminatedStatement;
+
+    private Script insertsWithFailingInsert;
 
 
     @BeforeEach
@@ -88,6 +98,8 @@ class JdbcScriptRunnerTest {
         insertsWithRollback = createScript("inserts-with-rollback.sql");
         scriptWithQuery = createScript("script-with-query.sql");
         emptyScript = createScript("empty-script.sql");
+        insertsWithUnterminatedStatement = createScript("inserts-with-unterminated-statement.sql");
+        insertsWithFailingInsert = createScript("inserts-with-failing-insert.sql");
 
         cleanupTestDatabase();
     }
@@ -119,11 +131,21 @@ class JdbcScriptRunnerTest {
     @Test
     void commitScriptIfNoErrorOccurs() {
         defaultScriptRunner.execute(script1);
-        defaultScriptRunner.execute(insertsWithoutError);
+        int nrOfStatements = defaultScriptRunner.execute(insertsWithoutError);
 
+        assertEquals(3, nrOfStatements);
         assertEquals(3, getItemAsLong("select count(1) from table1", dataSource));
     }
 
+    @Test
+    void rollbackScriptWhenBeforeCommitFails() {
+        defaultScriptRunner.execute(script1);
+        assertThrows(DbMaintainException.class, () -> defaultScriptRunner.execute(insertsWithoutError, nrOfStatements -> {
+            throw new DbMaintainException("error in callback");
+        }));
+        assertTrue(isEmpty("table1", dataSource), "All inserts should have been rolled back");
+    }
+
     @Test
     void scriptThatContainsCommit() {
         defaultScriptRunner.execute(script1);
@@ -147,7 +169,97 @@ class JdbcScriptRunnerTest {
 
     @Test
     void emptyScript() {
-        defaultScriptRunner.execute(emptyScript);
+        assertEquals(0, defaultScriptRunner.execute(emptyScript));
+    }
+
+    @Test
+    void pipelinedCommitScriptIfNoErrorOccurs() {
+        JdbcScriptRunner pipelinedScriptRunner = createPipelinedScriptRunner();
+        pipelinedScriptRunner.execute(script1);
+        int nrOfStatements = pipelinedScriptRunner.execute(insertsWithoutError);
+
+        assertEquals(3, nrOfStatements);
+        assertEquals(3, getItemAsLong("select count(1) from table1", dataSource));
+    }
+
+    @Test
+    void pipelinedRollbackScriptWhenErrorOccurs() {
+        JdbcScriptRunner pipelinedScriptRunner = createPipelinedScriptRunner();
+        pipelinedScriptRunner.execute(script1);
+        assertThrows(DbMaintainException.class, () -> pipelinedScriptRunner.execute(insertsWithError));
+        assertTrue(isEmpty("table1", dataSource), "All inserts should have been rolled back");
+    }
+
+    @Test
+    void pipelinedRollbackScriptWhenParsingFails() {
+        JdbcScriptRunner pipelinedScriptRunner = createPipelinedScriptRunner();
+        pipelinedScriptRunner.execute(script1);
+        DbMaintainException e = assertThrows(DbMaintainException.class, () -> pipelinedScriptRunner.execute(insertsWithUnterminatedStatement));
+        assertEquals("Last statement in script was not ended correctly.", e.getMessage());
+        assertTrue(isEmpty("table1", dataSource), "All inserts should have been rolled back");
+    }
+
+    @Test
+    void batchedCommitScriptIfNoErrorOccurs() {
+        JdbcScriptRunner batchingScriptRunner = createBatchingScriptRunner();
+        batchingScriptRunner.execute(script1);
+        int nrOfStatements = batchingScriptRunner.execute(insertsWithoutError);
+
+        assertEquals(3, nrOfStatements);
+        assertEquals(3, getItemAsLong("select count(1) from table1", dataSource));
+    }
+
+    @Test
+    void batchedScriptThatContainsCommitAndRollback() {
+        JdbcScriptRunner batchingScriptRunner = createBatchingScriptRunner();
+        batchingScriptRunner.execute(script1);
+        batchingScriptRunner.execute(insertsWithRollback);
+        assertEquals(1, getItemAsLong("select count(1) from table1", dataSource));
+
+        batchingScriptRunner.execute(insertsWithCommit);
+        assertEquals(4, getItemAsLong("select count(1) from table1", dataSource));
+    }
+
+    @Test
+    void batchedRollbackScriptWhenStatementInBatchFails() {
+        JdbcScriptRunner batchingScriptRunner = createBatchingScriptRunner();
+        batchingScriptRunner.execute(script1);
+        DbMaintainException e = assertThrows(DbMaintainException.class, () -> batchingScriptRunner.execute(insertsWithFailingInsert));
+        assertEquals("Could not perform database statement: \ninsert into unknown_table (col1) values (3)", e.getMessage());
+        assertTrue(isEmpty("table1", dataSource), "All inserts should have been rolled back");
+    }
+
+    @Test
+    void batchableStatements() {
+        assertTrue(defaultScriptRunner.isBatchableStatement("insert into table1 values (1)"));
+        assertTrue(defaultScriptRunner.isBatchableStatement("\n-- comment\n/* block */ UPDATE table1 set col1 = 1"));
+        assertTrue(defaultScriptRunner.isBatchableStatement("delete from table1 where returning_col = 1"));
+        assertFalse(defaultScriptRunner.isBatchableStatement("create table table1 (col1 smallint)"));
+        assertFalse(defaultScriptRunner.isBatchableStatement("inserted_rows"));
+        assertFalse(defaultScriptRunner.isBatchableStatement("select * from table1"));
+        assertFalse(defaultScriptRunner.isBatchableStatement("insert into table1 values (1) returning col1"));
+        assertFalse(defaultScriptRunner.isBatchableStatement("-- insert into table1 values (1)\ncommit"));
+    }
+
+    @Test
+    void scriptsAreExecutedAgainUsingStatementIndex() throws IOException {
+        File cacheDirectory = Files.createTempDirectory("statementindexcache").toFile();
+        try {
+            Map<String, ScriptParserFactory> databaseDialectScriptParserClassMap = new HashMap<>();
+            databaseDialectScriptParserClassMap.put("hsqldb", new DefaultScriptParserFactory(false, null));
+            JdbcScriptRunner indexingScriptRunner = new JdbcScriptRunner(databaseDialectScriptParserClassMap, TestUtils.getDatabases(), new DefaultSQLHandler(), 1, new StatementIndexCache(cacheDirectory));
+            indexingScriptRunner.execute(script1);
+            indexingScriptRunner.execute(insertsWithoutError);
+            assertEquals(2, cacheDirectory.list().length);
+
+            cleanupTestDatabase();
+            indexingScriptRunner.execute(script1);
+            assertEquals(3, indexingScriptRunner.execute(insertsWithoutError));
+            assertEquals(3, getItemAsLong("select count(1) from table1", dataSource));
+            assertEquals(2, cacheDirectory.list().length);
+        } finally {
+            FileUtils.deleteDirectory(cacheDirectory);
+        }
     }
 
 
@@ -157,6 +269,18 @@ class JdbcScriptRunnerTest {
         executeUpdateQuietly("drop table table3", dataSource);
     }
 
+    private JdbcScriptRunner createPipelinedScriptRunner() {
+        Map<String, ScriptParserFactory> databaseDialectScriptParserClassMap = new HashMap<>();
+        databaseDialectScriptParserClassMap.put("hsqldb", new DefaultScriptParserFactory(false, null));
+        return new JdbcScriptRunner(databaseDialectScriptParserClassMap, TestUtils.getDatabases(), new DefaultSQLHandler(), 1);
+    }
+
+    private JdbcScriptRunner createBatchingScriptRunner() {
+        Map<String, ScriptParserFactory> databaseDialectScriptParserClassMap = new HashMap<>();
+        databaseDialectScriptParserClassMap.put("hsqldb", new DefaultScriptParserFactory(false, null));
+        return new JdbcScriptRunner(databaseDialectScriptParserClassMap, TestUtils.getDatabases(), new DefaultSQLHandler(), 0, null, 2);
+    }
+
     private Script createScript(String scriptName) {
         ScriptFactory scriptFactory = createScriptFactory();
         return scriptFactory.createScriptWithContent(scriptName, 0L, new ScriptContentHandle.UrlScriptContentHandle(getClass().getResource("DefaultScriptRunnerTest/" + scriptName), "ISO-8859-1", false));
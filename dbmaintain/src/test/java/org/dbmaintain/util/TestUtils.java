@@ -24,6 +24,7 @@ import org.dbmaintain.script.ScriptContentHandle;
 import org.dbmaintain.script.ScriptFactory;
 import org.dbmaintain.script.executedscriptinfo.ExecutedScriptInfoSource;
 import org.dbmaintain.script.executedscriptinfo.ScriptIndexes;
+import org.dbmaintain.script.executedscriptinfo.TimestampFormat;
 import org.dbmaintain.script.executedscriptinfo.impl.DefaultExecutedScriptInfoSource;
 import org.dbmaintain.script.qualifier.Qualifier;
 import org.dbmaintain.script.qualifier.QualifierEvaluator;
@@ -34,7 +35,6 @@ import org.dbmaintain.script.repository.impl.FileSystemScriptLocation;
 
 import javax.sql.DataSource;
 import java.io.File;
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 import static java.util.Arrays.asList;
@@ -74,11 +74,20 @@ public abstract class TestUtils {
     }
 
     public static DefaultExecutedScriptInfoSource getDefaultExecutedScriptInfoSource(Database database, boolean autoCreateExecutedScriptsTable, ScriptIndexes baselineRevision) {
+        return getDefaultExecutedScriptInfoSource(database, autoCreateExecutedScriptsTable, false, baselineRevision, new DefaultSQLHandler());
+    }
+
+    public static DefaultExecutedScriptInfoSource getDefaultExecutedScriptInfoSource(Database database, boolean autoCreateExecutedScriptsTable, boolean autoCreateExecutedScriptsTableIndex) {
+        return getDefaultExecutedScriptInfoSource(database, autoCreateExecutedScriptsTable, autoCreateExecutedScriptsTableIndex, null, new DefaultSQLHandler());
+    }
+
+    public static DefaultExecutedScriptInfoSource getDefaultExecutedScriptInfoSource(Database database, boolean autoCreateExecutedScriptsTable, boolean autoCreateExecutedScriptsTableIndex,
+                                                                                     ScriptIndexes baselineRevision, SQLHandler sqlHandler) {
         ScriptFactory scriptFactory = new ScriptFactory("^([0-9]+)_", "(?:\\\\G|_)@([a-zA-Z0-9]+)_", "(?:\\\\G|_)#([a-zA-Z0-9]+)_", Collections.emptySet(),
                 Collections.singleton(new Qualifier("patch")), "preprocessing", "postprocessing", baselineRevision);
-        return new DefaultExecutedScriptInfoSource(autoCreateExecutedScriptsTable,
+        return new DefaultExecutedScriptInfoSource(autoCreateExecutedScriptsTable, autoCreateExecutedScriptsTableIndex,
                 "dbmaintain_scripts", "file_name", 150, "file_last_modified_at", "checksum", 50, "executed_at", 50, "succeeded",
-                new SimpleDateFormat("dd/MM/yyyy"), database, new DefaultSQLHandler(), scriptFactory);
+                "duration_ms", "nr_of_statements", "script_size", "runner_type", 20, "changed_at", "chunk_checkpoint", new TimestampFormat("dd/MM/yyyy"), database, sqlHandler, scriptFactory);
     }
 
     public static Script createScript(String fileName) {
@@ -143,6 +152,12 @@ public abstract class TestUtils {
             public void registerExecutedScript(ExecutedScript executedScript) {
             }
 
+            public void registerExecutedScriptWithoutCommit(ExecutedScript executedScript) {
+            }
+
+            public void registerExecutedScripts(Collection<ExecutedScript> executedScripts) {
+            }
+
             public void updateExecutedScript(ExecutedScript executedScript) {
             }
 
@@ -167,9 +182,19 @@ public abstract class TestUtils {
             public void removeErrorScripts() {
             }
 
+            public Long getChunkCheckpoint(Script script) {
+                return null;
+            }
+
+            public void updateChunkCheckpoint(Script script, Long chunkCheckpoint) {
+            }
+
             public void resetCachedState() {
             }
 
+            public void refreshCachedState() {
+            }
+
             public Set<ExecutedScript> getExecutedScripts() {
                 return executedScripts;
             }